@@ -0,0 +1,63 @@
+package au.com.dius.pactconsumer.app;
+
+import android.support.annotation.NonNull;
+
+import org.joda.time.DateTime;
+
+import au.com.dius.pactconsumer.data.Repository;
+import au.com.dius.pactconsumer.data.ResponseSnapshot;
+import au.com.dius.pactconsumer.util.Logger;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Action;
+
+/**
+ * One background refresh. The response is fetched with {@link Repository#refreshResponse(DateTime)}, so a
+ * stale cached copy is never taken for the latest one, then stored in the snapshot and handed to the
+ * {@link RefreshScheduler}, which compares it with the last one and schedules the next refresh.
+ * {@code onFinished} runs only after all of that, so the job is not reported done while work is outstanding.
+ */
+class BackgroundRefresh {
+
+  private static final String TAG = BackgroundRefresh.class.getSimpleName();
+
+  private final Repository repository;
+
+  private final ResponseSnapshot snapshot;
+
+  private final RefreshScheduler refreshScheduler;
+
+  private final Logger logger;
+
+  private final Scheduler scheduler;
+
+  BackgroundRefresh(@NonNull Repository repository,
+                    @NonNull ResponseSnapshot snapshot,
+                    @NonNull RefreshScheduler refreshScheduler,
+                    @NonNull Logger logger,
+                    @NonNull Scheduler scheduler) {
+    this.repository = repository;
+    this.snapshot = snapshot;
+    this.refreshScheduler = refreshScheduler;
+    this.logger = logger;
+    this.scheduler = scheduler;
+  }
+
+  @NonNull
+  Disposable run(@NonNull Action onFinished) {
+    return repository.refreshResponse(DateTime.now())
+        .subscribeOn(scheduler)
+        .subscribe(
+            response -> {
+              snapshot.save(response);
+              refreshScheduler.onRefreshed(response);
+              onFinished.run();
+            },
+            error -> {
+              logger.e(TAG, "Error refreshing service response", error);
+              refreshScheduler.onFailed();
+              onFinished.run();
+            });
+  }
+
+}
@@ -6,6 +6,7 @@ import android.support.annotation.NonNull;
 import au.com.dius.pactconsumer.app.di.ApplicationComponent;
 import au.com.dius.pactconsumer.app.di.ApplicationModule;
 import au.com.dius.pactconsumer.app.di.DaggerApplicationComponent;
+import au.com.dius.pactconsumer.util.StartupTrace;
 
 public class PactApplication extends Application {
 
@@ -18,9 +19,24 @@ public class PactApplication extends Application {
   }
 
   private void initialise() {
+    StartupTrace.begin("PactApplication.initialise");
     applicationComponent = DaggerApplicationComponent.builder()
         .applicationModule(new ApplicationModule(this))
         .build();
+    StartupTrace.end(applicationComponent.getLogger(), "PactApplication.initialise");
+
+    applicationComponent.getSchedulerProvider().io().scheduleDirect(this::warmUp);
+  }
+
+  /**
+   * Builds the network stack ahead of the first request, off the main thread, and makes sure a background
+   * refresh is scheduled.
+   */
+  private void warmUp() {
+    StartupTrace.begin("PactApplication.warmUp");
+    applicationComponent.getLazyRepository().warm();
+    applicationComponent.getRefreshScheduler().scheduleIfNotPending();
+    StartupTrace.end(applicationComponent.getLogger(), "PactApplication.warmUp");
   }
 
   @NonNull
@@ -0,0 +1,37 @@
+package au.com.dius.pactconsumer.app;
+
+import android.app.job.JobParameters;
+import android.app.job.JobService;
+
+import au.com.dius.pactconsumer.app.di.ApplicationComponent;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+
+/**
+ * Runs a {@link BackgroundRefresh}, so the latest response is on screen as soon as the home screen opens,
+ * and finishes the job once it is done.
+ */
+public class RefreshJobService extends JobService {
+
+  private Disposable refresh = Disposables.disposed();
+
+  @Override
+  public boolean onStartJob(JobParameters params) {
+    ApplicationComponent component = ((PactApplication) getApplication()).getApplicationComponent();
+    BackgroundRefresh backgroundRefresh = new BackgroundRefresh(
+        component.getRepository(),
+        component.getResponseSnapshot(),
+        component.getRefreshScheduler(),
+        component.getLogger(),
+        component.getSchedulerProvider().io());
+    refresh = backgroundRefresh.run(() -> jobFinished(params, false));
+    return true;
+  }
+
+  @Override
+  public boolean onStopJob(JobParameters params) {
+    refresh.dispose();
+    return true;
+  }
+
+}
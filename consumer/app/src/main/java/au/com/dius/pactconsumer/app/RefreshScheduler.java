@@ -0,0 +1,116 @@
+package au.com.dius.pactconsumer.app;
+
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.os.Build;
+import android.os.PowerManager;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import au.com.dius.pactconsumer.data.RefreshPolicy;
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+
+/**
+ * Schedules the next background refresh with the platform job scheduler, which batches it with other
+ * pending work. Only one refresh is scheduled at a time; scheduling again replaces it, and stops it if it is
+ * running.
+ * <p>
+ * The policy state is restored from the store before it is first used and saved after every refresh.
+ */
+public class RefreshScheduler {
+
+  static final int JOB_ID = 1;
+
+  private final Context context;
+
+  private final RefreshPolicy policy;
+
+  private final RefreshStateStore store;
+
+  private boolean restored;
+
+  public RefreshScheduler(@NonNull Context context,
+                          @NonNull RefreshPolicy policy,
+                          @NonNull RefreshStateStore store) {
+    this.context = context;
+    this.policy = policy;
+    this.store = store;
+  }
+
+  /**
+   * Schedules a refresh unless one is already pending or running, as it is when the process was started to
+   * run it.
+   */
+  public void scheduleIfNotPending() {
+    JobScheduler jobScheduler = getJobScheduler();
+    if (jobScheduler == null) {
+      return;
+    }
+    for (JobInfo job : jobScheduler.getAllPendingJobs()) {
+      if (job.getId() == JOB_ID) {
+        return;
+      }
+    }
+    schedule(jobScheduler);
+  }
+
+  public void onRefreshed(@NonNull ServiceResponse response) {
+    restore();
+    policy.onResponse(response);
+    store.save(policy.getState());
+    schedule(getJobScheduler());
+  }
+
+  public void onFailed() {
+    restore();
+    policy.onFailure();
+    store.save(policy.getState());
+    schedule(getJobScheduler());
+  }
+
+  private void schedule(@Nullable JobScheduler jobScheduler) {
+    if (jobScheduler == null) {
+      return;
+    }
+
+    restore();
+    long delay = policy.nextDelayMillis(isMetered(), isIdle());
+    JobInfo job = new JobInfo.Builder(JOB_ID, new ComponentName(context, RefreshJobService.class))
+        .setMinimumLatency(delay)
+        .setRequiredNetworkType(JobInfo.NETWORK_TYPE_ANY)
+        .build();
+    jobScheduler.schedule(job);
+  }
+
+  private synchronized void restore() {
+    if (restored) {
+      return;
+    }
+    restored = true;
+    RefreshPolicy.State state = store.load();
+    if (state != null) {
+      policy.restore(state);
+    }
+  }
+
+  private JobScheduler getJobScheduler() {
+    return (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+  }
+
+  private boolean isMetered() {
+    ConnectivityManager connectivity = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+    return connectivity != null && connectivity.isActiveNetworkMetered();
+  }
+
+  private boolean isIdle() {
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+      return false;
+    }
+    PowerManager power = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+    return power != null && power.isDeviceIdleMode();
+  }
+
+}
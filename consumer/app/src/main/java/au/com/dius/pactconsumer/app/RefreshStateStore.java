@@ -0,0 +1,58 @@
+package au.com.dius.pactconsumer.app;
+
+import android.content.SharedPreferences;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import au.com.dius.pactconsumer.data.RefreshPolicy;
+
+/**
+ * Keeps the refresh policy state in shared preferences, so the backoff survives the process being killed
+ * between background refreshes.
+ */
+public class RefreshStateStore {
+
+  public static final String PREFERENCES = "refresh_policy";
+
+  private static final String SEEN = "seen";
+  private static final String CONTENT_HASH = "content_hash";
+  private static final String VALID_DATE = "valid_date";
+  private static final String LAST_CHANGE_AT = "last_change_at";
+  private static final String CHANGE_INTERVAL = "change_interval";
+  private static final String UNCHANGED_COUNT = "unchanged_count";
+
+  private final SharedPreferences preferences;
+
+  public RefreshStateStore(@NonNull SharedPreferences preferences) {
+    this.preferences = preferences;
+  }
+
+  /**
+   * @return the saved state, or null if none was saved
+   */
+  @Nullable
+  public RefreshPolicy.State load() {
+    if (!preferences.contains(SEEN)) {
+      return null;
+    }
+    return new RefreshPolicy.State(
+        preferences.getBoolean(SEEN, false),
+        preferences.getInt(CONTENT_HASH, 0),
+        preferences.getLong(VALID_DATE, Long.MIN_VALUE),
+        preferences.getLong(LAST_CHANGE_AT, 0),
+        preferences.getLong(CHANGE_INTERVAL, -1),
+        preferences.getInt(UNCHANGED_COUNT, 0));
+  }
+
+  public void save(@NonNull RefreshPolicy.State state) {
+    preferences.edit()
+        .putBoolean(SEEN, state.seen)
+        .putInt(CONTENT_HASH, state.contentHash)
+        .putLong(VALID_DATE, state.validDateMillis)
+        .putLong(LAST_CHANGE_AT, state.lastChangeAt)
+        .putLong(CHANGE_INTERVAL, state.changeIntervalMillis)
+        .putInt(UNCHANGED_COUNT, state.unchangedCount)
+        .apply();
+  }
+
+}
@@ -5,9 +5,16 @@ import android.support.annotation.NonNull;
 
 import javax.inject.Singleton;
 
+import au.com.dius.pactconsumer.app.RefreshScheduler;
+import au.com.dius.pactconsumer.data.LazyRepository;
 import au.com.dius.pactconsumer.data.Repository;
+import au.com.dius.pactconsumer.data.ResponseSnapshot;
+import au.com.dius.pactconsumer.data.network.HttpCacheMetrics;
+import au.com.dius.pactconsumer.data.network.TransferMetrics;
 import au.com.dius.pactconsumer.presentation.HomeActivity;
 import au.com.dius.pactconsumer.util.Logger;
+import au.com.dius.pactconsumer.util.Metrics;
+import au.com.dius.pactconsumer.util.SchedulerProvider;
 import dagger.Component;
 
 @Singleton
@@ -20,8 +27,29 @@ public interface ApplicationComponent {
   @NonNull
   Logger getLogger();
 
+  @NonNull
+  Metrics getMetrics();
+
   @NonNull
   Repository getRepository();
 
+  @NonNull
+  LazyRepository getLazyRepository();
+
+  @NonNull
+  HttpCacheMetrics getHttpCacheMetrics();
+
+  @NonNull
+  TransferMetrics getTransferMetrics();
+
+  @NonNull
+  SchedulerProvider getSchedulerProvider();
+
+  @NonNull
+  ResponseSnapshot getResponseSnapshot();
+
+  @NonNull
+  RefreshScheduler getRefreshScheduler();
+
   void inject(HomeActivity homeActivity);
 }
@@ -1,19 +1,75 @@
 package au.com.dius.pactconsumer.app.di;
 
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.support.annotation.NonNull;
 
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+
+import org.joda.time.DateTime;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
 import javax.inject.Singleton;
 
+import au.com.dius.pactconsumer.BuildConfig;
+import au.com.dius.pactconsumer.app.RefreshScheduler;
+import au.com.dius.pactconsumer.app.RefreshStateStore;
+import au.com.dius.pactconsumer.data.CachingRepository;
+import au.com.dius.pactconsumer.data.ConditionalResponseCache;
+import au.com.dius.pactconsumer.data.DiskResponseCache;
+import au.com.dius.pactconsumer.data.FakeService;
+import au.com.dius.pactconsumer.data.LazyRepository;
+import au.com.dius.pactconsumer.data.RefreshPolicy;
 import au.com.dius.pactconsumer.data.Repository;
+import au.com.dius.pactconsumer.data.RequestCoalescer;
+import au.com.dius.pactconsumer.data.RequestPolicy;
+import au.com.dius.pactconsumer.data.ResponseSnapshot;
+import au.com.dius.pactconsumer.data.RetryBudget;
 import au.com.dius.pactconsumer.data.Service;
+import au.com.dius.pactconsumer.data.ValidDatePolicy;
+import au.com.dius.pactconsumer.data.model.AnimalPool;
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import au.com.dius.pactconsumer.domain.ViewStateStore;
+import au.com.dius.pactconsumer.util.Clock;
+import au.com.dius.pactconsumer.util.Logger;
+import au.com.dius.pactconsumer.util.Metrics;
+import au.com.dius.pactconsumer.util.SchedulerProvider;
+import dagger.Lazy;
 import dagger.Module;
 import dagger.Provides;
+import io.reactivex.android.schedulers.AndroidSchedulers;
 import retrofit2.Retrofit;
 
 @Module
 public class ApplicationModule {
 
+  private static final int RESPONSE_CACHE_ENTRIES = 16;
+  private static final long RESPONSE_CACHE_MAX_AGE = TimeUnit.MINUTES.toMillis(5);
+  private static final long RESPONSE_CACHE_MAX_STALE = TimeUnit.DAYS.toMillis(1);
+
+  private static final long SNAPSHOT_MAX_AGE = TimeUnit.DAYS.toMillis(7);
+
+  private static final double HEDGE_PERCENTILE = 0.95;
+  private static final long DEFAULT_HEDGE_DELAY = TimeUnit.SECONDS.toMillis(1);
+  private static final int MAX_RETRIES = 2;
+  private static final long BASE_BACKOFF = 200;
+  private static final long MAX_BACKOFF = TimeUnit.SECONDS.toMillis(2);
+  private static final double RETRY_BUDGET_RATIO = 0.1;
+  private static final double RETRY_BUDGET_MAX = 10;
+
+  private static final int IO_THREADS = 8;
+
+  private static final long FAKE_SEED = 42;
+  private static final long FAKE_LATENCY = 300;
+  private static final long FAKE_JITTER = 200;
+
+  private static final long MIN_REFRESH_INTERVAL = TimeUnit.MINUTES.toMillis(15);
+  private static final long MAX_REFRESH_INTERVAL = TimeUnit.HOURS.toMillis(12);
+
   private final Context context;
 
   public ApplicationModule(@NonNull Context context) {
@@ -30,8 +86,112 @@ public class ApplicationModule {
   @Singleton
   @Provides
   @NonNull
-  public Repository getRepository(@NonNull Retrofit retrofit) {
-    return new Service(retrofit.create(Service.Api.class));
+  public LazyRepository getLazyRepository(@NonNull Lazy<Retrofit> retrofit,
+                                          @NonNull Lazy<Moshi> moshi,
+                                          @NonNull AnimalPool pool,
+                                          @NonNull Logger logger,
+                                          @NonNull SchedulerProvider schedulers) {
+    return new LazyRepository(() -> createRepository(retrofit.get(), moshi.get(), pool, logger, schedulers));
+  }
+
+  @Singleton
+  @Provides
+  @NonNull
+  public ViewStateStore getViewStateStore(@NonNull Repository repository,
+                                          @NonNull ResponseSnapshot snapshot,
+                                          @NonNull Logger logger,
+                                          @NonNull Metrics metrics,
+                                          @NonNull SchedulerProvider schedulers) {
+    return new ViewStateStore(repository, snapshot, logger, metrics, schedulers.io());
+  }
+
+  @Singleton
+  @Provides
+  @NonNull
+  public SchedulerProvider getSchedulerProvider() {
+    return SchedulerProvider.bounded(
+        IO_THREADS,
+        Runtime.getRuntime().availableProcessors(),
+        AndroidSchedulers.mainThread());
+  }
+
+  @Singleton
+  @Provides
+  @NonNull
+  public ResponseSnapshot getResponseSnapshot(@NonNull AnimalPool pool) {
+    return new ResponseSnapshot(new File(context.getCacheDir(), "snapshot.bin"), SNAPSHOT_MAX_AGE, Clock.SYSTEM, pool);
+  }
+
+  @Singleton
+  @Provides
+  @NonNull
+  public RefreshScheduler getRefreshScheduler() {
+    RefreshPolicy policy = new RefreshPolicy(
+        MIN_REFRESH_INTERVAL,
+        MAX_REFRESH_INTERVAL,
+        BuildConfig.VALID_DATE_BUCKET_MILLIS,
+        Clock.SYSTEM);
+    SharedPreferences preferences = context.getSharedPreferences(RefreshStateStore.PREFERENCES, Context.MODE_PRIVATE);
+    return new RefreshScheduler(context, policy, new RefreshStateStore(preferences));
+  }
+
+  @Singleton
+  @Provides
+  @NonNull
+  public Repository getRepository(@NonNull LazyRepository repository, @NonNull SchedulerProvider schedulers) {
+    if (BuildConfig.FAKE_ANIMALS > 0) {
+      return FakeService.generated(
+          BuildConfig.FAKE_ANIMALS,
+          FAKE_SEED,
+          DateTime.now(),
+          FAKE_LATENCY,
+          FAKE_JITTER,
+          0,
+          schedulers.compute());
+    }
+    return repository;
+  }
+
+  private Repository createRepository(@NonNull Retrofit retrofit,
+                                      @NonNull Moshi moshi,
+                                      @NonNull AnimalPool pool,
+                                      @NonNull Logger logger,
+                                      @NonNull SchedulerProvider schedulers) {
+    JsonAdapter<ServiceResponse> adapter = moshi.adapter(ServiceResponse.class);
+    Repository service = new Service(
+        retrofit.create(Service.Api.class),
+        ValidDatePolicy.validityWindow(BuildConfig.VALID_DATE_BUCKET_MILLIS),
+        new RequestCoalescer<>(),
+        new ConditionalResponseCache(adapter, RESPONSE_CACHE_ENTRIES),
+        new RequestPolicy(
+            HEDGE_PERCENTILE,
+            DEFAULT_HEDGE_DELAY,
+            MAX_RETRIES,
+            BASE_BACKOFF,
+            MAX_BACKOFF,
+            new RetryBudget(RETRY_BUDGET_RATIO, RETRY_BUDGET_MAX),
+            schedulers.io(),
+            new Random()),
+        schedulers.io(),
+        pool);
+    if (!BuildConfig.RESPONSE_CACHE_ENABLED) {
+      return service;
+    }
+
+    return new CachingRepository(
+        service,
+        new DiskResponseCache(
+            new File(context.getCacheDir(), "responses"),
+            adapter,
+            RESPONSE_CACHE_ENTRIES,
+            RESPONSE_CACHE_MAX_AGE + RESPONSE_CACHE_MAX_STALE,
+            Clock.SYSTEM),
+        RESPONSE_CACHE_ENTRIES,
+        RESPONSE_CACHE_MAX_AGE,
+        RESPONSE_CACHE_MAX_STALE,
+        Clock.SYSTEM,
+        schedulers.io(),
+        logger);
   }
 
 }
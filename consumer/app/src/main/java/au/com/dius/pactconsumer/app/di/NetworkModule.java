@@ -5,23 +5,29 @@ import android.support.annotation.NonNull;
 import android.support.annotation.VisibleForTesting;
 
 import com.jakewharton.retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
-import com.squareup.moshi.FromJson;
 import com.squareup.moshi.Moshi;
-import com.squareup.moshi.ToJson;
-
-import org.joda.time.DateTime;
 
 import java.io.File;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Singleton;
 
 import au.com.dius.pactconsumer.BuildConfig;
-import au.com.dius.pactconsumer.util.DateHelper;
+import au.com.dius.pactconsumer.data.model.AnimalPool;
+import au.com.dius.pactconsumer.data.model.MoshiFactory;
+import au.com.dius.pactconsumer.data.network.CacheControlInterceptor;
+import au.com.dius.pactconsumer.data.network.ContentEncodingInterceptor;
+import au.com.dius.pactconsumer.data.network.HttpCacheMetrics;
+import au.com.dius.pactconsumer.data.network.MetricsEventListener;
+import au.com.dius.pactconsumer.data.network.SampledLoggingInterceptor;
+import au.com.dius.pactconsumer.data.network.TransferMetrics;
+import au.com.dius.pactconsumer.util.Logger;
+import au.com.dius.pactconsumer.util.MeteredExecutor;
+import au.com.dius.pactconsumer.util.Metrics;
 import dagger.Module;
 import dagger.Provides;
 import okhttp3.Cache;
 import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
 import retrofit2.converter.moshi.MoshiConverterFactory;
 
@@ -29,50 +35,90 @@ import retrofit2.converter.moshi.MoshiConverterFactory;
 @Module
 public class NetworkModule {
 
+  private static final long HTTP_CACHE_SIZE = 10 * 1024 * 1024;
+
+  private static final int HTTP_LOG_SAMPLE_RATE = 10;
+  private static final long HTTP_LOG_BODY_BYTES = 4 * 1024;
+
   @Singleton
   @Provides
   @NonNull
-  public Retrofit getRetrofit(@NonNull Context context) {
-    return getRetrofit(context, BuildConfig.BASE_URL);
+  public Retrofit getRetrofit(@NonNull Cache cache,
+                              @NonNull Moshi moshi,
+                              @NonNull Metrics metrics,
+                              @NonNull TransferMetrics transferMetrics,
+                              @NonNull Logger logger) {
+    return getRetrofit(cache, BuildConfig.BASE_URL, moshi, metrics, transferMetrics, logger);
   }
 
   @VisibleForTesting
   public Retrofit getRetrofit(@NonNull Context context,
                               @NonNull String baseUrl) {
+    Metrics metrics = new Metrics();
+    return getRetrofit(getCache(context), baseUrl, getMoshi(metrics, new AnimalPool()), metrics, new TransferMetrics(), new Logger());
+  }
+
+  private Retrofit getRetrofit(@NonNull Cache cache,
+                               @NonNull String baseUrl,
+                               @NonNull Moshi moshi,
+                               @NonNull Metrics metrics,
+                               @NonNull TransferMetrics transferMetrics,
+                               @NonNull Logger logger) {
     return new Retrofit.Builder()
         .baseUrl(baseUrl)
-        .client(getOkHttpClient(context))
-        .addConverterFactory(MoshiConverterFactory.create(getMoshi()))
+        .client(getOkHttpClient(cache, metrics, transferMetrics, logger))
+        .addConverterFactory(MoshiConverterFactory.create(moshi))
         .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
         .build();
   }
 
-  private OkHttpClient getOkHttpClient(@NonNull Context context) {
+  private OkHttpClient getOkHttpClient(@NonNull Cache cache,
+                                       @NonNull Metrics metrics,
+                                       @NonNull TransferMetrics transferMetrics,
+                                       @NonNull Logger logger) {
     OkHttpClient.Builder builder = new OkHttpClient.Builder();
+    builder.eventListenerFactory(MetricsEventListener.factory(metrics));
     if (BuildConfig.DEBUG) {
-      HttpLoggingInterceptor interceptor = new HttpLoggingInterceptor();
-      interceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-      builder.addNetworkInterceptor(interceptor);
+      builder.addInterceptor(new SampledLoggingInterceptor(
+          logger, HTTP_LOG_SAMPLE_RATE, HTTP_LOG_BODY_BYTES, new MeteredExecutor("pact-http-log", 1)));
     }
-    builder.cache(new Cache(new File(context.getCacheDir(), "okhttp_cache"), 10 * 1024 * 1024));
+    builder.addInterceptor(new ContentEncodingInterceptor(transferMetrics));
+    builder.addNetworkInterceptor(new CacheControlInterceptor(BuildConfig.VALID_DATE_BUCKET_MILLIS, TimeUnit.MILLISECONDS));
+    builder.cache(cache);
     return builder.build();
   }
 
-  private Moshi getMoshi() {
-    return new Moshi.Builder().add(new DateTimeAdapter()).build();
+  @Singleton
+  @Provides
+  @NonNull
+  public Cache getCache(@NonNull Context context) {
+    return new Cache(new File(context.getCacheDir(), "okhttp_cache"), HTTP_CACHE_SIZE);
+  }
+
+  @Singleton
+  @Provides
+  @NonNull
+  public HttpCacheMetrics getHttpCacheMetrics(@NonNull Cache cache) {
+    return new HttpCacheMetrics(cache);
   }
 
-  public static class DateTimeAdapter {
+  @VisibleForTesting
+  public Moshi getMoshi() {
+    return getMoshi(new Metrics(), new AnimalPool());
+  }
 
-    @ToJson
-    public String toJson(DateTime dateTime) {
-      return DateHelper.toString(dateTime);
-    }
+  @Singleton
+  @Provides
+  @NonNull
+  public Moshi getMoshi(@NonNull Metrics metrics, @NonNull AnimalPool pool) {
+    return MoshiFactory.create(metrics.histogram(Metrics.DECODE), pool);
+  }
 
-    @FromJson
-    public DateTime fromJson(String json) {
-      return DateHelper.parse(json);
-    }
+  @Singleton
+  @Provides
+  @NonNull
+  public AnimalPool getAnimalPool() {
+    return new AnimalPool();
   }
 
 }
@@ -0,0 +1,92 @@
+package au.com.dius.pactconsumer.data;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import au.com.dius.pactconsumer.data.model.Animal;
+
+/**
+ * Generates catalogs of animals for profiling without a provider. The same seed and weights always produce
+ * the same catalog.
+ */
+public class AnimalGenerator {
+
+  private static final String[] NAMES = {
+      "Buddy", "Cathy", "Birdy", "Max", "Bella", "Charlie", "Luna", "Coco", "Rocky", "Daisy",
+      "Milo", "Molly", "Oscar", "Rosie", "Toby", "Ruby", "Jasper", "Poppy", "Archie", "Willow"
+  };
+
+  private final long seed;
+
+  private final String[] types;
+
+  private final int[] cumulativeWeights;
+
+  /**
+   * @param typeWeights relative weight of each type; iteration order must be stable for the output to be repeatable
+   */
+  public AnimalGenerator(long seed, @NonNull Map<String, Integer> typeWeights) {
+    this.seed = seed;
+    this.types = new String[typeWeights.size()];
+    this.cumulativeWeights = new int[typeWeights.size()];
+
+    int total = 0;
+    int i = 0;
+    for (Map.Entry<String, Integer> entry : typeWeights.entrySet()) {
+      if (entry.getValue() < 0) {
+        throw new IllegalArgumentException("Negative weight for " + entry.getKey());
+      }
+      total += entry.getValue();
+      types[i] = entry.getKey();
+      cumulativeWeights[i] = total;
+      i++;
+    }
+    if (total <= 0) {
+      throw new IllegalArgumentException("Weights must add up to more than 0");
+    }
+  }
+
+  /**
+   * Dogs, cats and birds, equally likely.
+   */
+  @NonNull
+  public static AnimalGenerator uniform(long seed) {
+    Map<String, Integer> weights = new LinkedHashMap<>();
+    weights.put("dog", 1);
+    weights.put("cat", 1);
+    weights.put("bird", 1);
+    return new AnimalGenerator(seed, weights);
+  }
+
+  @NonNull
+  public List<Animal> generate(int count) {
+    if (count == 0) {
+      return Collections.emptyList();
+    }
+
+    Random random = new Random(seed);
+    int total = cumulativeWeights[cumulativeWeights.length - 1];
+    List<Animal> animals = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      String name = NAMES[random.nextInt(NAMES.length)] + " " + (i + 1);
+      animals.add(Animal.create(name, typeFor(random.nextInt(total))));
+    }
+    return animals;
+  }
+
+  private String typeFor(int roll) {
+    for (int i = 0; i < cumulativeWeights.length; i++) {
+      if (roll < cumulativeWeights[i]) {
+        return types[i];
+      }
+    }
+    return types[types.length - 1];
+  }
+
+}
@@ -0,0 +1,110 @@
+package au.com.dius.pactconsumer.data;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+
+import org.joda.time.DateTime;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import au.com.dius.pactconsumer.data.model.Animal;
+import au.com.dius.pactconsumer.util.DateHelper;
+import io.reactivex.Flowable;
+import io.reactivex.functions.Consumer;
+import okio.BufferedSource;
+
+/**
+ * Pulls animals one at a time out of a provider.json body without materialising the whole response.
+ * <p>
+ * {@code valid_date} is reported to the callback as soon as it is read, unknown fields are skipped.
+ */
+public class AnimalStreamReader implements Closeable {
+
+  private static final JsonReader.Options OPTIONS = JsonReader.Options.of("valid_date", "animals");
+
+  private final JsonReader reader;
+
+  private final JsonAdapter<Animal> animalAdapter;
+
+  private final Consumer<DateTime> onValidDate;
+
+  private boolean started;
+  private boolean inAnimals;
+
+  public AnimalStreamReader(@NonNull BufferedSource source,
+                            @NonNull JsonAdapter<Animal> animalAdapter,
+                            @NonNull Consumer<DateTime> onValidDate) {
+    this.reader = JsonReader.of(source);
+    this.animalAdapter = animalAdapter;
+    this.onValidDate = onValidDate;
+  }
+
+  /**
+   * @return the next animal in the body, or null once the body has been fully read
+   */
+  @Nullable
+  public Animal next() throws Exception {
+    if (!started) {
+      reader.beginObject();
+      started = true;
+    }
+
+    while (true) {
+      if (inAnimals) {
+        if (reader.hasNext()) {
+          return animalAdapter.fromJson(reader);
+        }
+        reader.endArray();
+        inAnimals = false;
+      }
+
+      if (!reader.hasNext()) {
+        reader.endObject();
+        return null;
+      }
+
+      int field = reader.selectName(OPTIONS);
+      if (field == -1) {
+        reader.nextName();
+        reader.skipValue();
+      } else if (reader.peek() == JsonReader.Token.NULL) {
+        reader.nextNull();
+      } else if (field == 0) {
+        onValidDate.accept(DateHelper.parse(reader.nextString()));
+      } else {
+        reader.beginArray();
+        inAnimals = true;
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  /**
+   * Streams the animals in the body, reading the next one only when it is requested downstream.
+   */
+  @NonNull
+  public static Flowable<Animal> stream(@NonNull BufferedSource source,
+                                        @NonNull JsonAdapter<Animal> animalAdapter,
+                                        @NonNull Consumer<DateTime> onValidDate) {
+    return Flowable.generate(
+        () -> new AnimalStreamReader(source, animalAdapter, onValidDate),
+        (reader, emitter) -> {
+          Animal animal = reader.next();
+          if (animal == null) {
+            emitter.onComplete();
+          } else {
+            emitter.onNext(animal);
+          }
+        },
+        AnimalStreamReader::close);
+  }
+
+}
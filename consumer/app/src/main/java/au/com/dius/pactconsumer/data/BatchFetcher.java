@@ -0,0 +1,67 @@
+package au.com.dius.pactconsumer.data;
+
+import android.support.annotation.NonNull;
+
+import org.joda.time.DateTime;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import au.com.dius.pactconsumer.data.model.BatchResponse;
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.functions.Function;
+
+/**
+ * Fetches responses for many dates with at most {@code maxConcurrency} requests in flight.
+ * <p>
+ * Dates for the same instant are fetched once, in the order they were first given. Results are emitted in
+ * the order the requests complete, and a failed request is emitted as a failed {@link BatchResponse}
+ * without affecting the rest of the batch.
+ */
+public final class BatchFetcher {
+
+  private BatchFetcher() {
+  }
+
+  /**
+   * @param fetch     fetches the response for a single date
+   * @param scheduler subscribes to each request; the network calls block, so without it the requests would
+   *                  run one at a time on the subscribing thread
+   */
+  @NonNull
+  public static Flowable<BatchResponse> fetch(@NonNull Collection<DateTime> dateTimes,
+                                              int maxConcurrency,
+                                              @NonNull Function<DateTime, Single<ServiceResponse>> fetch,
+                                              @NonNull Scheduler scheduler) {
+    if (maxConcurrency <= 0) {
+      return Flowable.error(new IllegalArgumentException("Concurrency must be positive: " + maxConcurrency));
+    }
+
+    return Flowable.defer(() -> Flowable.fromIterable(distinct(dateTimes)))
+        .flatMap(dateTime -> Single.defer(() -> fetch.apply(dateTime))
+                .subscribeOn(scheduler)
+                .map(response -> BatchResponse.success(dateTime, response))
+                .onErrorReturn(error -> BatchResponse.failure(dateTime, error))
+                .toFlowable(),
+            maxConcurrency);
+  }
+
+  @NonNull
+  static List<DateTime> distinct(@NonNull Collection<DateTime> dateTimes) {
+    Set<Long> seen = new HashSet<>();
+    List<DateTime> result = new ArrayList<>(dateTimes.size());
+    for (DateTime dateTime : dateTimes) {
+      if (seen.add(dateTime.getMillis())) {
+        result.add(dateTime);
+      }
+    }
+    return result;
+  }
+
+}
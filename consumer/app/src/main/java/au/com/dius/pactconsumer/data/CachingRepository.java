@@ -0,0 +1,321 @@
+package au.com.dius.pactconsumer.data;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.joda.time.DateTime;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import au.com.dius.pactconsumer.data.model.Animal;
+import au.com.dius.pactconsumer.data.model.BatchResponse;
+import au.com.dius.pactconsumer.data.model.Page;
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import au.com.dius.pactconsumer.util.Clock;
+import au.com.dius.pactconsumer.util.Logger;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.observers.DisposableSingleObserver;
+import io.reactivex.functions.Consumer;
+
+/**
+ * Caches the responses of another repository in a bounded in-memory LRU backed by an optional disk tier.
+ * <p>
+ * An entry is fresh for {@code maxAgeMillis} after its response's valid date (or after it was stored, when
+ * the response has no valid date). Once it goes stale it is still returned for up to {@code maxStaleMillis}
+ * while a single background request on {@code scheduler} refreshes it. A failed refresh is logged and leaves
+ * the stale entry in place; {@link #cancelRevalidations()} stops the refreshes still running.
+ * <p>
+ * Entries are keyed by the requested date truncated to {@code maxAgeMillis}. Requests for the current time
+ * move to a new key every {@code maxAgeMillis}, so the latest response to such a request is also kept on its
+ * own, and answers a current request whose key has no entry yet.
+ * <p>
+ * {@link #refreshResponse(DateTime)} skips the cache, so a stale entry can never stand in for the network
+ * result, and stores what the delegate returns.
+ * <p>
+ * Batches are fetched through the cache, one date at a time on {@code scheduler}.
+ * <p>
+ * Streamed animals and pages are not cached and go straight to the delegate.
+ */
+public class CachingRepository implements Repository {
+
+  private static final String TAG = CachingRepository.class.getSimpleName();
+
+  private static final String LATEST_KEY = "latest";
+
+  private final Repository delegate;
+
+  @Nullable
+  private final DiskResponseCache diskCache;
+
+  private final long maxAgeMillis;
+  private final long maxStaleMillis;
+
+  private final ValidDatePolicy keyPolicy;
+
+  private final Clock clock;
+
+  private final Scheduler scheduler;
+
+  private final Logger logger;
+
+  private final Map<String, DiskResponseCache.Entry> memoryCache;
+
+  @Nullable
+  private DiskResponseCache.Entry latest;
+
+  private boolean latestLoaded;
+
+  private final Set<String> revalidating = Collections.synchronizedSet(new HashSet<>());
+
+  private final CompositeDisposable revalidations = new CompositeDisposable();
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  public CachingRepository(@NonNull Repository delegate,
+                           @Nullable DiskResponseCache diskCache,
+                           int maxEntries,
+                           long maxAgeMillis,
+                           long maxStaleMillis,
+                           @NonNull Clock clock,
+                           @NonNull Scheduler scheduler,
+                           @NonNull Logger logger) {
+    this.delegate = delegate;
+    this.diskCache = diskCache;
+    this.maxAgeMillis = maxAgeMillis;
+    this.maxStaleMillis = maxStaleMillis;
+    this.keyPolicy = ValidDatePolicy.truncate(maxAgeMillis);
+    this.clock = clock;
+    this.scheduler = scheduler;
+    this.logger = logger;
+    this.memoryCache = new LinkedHashMap<String, DiskResponseCache.Entry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, DiskResponseCache.Entry> eldest) {
+        if (size() <= maxEntries) {
+          return false;
+        }
+        evictions.incrementAndGet();
+        return true;
+      }
+    };
+  }
+
+  @NonNull
+  @Override
+  public Single<ServiceResponse> fetchResponse(@NonNull DateTime dateTime) {
+    return Single.defer(() -> {
+      String key = keyFor(dateTime);
+      DiskResponseCache.Entry entry = lookup(key);
+      long now = clock.currentTimeMillis();
+      if (entry == null && isCurrent(dateTime, now)) {
+        entry = lookupLatest();
+      }
+
+      if (entry == null || now >= expiresAt(entry) + maxStaleMillis) {
+        misses.incrementAndGet();
+        return load(key, dateTime);
+      }
+
+      hits.incrementAndGet();
+      if (now >= expiresAt(entry)) {
+        revalidate(key, dateTime);
+      }
+      return Single.just(entry.getResponse());
+    });
+  }
+
+  @NonNull
+  @Override
+  public Single<ServiceResponse> refreshResponse(@NonNull DateTime dateTime) {
+    return Single.defer(() -> {
+      String key = keyFor(dateTime);
+      return delegate.refreshResponse(dateTime)
+          .doOnSuccess(response -> store(key, response, isCurrent(dateTime, clock.currentTimeMillis())));
+    });
+  }
+
+  @NonNull
+  @Override
+  public Flowable<BatchResponse> fetchResponses(@NonNull Collection<DateTime> dateTimes, int maxConcurrency) {
+    return BatchFetcher.fetch(dateTimes, maxConcurrency, this::fetchResponse, scheduler);
+  }
+
+  @NonNull
+  @Override
+  public Flowable<Animal> streamAnimals(@NonNull DateTime dateTime,
+                                       @NonNull Consumer<DateTime> onValidDate) {
+    return delegate.streamAnimals(dateTime, onValidDate);
+  }
+
+  @NonNull
+  @Override
+  public Single<Page> fetchPage(@NonNull DateTime dateTime, int cursor, int limit) {
+    return delegate.fetchPage(dateTime, cursor, limit);
+  }
+
+  @Override
+  public void releasePages() {
+    delegate.releasePages();
+  }
+
+  public int size() {
+    synchronized (memoryCache) {
+      return memoryCache.size();
+    }
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  public double getHitRate() {
+    long hitCount = hits.get();
+    long total = hitCount + misses.get();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  public long getEvictionCount() {
+    return evictions.get();
+  }
+
+  /**
+   * @return the number of background revalidations still running
+   */
+  public int getRevalidationCount() {
+    return revalidations.size();
+  }
+
+  /**
+   * Cancels the background revalidations still running; stale entries stay as they are.
+   */
+  public void cancelRevalidations() {
+    revalidations.clear();
+  }
+
+  public void clear() {
+    synchronized (memoryCache) {
+      memoryCache.clear();
+      latest = null;
+      latestLoaded = true;
+    }
+    if (diskCache != null) {
+      diskCache.clear();
+    }
+  }
+
+  private String keyFor(@Nullable DateTime dateTime) {
+    DateTime normalized = keyPolicy.normalize(dateTime);
+    return normalized != null ? String.valueOf(normalized.getMillis()) : "";
+  }
+
+  private boolean isCurrent(@Nullable DateTime dateTime, long now) {
+    return dateTime != null && Math.abs(dateTime.getMillis() - now) < maxAgeMillis;
+  }
+
+  private long expiresAt(@NonNull DiskResponseCache.Entry entry) {
+    DateTime validDate = entry.getResponse().getValidDate();
+    long base = validDate != null ? validDate.getMillis() : entry.getStoredAt();
+    return base + maxAgeMillis;
+  }
+
+  @Nullable
+  private DiskResponseCache.Entry lookup(@NonNull String key) {
+    synchronized (memoryCache) {
+      DiskResponseCache.Entry entry = memoryCache.get(key);
+      if (entry != null) {
+        return entry;
+      }
+    }
+
+    if (diskCache == null) {
+      return null;
+    }
+
+    DiskResponseCache.Entry entry = diskCache.get(key);
+    if (entry != null) {
+      synchronized (memoryCache) {
+        memoryCache.put(key, entry);
+      }
+    }
+    return entry;
+  }
+
+  @Nullable
+  private DiskResponseCache.Entry lookupLatest() {
+    synchronized (memoryCache) {
+      if (latestLoaded) {
+        return latest;
+      }
+    }
+
+    DiskResponseCache.Entry entry = diskCache != null ? diskCache.get(LATEST_KEY) : null;
+    synchronized (memoryCache) {
+      if (!latestLoaded) {
+        latest = entry;
+        latestLoaded = true;
+      }
+      return latest;
+    }
+  }
+
+  private Single<ServiceResponse> load(@NonNull String key, @NonNull DateTime dateTime) {
+    return delegate.fetchResponse(dateTime)
+        .doOnSuccess(response -> store(key, response, isCurrent(dateTime, clock.currentTimeMillis())));
+  }
+
+  private void store(@NonNull String key, @NonNull ServiceResponse response, boolean current) {
+    DiskResponseCache.Entry entry = new DiskResponseCache.Entry(response, clock.currentTimeMillis());
+    synchronized (memoryCache) {
+      memoryCache.put(key, entry);
+      if (current) {
+        latest = entry;
+        latestLoaded = true;
+      }
+    }
+    if (diskCache != null) {
+      diskCache.put(key, response);
+      if (current) {
+        diskCache.put(LATEST_KEY, response);
+      }
+    }
+  }
+
+  private void revalidate(@NonNull String key, @NonNull DateTime dateTime) {
+    if (!revalidating.add(key)) {
+      return;
+    }
+
+    DisposableSingleObserver<ServiceResponse> observer = new DisposableSingleObserver<ServiceResponse>() {
+      @Override
+      public void onSuccess(ServiceResponse response) {
+        revalidations.delete(this);
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        revalidations.delete(this);
+        logger.e(TAG, "Error revalidating " + key, throwable);
+      }
+    };
+    revalidations.add(observer);
+    load(key, dateTime)
+        .subscribeOn(scheduler)
+        .doFinally(() -> revalidating.remove(key))
+        .subscribe(observer);
+  }
+
+}
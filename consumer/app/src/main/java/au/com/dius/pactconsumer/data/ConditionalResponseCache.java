@@ -0,0 +1,173 @@
+package au.com.dius.pactconsumer.data;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.jakewharton.retrofit2.adapter.rxjava2.HttpException;
+import com.squareup.moshi.JsonAdapter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ByteString;
+import okio.HashingSource;
+import okio.Okio;
+import retrofit2.Response;
+
+/**
+ * Remembers the validators and decoded response of the last successful request for each query, so repeated
+ * requests can be made conditional and unchanged responses keep their identity.
+ * <p>
+ * A {@code 304 Not Modified} returns the previously decoded response without reading a body. A {@code 200} is
+ * decoded straight from the body while it is hashed, so the body is never staged in memory; if it hashes to
+ * the same value as the previous one, for providers that send no validators, the previous response is
+ * returned instead of the new copy.
+ */
+public class ConditionalResponseCache {
+
+  private static final int NOT_MODIFIED = 304;
+
+  private static final String ETAG = "ETag";
+  private static final String LAST_MODIFIED = "Last-Modified";
+
+  private static final long DRAIN_BYTES = 8192;
+
+  private final JsonAdapter<ServiceResponse> adapter;
+
+  private final Map<String, Entry> entries;
+
+  private final AtomicLong notModified = new AtomicLong();
+  private final AtomicLong unchanged = new AtomicLong();
+  private final AtomicLong decoded = new AtomicLong();
+
+  public ConditionalResponseCache(@NonNull JsonAdapter<ServiceResponse> adapter, int maxEntries) {
+    this.adapter = adapter;
+    this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /**
+   * @return the validators to send with the next request for the key, or null if there are none
+   */
+  @Nullable
+  public synchronized Entry get(@NonNull String key) {
+    return entries.get(key);
+  }
+
+  /**
+   * Resolves a response to the request made with the validators from {@link #get(String)}.
+   *
+   * @throws HttpException if the response is neither successful nor {@code 304 Not Modified}
+   */
+  @NonNull
+  public ServiceResponse resolve(@NonNull String key, @NonNull Response<ResponseBody> response)
+      throws IOException, HttpException {
+    Entry previous = get(key);
+    if (response.code() == NOT_MODIFIED && previous != null) {
+      notModified.incrementAndGet();
+      return previous.response;
+    }
+    if (!response.isSuccessful()) {
+      throw new HttpException(response);
+    }
+
+    ServiceResponse decodedResponse;
+    ByteString hash;
+    ResponseBody body = response.body();
+    try {
+      HashingSource hashing = HashingSource.md5(body.source());
+      BufferedSource source = Okio.buffer(hashing);
+      decodedResponse = adapter.fromJson(source);
+      drain(source);
+      hash = hashing.hash();
+    } finally {
+      body.close();
+    }
+    if (decodedResponse == null) {
+      throw new IOException("Empty response body");
+    }
+
+    ServiceResponse result;
+    if (previous != null && hash.equals(previous.contentHash)) {
+      unchanged.incrementAndGet();
+      result = previous.response;
+    } else {
+      decoded.incrementAndGet();
+      result = decodedResponse;
+    }
+
+    Entry entry = new Entry(response.headers().get(ETAG), response.headers().get(LAST_MODIFIED), hash, result);
+    synchronized (this) {
+      entries.put(key, entry);
+    }
+    return result;
+  }
+
+  /**
+   * Reads whatever follows the JSON document, so the hash covers the whole body.
+   */
+  private static void drain(@NonNull BufferedSource source) throws IOException {
+    Buffer discard = new Buffer();
+    while (source.read(discard, DRAIN_BYTES) != -1) {
+      discard.clear();
+    }
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  public long getNotModifiedCount() {
+    return notModified.get();
+  }
+
+  /**
+   * Bodies that decoded to the same content as the previous response.
+   */
+  public long getUnchangedCount() {
+    return unchanged.get();
+  }
+
+  /**
+   * Bodies that decoded to changed content.
+   */
+  public long getDecodedCount() {
+    return decoded.get();
+  }
+
+  public static final class Entry {
+
+    @Nullable
+    public final String etag;
+
+    @Nullable
+    public final String lastModified;
+
+    @NonNull
+    final ByteString contentHash;
+
+    @NonNull
+    final ServiceResponse response;
+
+    Entry(@Nullable String etag,
+          @Nullable String lastModified,
+          @NonNull ByteString contentHash,
+          @NonNull ServiceResponse response) {
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.contentHash = contentHash;
+      this.response = response;
+    }
+  }
+
+}
@@ -0,0 +1,159 @@
+package au.com.dius.pactconsumer.data;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.squareup.moshi.JsonAdapter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import au.com.dius.pactconsumer.util.Clock;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ByteString;
+import okio.Okio;
+
+/**
+ * Persists service responses as JSON files, one per key. The file's modification time is the time
+ * the entry was stored.
+ * <p>
+ * Entries older than {@code maxAgeMillis} are dropped, and every put prunes the directory back to
+ * {@code maxEntries} files, oldest first.
+ */
+public class DiskResponseCache {
+
+  private static final String EXTENSION = ".json";
+  private static final String TEMP_EXTENSION = ".tmp";
+
+  private final File directory;
+
+  private final JsonAdapter<ServiceResponse> adapter;
+
+  private final int maxEntries;
+
+  private final long maxAgeMillis;
+
+  private final Clock clock;
+
+  public DiskResponseCache(@NonNull File directory,
+                           @NonNull JsonAdapter<ServiceResponse> adapter,
+                           int maxEntries,
+                           long maxAgeMillis,
+                           @NonNull Clock clock) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("Must keep at least one entry: " + maxEntries);
+    }
+    this.directory = directory;
+    this.adapter = adapter;
+    this.maxEntries = maxEntries;
+    this.maxAgeMillis = maxAgeMillis;
+    this.clock = clock;
+  }
+
+  @Nullable
+  public synchronized Entry get(@NonNull String key) {
+    File file = fileFor(key);
+    if (!file.exists()) {
+      return null;
+    }
+    if (isExpired(file)) {
+      file.delete();
+      return null;
+    }
+
+    try (BufferedSource source = Okio.buffer(Okio.source(file))) {
+      ServiceResponse response = adapter.fromJson(source);
+      return response != null ? new Entry(response, file.lastModified()) : null;
+    } catch (IOException | RuntimeException e) {
+      file.delete();
+      return null;
+    }
+  }
+
+  public synchronized void put(@NonNull String key, @NonNull ServiceResponse response) {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      return;
+    }
+
+    File file = fileFor(key);
+    File temp = new File(directory, file.getName() + TEMP_EXTENSION);
+    try (BufferedSink sink = Okio.buffer(Okio.sink(temp))) {
+      adapter.toJson(sink, response);
+    } catch (IOException e) {
+      temp.delete();
+      return;
+    }
+
+    if (!temp.renameTo(file)) {
+      temp.delete();
+      return;
+    }
+    file.setLastModified(clock.currentTimeMillis());
+    prune();
+  }
+
+  public synchronized void remove(@NonNull String key) {
+    fileFor(key).delete();
+  }
+
+  public synchronized void clear() {
+    File[] files = directory.listFiles();
+    if (files == null) {
+      return;
+    }
+    for (File file : files) {
+      file.delete();
+    }
+  }
+
+  private void prune() {
+    File[] files = directory.listFiles();
+    if (files == null) {
+      return;
+    }
+
+    Arrays.sort(files, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+    int kept = 0;
+    for (File file : files) {
+      if (kept < maxEntries && file.getName().endsWith(EXTENSION) && !isExpired(file)) {
+        kept++;
+      } else {
+        file.delete();
+      }
+    }
+  }
+
+  private boolean isExpired(@NonNull File file) {
+    return clock.currentTimeMillis() - file.lastModified() > maxAgeMillis;
+  }
+
+  private File fileFor(@NonNull String key) {
+    return new File(directory, ByteString.encodeUtf8(key).md5().hex() + EXTENSION);
+  }
+
+  public static class Entry {
+
+    @NonNull
+    private final ServiceResponse response;
+
+    private final long storedAt;
+
+    public Entry(@NonNull ServiceResponse response, long storedAt) {
+      this.response = response;
+      this.storedAt = storedAt;
+    }
+
+    @NonNull
+    public ServiceResponse getResponse() {
+      return response;
+    }
+
+    public long getStoredAt() {
+      return storedAt;
+    }
+  }
+
+}
@@ -4,15 +4,33 @@ import android.support.annotation.NonNull;
 
 import org.joda.time.DateTime;
 
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import au.com.dius.pactconsumer.data.model.Animal;
+import au.com.dius.pactconsumer.data.model.BatchResponse;
+import au.com.dius.pactconsumer.data.model.Page;
 import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
 import io.reactivex.Single;
+import io.reactivex.functions.Consumer;
+import io.reactivex.schedulers.Schedulers;
 
+/**
+ * Answers every request with a fixed response, without a provider.
+ * <p>
+ * By default it answers straight away with {@link #RESPONSE}. For profiling it can answer with a generated
+ * catalog of any size, after a latency with random jitter, and fail a share of requests with an
+ * {@link IOException}. Delays and failures come from a seeded {@link Random}, so a run can be repeated.
+ */
 @Singleton
 public class FakeService implements Repository {
 
@@ -29,14 +47,129 @@ public class FakeService implements Repository {
     );
   }
 
+  private final ServiceResponse response;
+
+  private final long latencyMillis;
+  private final long jitterMillis;
+  private final double errorRate;
+
+  private final Random random;
+
+  private final Scheduler scheduler;
+
   @Inject
   public FakeService() {
+    this(RESPONSE, 0, 0, 0, new Random(0), Schedulers.trampoline());
+  }
+
+  /**
+   * @param latencyMillis delay before every answer
+   * @param jitterMillis  upper bound of a uniformly random extra delay
+   * @param errorRate     share of requests that fail, between 0 and 1
+   * @param scheduler     runs the delays
+   */
+  public FakeService(@NonNull ServiceResponse response,
+                     long latencyMillis,
+                     long jitterMillis,
+                     double errorRate,
+                     @NonNull Random random,
+                     @NonNull Scheduler scheduler) {
+    if (latencyMillis < 0 || jitterMillis < 0) {
+      throw new IllegalArgumentException("Delays must not be negative: " + latencyMillis + ", " + jitterMillis);
+    }
+    if (errorRate < 0 || errorRate > 1) {
+      throw new IllegalArgumentException("Error rate must be between 0 and 1: " + errorRate);
+    }
+    this.response = response;
+    this.latencyMillis = latencyMillis;
+    this.jitterMillis = jitterMillis;
+    this.errorRate = errorRate;
+    this.random = random;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Answers with {@code animals} animals from a uniform generator, valid from {@code validDate}.
+   */
+  @NonNull
+  public static FakeService generated(int animals,
+                                      long seed,
+                                      @NonNull DateTime validDate,
+                                      long latencyMillis,
+                                      long jitterMillis,
+                                      double errorRate,
+                                      @NonNull Scheduler scheduler) {
+    ServiceResponse response = new ServiceResponse(validDate, AnimalGenerator.uniform(seed).generate(animals));
+    return new FakeService(response, latencyMillis, jitterMillis, errorRate, new Random(seed), scheduler);
+  }
+
+  @NonNull
+  public ServiceResponse getResponse() {
+    return response;
   }
 
   @NonNull
   @Override
   public Single<ServiceResponse> fetchResponse(@NonNull DateTime dateTime) {
-    return Single.just(RESPONSE);
+    return answer(Single.just(response));
+  }
+
+  @NonNull
+  @Override
+  public Single<ServiceResponse> refreshResponse(@NonNull DateTime dateTime) {
+    return fetchResponse(dateTime);
+  }
+
+  @NonNull
+  @Override
+  public Flowable<BatchResponse> fetchResponses(@NonNull Collection<DateTime> dateTimes, int maxConcurrency) {
+    return BatchFetcher.fetch(dateTimes, maxConcurrency, this::fetchResponse, Schedulers.trampoline());
+  }
+
+  @NonNull
+  @Override
+  public Flowable<Animal> streamAnimals(@NonNull DateTime dateTime,
+                                       @NonNull Consumer<DateTime> onValidDate) {
+    return answer(Single.just(response))
+        .flatMapPublisher(answer -> {
+          onValidDate.accept(answer.getValidDate());
+          return Flowable.fromIterable(answer.getAnimals());
+        });
+  }
+
+  @NonNull
+  @Override
+  public Single<Page> fetchPage(@NonNull DateTime dateTime, int cursor, int limit) {
+    List<Animal> animals = response.getAnimals();
+    int from = Math.min(cursor, animals.size());
+    int to = Math.min(cursor + limit + 1, animals.size());
+    return answer(Single.just(Page.create(response.getValidDate(), animals.subList(from, to), cursor, limit)));
+  }
+
+  @Override
+  public void releasePages() {
+    // pages are cut from the response in memory, so nothing is kept open
+  }
+
+  private <T> Single<T> answer(@NonNull Single<T> value) {
+    if (latencyMillis == 0 && jitterMillis == 0 && errorRate == 0) {
+      return value;
+    }
+
+    return Single.defer(() -> {
+      long delay;
+      boolean fail;
+      synchronized (random) {
+        delay = latencyMillis + (jitterMillis > 0 ? (long) (random.nextDouble() * (jitterMillis + 1)) : 0);
+        fail = random.nextDouble() < errorRate;
+      }
+
+      Single<T> result = fail ? Single.error(new IOException("Simulated failure")) : value;
+      if (delay == 0) {
+        return result;
+      }
+      return Single.timer(delay, TimeUnit.MILLISECONDS, scheduler).flatMap(ignored -> result);
+    });
   }
 
 }
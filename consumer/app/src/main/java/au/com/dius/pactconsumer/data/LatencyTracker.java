@@ -0,0 +1,46 @@
+package au.com.dius.pactconsumer.data;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent request latencies in a ring buffer and answers percentile queries over them.
+ */
+public class LatencyTracker {
+
+  private final long[] samples;
+
+  private int next;
+  private int count;
+
+  public LatencyTracker(int capacity) {
+    this.samples = new long[capacity];
+  }
+
+  public synchronized void record(long millis) {
+    samples[next] = millis;
+    next = (next + 1) % samples.length;
+    count = Math.min(count + 1, samples.length);
+  }
+
+  public synchronized int getCount() {
+    return count;
+  }
+
+  /**
+   * @param percentile between 0 and 1
+   * @return the latency below which that share of the recorded samples fall, or -1 if nothing was recorded
+   */
+  public long percentile(double percentile) {
+    long[] sorted;
+    synchronized (this) {
+      if (count == 0) {
+        return -1;
+      }
+      sorted = Arrays.copyOf(samples, count);
+    }
+    Arrays.sort(sorted);
+    int index = (int) Math.ceil(percentile * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+  }
+
+}
@@ -0,0 +1,98 @@
+package au.com.dius.pactconsumer.data;
+
+import android.support.annotation.NonNull;
+
+import org.joda.time.DateTime;
+
+import java.util.Collection;
+
+import javax.inject.Provider;
+
+import au.com.dius.pactconsumer.data.model.Animal;
+import au.com.dius.pactconsumer.data.model.BatchResponse;
+import au.com.dius.pactconsumer.data.model.Page;
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.functions.Consumer;
+
+/**
+ * Defers creating the real repository, and with it the network stack, until a request is subscribed to
+ * or {@link #warm()} is called, so neither has to happen on the thread that asks for the repository.
+ */
+public class LazyRepository implements Repository {
+
+  private final Provider<Repository> factory;
+
+  private volatile Repository delegate;
+
+  public LazyRepository(@NonNull Provider<Repository> factory) {
+    this.factory = factory;
+  }
+
+  /**
+   * Creates the real repository on the calling thread, if it has not been created yet.
+   */
+  public void warm() {
+    get();
+  }
+
+  public boolean isCreated() {
+    return delegate != null;
+  }
+
+  @NonNull
+  @Override
+  public Single<ServiceResponse> fetchResponse(@NonNull DateTime dateTime) {
+    return Single.defer(() -> get().fetchResponse(dateTime));
+  }
+
+  @NonNull
+  @Override
+  public Single<ServiceResponse> refreshResponse(@NonNull DateTime dateTime) {
+    return Single.defer(() -> get().refreshResponse(dateTime));
+  }
+
+  @NonNull
+  @Override
+  public Flowable<BatchResponse> fetchResponses(@NonNull Collection<DateTime> dateTimes, int maxConcurrency) {
+    return Flowable.defer(() -> get().fetchResponses(dateTimes, maxConcurrency));
+  }
+
+  @NonNull
+  @Override
+  public Flowable<Animal> streamAnimals(@NonNull DateTime dateTime,
+                                       @NonNull Consumer<DateTime> onValidDate) {
+    return Flowable.defer(() -> get().streamAnimals(dateTime, onValidDate));
+  }
+
+  @NonNull
+  @Override
+  public Single<Page> fetchPage(@NonNull DateTime dateTime, int cursor, int limit) {
+    return Single.defer(() -> get().fetchPage(dateTime, cursor, limit));
+  }
+
+  @Override
+  public void releasePages() {
+    Repository result = delegate;
+    if (result != null) {
+      result.releasePages();
+    }
+  }
+
+  @NonNull
+  private Repository get() {
+    Repository result = delegate;
+    if (result == null) {
+      synchronized (this) {
+        result = delegate;
+        if (result == null) {
+          result = factory.get();
+          delegate = result;
+        }
+      }
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,156 @@
+package au.com.dius.pactconsumer.data;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.squareup.moshi.JsonAdapter;
+
+import org.joda.time.DateTime;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import au.com.dius.pactconsumer.data.model.Animal;
+import au.com.dius.pactconsumer.data.model.Page;
+import io.reactivex.Scheduler;
+import okio.BufferedSource;
+
+/**
+ * Keeps the body of the last paged request open where its page ended, so the next page carries on reading
+ * from there instead of downloading and decoding the list again from the start. Scrolling through a list
+ * therefore reads it once.
+ * <p>
+ * Only the stream furthest into the list is kept. A page behind it, such as one that was dropped and comes
+ * back into view, is read from a new stream. A stream left unused for {@code idleMillis} is closed.
+ */
+class PageStreams {
+
+  private final Scheduler scheduler;
+
+  private final long idleMillis;
+
+  @Nullable
+  private Stream open;
+
+  PageStreams(@NonNull Scheduler scheduler, long idleMillis) {
+    this.scheduler = scheduler;
+    this.idleMillis = idleMillis;
+  }
+
+  /**
+   * @return the open stream for the query if it is positioned at {@code cursor}, or null
+   */
+  @Nullable
+  synchronized Stream take(@NonNull String key, int cursor) {
+    if (open == null || !open.key.equals(key) || open.position != cursor) {
+      return null;
+    }
+    Stream stream = open;
+    open = null;
+    return stream;
+  }
+
+  /**
+   * Keeps the stream for the next page, unless it is finished or behind the stream already kept.
+   */
+  synchronized void offer(@NonNull Stream stream) {
+    if (stream.finished || (open != null && open.key.equals(stream.key) && open.position > stream.position)) {
+      stream.closeQuietly();
+      return;
+    }
+
+    if (open != null) {
+      open.closeQuietly();
+    }
+    open = stream;
+    scheduler.scheduleDirect(() -> closeIfIdle(stream), idleMillis, TimeUnit.MILLISECONDS);
+  }
+
+  synchronized void clear() {
+    if (open != null) {
+      open.closeQuietly();
+      open = null;
+    }
+  }
+
+  private synchronized void closeIfIdle(@NonNull Stream stream) {
+    if (open == stream) {
+      open = null;
+      stream.closeQuietly();
+    }
+  }
+
+  static class Stream {
+
+    final String key;
+
+    private final Closeable body;
+
+    private final AnimalStreamReader reader;
+
+    @Nullable
+    private DateTime validDate;
+
+    @Nullable
+    private Animal pending;
+
+    private int position;
+
+    private boolean finished;
+
+    Stream(@NonNull String key,
+           @NonNull Closeable body,
+           @NonNull BufferedSource source,
+           @NonNull JsonAdapter<Animal> animalAdapter) {
+      this.key = key;
+      this.body = body;
+      this.reader = new AnimalStreamReader(source, animalAdapter, date -> validDate = date);
+    }
+
+    /**
+     * Skips to {@code cursor}, which must not be behind the stream, and reads the page there.
+     */
+    @NonNull
+    Page read(int cursor, int limit) throws Exception {
+      while (position < cursor && next() != null) {
+        // skip
+      }
+
+      List<Animal> animals = new ArrayList<>(limit);
+      Animal animal;
+      while (animals.size() < limit && (animal = next()) != null) {
+        animals.add(animal);
+      }
+
+      pending = finished ? null : reader.next();
+      finished = pending == null;
+      return new Page(validDate, animals, cursor, finished ? Page.NO_MORE : cursor + animals.size());
+    }
+
+    @Nullable
+    private Animal next() throws Exception {
+      Animal animal = pending;
+      if (animal != null) {
+        pending = null;
+      } else if (!finished) {
+        animal = reader.next();
+        finished = animal == null;
+      }
+      if (animal != null) {
+        position++;
+      }
+      return animal;
+    }
+
+    void closeQuietly() {
+      try {
+        body.close();
+      } catch (IOException ignored) {
+      }
+    }
+  }
+
+}
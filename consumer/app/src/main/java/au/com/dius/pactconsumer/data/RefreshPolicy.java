@@ -0,0 +1,161 @@
+package au.com.dius.pactconsumer.data;
+
+import android.support.annotation.NonNull;
+
+import org.joda.time.DateTime;
+
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import au.com.dius.pactconsumer.util.Clock;
+
+/**
+ * Decides how long to wait before polling the provider again in the background.
+ * <p>
+ * The base delay is half the observed interval between changed responses, smoothed over recent changes.
+ * It doubles for every poll in a row that returned the same response or failed, and again on metered
+ * networks, and quadruples while the device is idle. A poll is never scheduled before the valid date of the
+ * last response has gone out of its validity window, since an earlier one would be answered with the same
+ * valid date.
+ */
+public class RefreshPolicy {
+
+  private static final int MAX_BACKOFF_SHIFT = 16;
+
+  private static final long NO_VALID_DATE = Long.MIN_VALUE;
+
+  private final long minIntervalMillis;
+  private final long maxIntervalMillis;
+  private final long validityMillis;
+  private final Clock clock;
+
+  private boolean seen;
+  private int contentHash;
+  private long validDateMillis = NO_VALID_DATE;
+  private long lastChangeAt;
+  private long changeIntervalMillis = -1;
+  private int unchangedCount;
+
+  /**
+   * @param validityMillis how long after its valid date a response is still returned for new requests
+   */
+  public RefreshPolicy(long minIntervalMillis,
+                       long maxIntervalMillis,
+                       long validityMillis,
+                       @NonNull Clock clock) {
+    if (minIntervalMillis <= 0 || maxIntervalMillis < minIntervalMillis) {
+      throw new IllegalArgumentException("Invalid intervals: " + minIntervalMillis + ", " + maxIntervalMillis);
+    }
+    this.minIntervalMillis = minIntervalMillis;
+    this.maxIntervalMillis = maxIntervalMillis;
+    this.validityMillis = validityMillis;
+    this.clock = clock;
+  }
+
+  /**
+   * A response counts as changed when its animals differ from the last one; the provider stamps every
+   * response with a new valid date, so that is not compared.
+   */
+  public synchronized void onResponse(@NonNull ServiceResponse response) {
+    long now = clock.currentTimeMillis();
+    int hash = contentHashOf(response);
+    if (!seen) {
+      lastChangeAt = now;
+      unchangedCount = 0;
+    } else if (hash != contentHash) {
+      long observed = now - lastChangeAt;
+      changeIntervalMillis = changeIntervalMillis < 0 ? observed : (changeIntervalMillis * 3 + observed) / 4;
+      lastChangeAt = now;
+      unchangedCount = 0;
+    } else {
+      unchangedCount++;
+    }
+    seen = true;
+    contentHash = hash;
+    DateTime validDate = response.getValidDate();
+    validDateMillis = validDate != null ? validDate.getMillis() : NO_VALID_DATE;
+  }
+
+  public synchronized void onFailure() {
+    unchangedCount++;
+  }
+
+  /**
+   * @param metered whether the active network is metered
+   * @param idle    whether the device is in idle mode
+   */
+  public synchronized long nextDelayMillis(boolean metered, boolean idle) {
+    long delay = changeIntervalMillis > 0 ? changeIntervalMillis / 2 : minIntervalMillis;
+    delay = Math.max(delay, minIntervalMillis);
+
+    int shift = Math.min(unchangedCount, MAX_BACKOFF_SHIFT) + (metered ? 1 : 0) + (idle ? 2 : 0);
+    for (int i = 0; i < shift && delay < maxIntervalMillis; i++) {
+      delay *= 2;
+    }
+
+    long untilExpired = untilExpiredMillis();
+    return Math.min(Math.max(delay, untilExpired), maxIntervalMillis);
+  }
+
+  public synchronized int getUnchangedCount() {
+    return unchangedCount;
+  }
+
+  /**
+   * @return the smoothed interval between changed responses, or -1 before two changes have been seen
+   */
+  public synchronized long getChangeIntervalMillis() {
+    return changeIntervalMillis;
+  }
+
+  /**
+   * @return what the policy has learned, to be restored after the process restarts
+   */
+  @NonNull
+  public synchronized State getState() {
+    return new State(seen, contentHash, validDateMillis, lastChangeAt, changeIntervalMillis, unchangedCount);
+  }
+
+  public synchronized void restore(@NonNull State state) {
+    seen = state.seen;
+    contentHash = state.contentHash;
+    validDateMillis = state.validDateMillis;
+    lastChangeAt = state.lastChangeAt;
+    changeIntervalMillis = state.changeIntervalMillis;
+    unchangedCount = state.unchangedCount;
+  }
+
+  private long untilExpiredMillis() {
+    if (validDateMillis == NO_VALID_DATE) {
+      return 0;
+    }
+    return validDateMillis + validityMillis - clock.currentTimeMillis();
+  }
+
+  private static int contentHashOf(@NonNull ServiceResponse response) {
+    return response.getAnimals().hashCode();
+  }
+
+  public static final class State {
+
+    public final boolean seen;
+    public final int contentHash;
+    public final long validDateMillis;
+    public final long lastChangeAt;
+    public final long changeIntervalMillis;
+    public final int unchangedCount;
+
+    public State(boolean seen,
+                 int contentHash,
+                 long validDateMillis,
+                 long lastChangeAt,
+                 long changeIntervalMillis,
+                 int unchangedCount) {
+      this.seen = seen;
+      this.contentHash = contentHash;
+      this.validDateMillis = validDateMillis;
+      this.lastChangeAt = lastChangeAt;
+      this.changeIntervalMillis = changeIntervalMillis;
+      this.unchangedCount = unchangedCount;
+    }
+  }
+
+}
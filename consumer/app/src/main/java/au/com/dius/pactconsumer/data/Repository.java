@@ -4,12 +4,59 @@ import android.support.annotation.NonNull;
 
 import org.joda.time.DateTime;
 
+import java.util.Collection;
+
+import au.com.dius.pactconsumer.data.model.Animal;
+import au.com.dius.pactconsumer.data.model.BatchResponse;
+import au.com.dius.pactconsumer.data.model.Page;
 import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import io.reactivex.Flowable;
 import io.reactivex.Single;
+import io.reactivex.functions.Consumer;
 
 public interface Repository {
 
   @NonNull
   Single<ServiceResponse> fetchResponse(@NonNull DateTime dateTime);
 
+  /**
+   * Fetches the response from the provider, bypassing any cached copy, and stores it in the caches on the
+   * way back. Used where an answer from the cache would hide a change, such as a background refresh.
+   */
+  @NonNull
+  Single<ServiceResponse> refreshResponse(@NonNull DateTime dateTime);
+
+  /**
+   * Fetches the response for each distinct date with at most {@code maxConcurrency} requests in flight,
+   * emitting results in completion order. A failed date is emitted as a failed {@link BatchResponse} and
+   * does not end the stream.
+   */
+  @NonNull
+  Flowable<BatchResponse> fetchResponses(@NonNull Collection<DateTime> dateTimes, int maxConcurrency);
+
+  /**
+   * Emits animals as they are decoded, honouring downstream demand. The response's valid date is passed
+   * to {@code onValidDate} as soon as it has been read.
+   * <p>
+   * The app's list load does not use this: the full list goes through {@link #fetchResponse} so it can be
+   * cached and snapshotted, and large lists are read through {@link #fetchPage}, which decodes with the
+   * same streaming reader. This is kept for callers that consume animals one at a time, such as tests
+   * measuring the streamed decode.
+   */
+  @NonNull
+  Flowable<Animal> streamAnimals(@NonNull DateTime dateTime, @NonNull Consumer<DateTime> onValidDate);
+
+  /**
+   * Fetches up to {@code limit} animals starting at {@code cursor}. The page's next cursor is
+   * {@link Page#NO_MORE} once the end of the list has been reached.
+   */
+  @NonNull
+  Single<Page> fetchPage(@NonNull DateTime dateTime, int cursor, int limit);
+
+  /**
+   * Releases anything kept open between {@link #fetchPage} calls, such as a partly read response body, once
+   * the paged list is torn down. The next page is then fetched afresh.
+   */
+  void releasePages();
+
 }
@@ -0,0 +1,146 @@
+package au.com.dius.pactconsumer.data;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.subjects.AsyncSubject;
+
+/**
+ * Shares a single in-flight request between all concurrent subscribers asking for the same key.
+ * <p>
+ * The shared request is reference counted: disposing one subscriber leaves the others running, and the
+ * upstream call is only cancelled once every subscriber has gone. Its result is kept, so a subscriber that
+ * joins just as it completes still gets it, and the upstream call is never made twice for one request.
+ * Once the request terminates it is forgotten, so the next subscriber triggers a fresh call.
+ */
+public class RequestCoalescer<T> {
+
+  private final ConcurrentMap<String, Request> inFlight = new ConcurrentHashMap<>();
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  @NonNull
+  public Single<T> coalesce(@NonNull String key, @NonNull Callable<Single<T>> factory) {
+    return Single.defer(() -> {
+      while (true) {
+        Request request = inFlight.get(key);
+        if (request == null) {
+          Request created = new Request(key);
+          request = inFlight.putIfAbsent(key, created);
+          if (request == null) {
+            misses.incrementAndGet();
+            Single<T> joined = created.join();
+            created.start(factory);
+            return joined;
+          }
+        }
+
+        Single<T> joined = request.join();
+        if (joined != null) {
+          hits.incrementAndGet();
+          return joined;
+        }
+        // every subscriber left and the request was cancelled; it is being removed, so start another
+        inFlight.remove(key, request);
+      }
+    });
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  public int getInFlightCount() {
+    return inFlight.size();
+  }
+
+  /**
+   * One upstream call and its subscribers. The call is made once; its result is kept in an
+   * {@link AsyncSubject}, which hands it to every subscriber whenever it subscribes.
+   */
+  private class Request {
+
+    private final String key;
+
+    private final AsyncSubject<T> result = AsyncSubject.create();
+
+    @Nullable
+    private Disposable upstream;
+
+    private int subscribers;
+
+    private boolean done;
+
+    private boolean cancelled;
+
+    Request(@NonNull String key) {
+      this.key = key;
+    }
+
+    /**
+     * @return the shared result, or null if the request was cancelled and cannot be joined
+     */
+    @Nullable
+    synchronized Single<T> join() {
+      if (cancelled) {
+        return null;
+      }
+      subscribers++;
+      return result.singleOrError().doOnDispose(this::leave);
+    }
+
+    void start(@NonNull Callable<Single<T>> factory) {
+      Disposable disposable = Single.defer(factory).subscribe(
+          value -> {
+            finish();
+            result.onNext(value);
+            result.onComplete();
+          },
+          error -> {
+            finish();
+            result.onError(error);
+          });
+      synchronized (this) {
+        if (!cancelled) {
+          upstream = disposable;
+          return;
+        }
+      }
+      disposable.dispose();
+    }
+
+    private void finish() {
+      synchronized (this) {
+        done = true;
+      }
+      inFlight.remove(key, this);
+    }
+
+    private void leave() {
+      Disposable cancel;
+      synchronized (this) {
+        if (--subscribers > 0 || done || cancelled) {
+          return;
+        }
+        cancelled = true;
+        cancel = upstream;
+      }
+      inFlight.remove(key, this);
+      if (cancel != null) {
+        cancel.dispose();
+      }
+    }
+  }
+
+}
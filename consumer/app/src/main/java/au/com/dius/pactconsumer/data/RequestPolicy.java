@@ -0,0 +1,204 @@
+package au.com.dius.pactconsumer.data;
+
+import android.support.annotation.NonNull;
+
+import com.jakewharton.retrofit2.adapter.rxjava2.HttpException;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.SingleEmitter;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * Hedges and retries idempotent requests.
+ * <p>
+ * If an attempt has not answered within the configured percentile of recent latencies a second one is
+ * started, and whichever succeeds first wins. The request only fails once every running attempt has failed,
+ * so a hedge that fails fast does not cut short a slow attempt that would still succeed. Network failures
+ * and 5xx responses are retried with exponential backoff and full jitter. Hedges and retries both draw on
+ * the same {@link RetryBudget}.
+ */
+public class RequestPolicy {
+
+  private static final int MIN_SAMPLES = 20;
+  private static final int SERVER_ERROR = 500;
+
+  private final double hedgePercentile;
+  private final long defaultHedgeDelayMillis;
+  private final int maxRetries;
+  private final long baseBackoffMillis;
+  private final long maxBackoffMillis;
+
+  private final RetryBudget budget;
+
+  private final Scheduler scheduler;
+
+  private final Random random;
+
+  private final LatencyTracker latencies = new LatencyTracker(128);
+
+  private final AtomicLong hedges = new AtomicLong();
+  private final AtomicLong retries = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+
+  /**
+   * @param hedgePercentile         percentile of recent latencies after which to hedge, or 0 to never hedge
+   * @param defaultHedgeDelayMillis hedge delay used until enough latencies have been recorded
+   * @param maxRetries              retries after the first attempt fails
+   * @param scheduler               runs attempts and backoff timers
+   */
+  public RequestPolicy(double hedgePercentile,
+                       long defaultHedgeDelayMillis,
+                       int maxRetries,
+                       long baseBackoffMillis,
+                       long maxBackoffMillis,
+                       @NonNull RetryBudget budget,
+                       @NonNull Scheduler scheduler,
+                       @NonNull Random random) {
+    this.hedgePercentile = hedgePercentile;
+    this.defaultHedgeDelayMillis = defaultHedgeDelayMillis;
+    this.maxRetries = maxRetries;
+    this.baseBackoffMillis = baseBackoffMillis;
+    this.maxBackoffMillis = maxBackoffMillis;
+    this.budget = budget;
+    this.scheduler = scheduler;
+    this.random = random;
+  }
+
+  @NonNull
+  public <T> Single<T> apply(@NonNull Callable<Single<T>> request) {
+    return Single.defer(() -> {
+      budget.deposit();
+      AtomicInteger attempts = new AtomicInteger();
+      return hedged(request).retryWhen(errors -> errors.flatMap(error -> {
+        int attempt = attempts.incrementAndGet();
+        if (attempt > maxRetries || !isRetryable(error)) {
+          return Flowable.error(error);
+        }
+        if (!budget.tryWithdraw()) {
+          rejected.incrementAndGet();
+          return Flowable.error(error);
+        }
+        retries.incrementAndGet();
+        return Flowable.timer(backoffMillis(attempt), TimeUnit.MILLISECONDS, scheduler);
+      }));
+    });
+  }
+
+  private <T> Single<T> hedged(Callable<Single<T>> request) {
+    Single<T> attempt = timed(request);
+    if (hedgePercentile <= 0) {
+      return attempt;
+    }
+
+    return Single.create(emitter -> {
+      HedgeRace<T> race = new HedgeRace<>(emitter);
+      race.run(attempt);
+      race.add(Single.timer(hedgeDelayMillis(), TimeUnit.MILLISECONDS, scheduler).subscribe(tick -> {
+        if (!budget.tryWithdraw()) {
+          rejected.incrementAndGet();
+          return;
+        }
+        hedges.incrementAndGet();
+        race.run(timed(request));
+      }));
+    });
+  }
+
+  private <T> Single<T> timed(Callable<Single<T>> request) {
+    return Single.defer(() -> {
+      long start = scheduler.now(TimeUnit.MILLISECONDS);
+      return Single.defer(request)
+          .doOnSuccess(value -> latencies.record(scheduler.now(TimeUnit.MILLISECONDS) - start));
+    }).subscribeOn(scheduler);
+  }
+
+  long hedgeDelayMillis() {
+    if (latencies.getCount() < MIN_SAMPLES) {
+      return defaultHedgeDelayMillis;
+    }
+    return latencies.percentile(hedgePercentile);
+  }
+
+  private long backoffMillis(int attempt) {
+    long ceiling = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 30));
+    return (long) (random.nextDouble() * ceiling);
+  }
+
+  private boolean isRetryable(Throwable error) {
+    if (error instanceof IOException) {
+      return true;
+    }
+    return error instanceof HttpException && ((HttpException) error).code() >= SERVER_ERROR;
+  }
+
+  /**
+   * Settles a hedged request: the first success wins and cancels the rest, and an error is passed on only
+   * when no attempt is left running. A hedge not yet started is cancelled then, so a fast failure goes
+   * straight to the retry backoff.
+   */
+  private static class HedgeRace<T> {
+
+    private final SingleEmitter<T> emitter;
+
+    private final CompositeDisposable disposables = new CompositeDisposable();
+
+    private int running;
+
+    HedgeRace(@NonNull SingleEmitter<T> emitter) {
+      this.emitter = emitter;
+      emitter.setDisposable(disposables);
+    }
+
+    void run(@NonNull Single<T> attempt) {
+      synchronized (this) {
+        running++;
+      }
+      disposables.add(attempt.subscribe(emitter::onSuccess, this::onError));
+    }
+
+    void add(@NonNull Disposable disposable) {
+      disposables.add(disposable);
+    }
+
+    private void onError(Throwable error) {
+      boolean last;
+      synchronized (this) {
+        last = --running == 0;
+      }
+      if (last) {
+        emitter.onError(error);
+      }
+    }
+  }
+
+  @NonNull
+  public LatencyTracker getLatencies() {
+    return latencies;
+  }
+
+  public long getHedgeCount() {
+    return hedges.get();
+  }
+
+  public long getRetryCount() {
+    return retries.get();
+  }
+
+  /**
+   * @return how many hedges or retries were skipped because the budget was exhausted
+   */
+  public long getRejectedCount() {
+    return rejected.get();
+  }
+
+}
@@ -0,0 +1,255 @@
+package au.com.dius.pactconsumer.data;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import au.com.dius.pactconsumer.data.model.Animal;
+import au.com.dius.pactconsumer.data.model.AnimalPool;
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import au.com.dius.pactconsumer.util.Clock;
+import io.reactivex.Maybe;
+
+/**
+ * Keeps the last good response in a compact binary file that can be read back, memory mapped, before the
+ * network has answered.
+ * <p>
+ * The file is a fixed header (magic, version, write time, CRC32 and length of the payload) followed by the
+ * payload: the valid date, a table of length-prefixed UTF-8 strings, and one fixed-width record of string
+ * indexes per animal. Snapshots with another version, a bad checksum or older than {@code maxAgeMillis}
+ * are ignored.
+ */
+public class ResponseSnapshot {
+
+  static final int MAGIC = 0x50534e50;
+  static final int VERSION = 1;
+
+  static final int HEADER_SIZE = 24;
+  static final int RECORD_SIZE = 8;
+
+  private static final int NONE = -1;
+  private static final int CHUNK_SIZE = 8192;
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final String TEMP_EXTENSION = ".tmp";
+
+  private final File file;
+
+  private final long maxAgeMillis;
+
+  private final Clock clock;
+
+  private final AnimalPool pool;
+
+  /**
+   * @param pool interns the animals read back
+   */
+  public ResponseSnapshot(@NonNull File file, long maxAgeMillis, @NonNull Clock clock, @NonNull AnimalPool pool) {
+    this.file = file;
+    this.maxAgeMillis = maxAgeMillis;
+    this.clock = clock;
+    this.pool = pool;
+  }
+
+  /**
+   * @return the snapshot, or nothing if there is no usable one
+   */
+  @NonNull
+  public Maybe<ServiceResponse> load() {
+    return Maybe.fromCallable(this::read);
+  }
+
+  /**
+   * @return the snapshot, or null if it is missing, corrupt, from another version or too old
+   */
+  @Nullable
+  public synchronized ServiceResponse read() {
+    if (!file.isFile()) {
+      return null;
+    }
+
+    try (RandomAccessFile input = new RandomAccessFile(file, "r");
+         FileChannel channel = input.getChannel()) {
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      ServiceResponse response = decode(buffer);
+      if (response == null) {
+        file.delete();
+      }
+      return response;
+    } catch (IOException | RuntimeException e) {
+      file.delete();
+      return null;
+    }
+  }
+
+  /**
+   * Replaces the snapshot. Failures are ignored, leaving the previous snapshot in place.
+   */
+  public synchronized void save(@NonNull ServiceResponse response) {
+    File directory = file.getParentFile();
+    if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+      return;
+    }
+
+    File temp = new File(file.getPath() + TEMP_EXTENSION);
+    try (FileOutputStream output = new FileOutputStream(temp)) {
+      output.write(encode(response, clock.currentTimeMillis()).array());
+    } catch (IOException e) {
+      temp.delete();
+      return;
+    }
+
+    if (!temp.renameTo(file)) {
+      temp.delete();
+    }
+  }
+
+  public synchronized void clear() {
+    file.delete();
+  }
+
+  @NonNull
+  static ByteBuffer encode(@NonNull ServiceResponse response, long writtenAt) {
+    List<String> strings = new ArrayList<>();
+    Map<String, Integer> indexes = new HashMap<>();
+
+    DateTime validDate = response.getValidDate();
+    int zone = validDate != null ? index(validDate.getZone().getID(), strings, indexes) : NONE;
+
+    List<Animal> animals = response.getAnimals();
+    int[] records = new int[animals.size() * 2];
+    for (int i = 0; i < animals.size(); i++) {
+      records[i * 2] = index(animals.get(i).getName(), strings, indexes);
+      records[i * 2 + 1] = index(animals.get(i).getType(), strings, indexes);
+    }
+
+    List<byte[]> encoded = new ArrayList<>(strings.size());
+    int stringsSize = 0;
+    for (String string : strings) {
+      byte[] bytes = string.getBytes(UTF_8);
+      encoded.add(bytes);
+      stringsSize += 4 + bytes.length;
+    }
+
+    int payloadSize = 8 + 4 + 4 + stringsSize + 4 + animals.size() * RECORD_SIZE;
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payloadSize);
+    buffer.position(HEADER_SIZE);
+    buffer.putLong(validDate != null ? validDate.getMillis() : Long.MIN_VALUE);
+    buffer.putInt(zone);
+    buffer.putInt(encoded.size());
+    for (byte[] bytes : encoded) {
+      buffer.putInt(bytes.length);
+      buffer.put(bytes);
+    }
+    buffer.putInt(animals.size());
+    for (int record : records) {
+      buffer.putInt(record);
+    }
+
+    CRC32 crc = new CRC32();
+    crc.update(buffer.array(), HEADER_SIZE, payloadSize);
+
+    buffer.position(0);
+    buffer.putInt(MAGIC);
+    buffer.putInt(VERSION);
+    buffer.putLong(writtenAt);
+    buffer.putInt((int) crc.getValue());
+    buffer.putInt(payloadSize);
+    buffer.position(0);
+    return buffer;
+  }
+
+  @Nullable
+  private ServiceResponse decode(@NonNull ByteBuffer buffer) {
+    if (buffer.remaining() < HEADER_SIZE
+        || buffer.getInt() != MAGIC
+        || buffer.getInt() != VERSION) {
+      return null;
+    }
+
+    long writtenAt = buffer.getLong();
+    int checksum = buffer.getInt();
+    int payloadSize = buffer.getInt();
+    if (payloadSize != buffer.remaining()
+        || writtenAt + maxAgeMillis < clock.currentTimeMillis()
+        || checksum != checksum(buffer)) {
+      return null;
+    }
+
+    long validDateMillis = buffer.getLong();
+    int zone = buffer.getInt();
+
+    String[] strings = new String[buffer.getInt()];
+    for (int i = 0; i < strings.length; i++) {
+      byte[] bytes = new byte[buffer.getInt()];
+      buffer.get(bytes);
+      strings[i] = new String(bytes, UTF_8);
+    }
+
+    int count = buffer.getInt();
+    if (count < 0 || count * RECORD_SIZE != buffer.remaining()) {
+      return null;
+    }
+    List<Animal> animals = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      animals.add(pool.intern(string(strings, buffer.getInt()), string(strings, buffer.getInt())));
+    }
+
+    DateTime validDate = zone == NONE
+        ? null
+        : new DateTime(validDateMillis, DateTimeZone.forID(strings[zone]));
+    return new ServiceResponse(validDate, animals);
+  }
+
+  /**
+   * Computes the CRC32 of the remaining bytes without moving the buffer's position.
+   */
+  private static int checksum(@NonNull ByteBuffer buffer) {
+    ByteBuffer payload = buffer.slice();
+    CRC32 crc = new CRC32();
+    byte[] chunk = new byte[Math.min(CHUNK_SIZE, payload.remaining())];
+    while (payload.hasRemaining()) {
+      int length = Math.min(chunk.length, payload.remaining());
+      payload.get(chunk, 0, length);
+      crc.update(chunk, 0, length);
+    }
+    return (int) crc.getValue();
+  }
+
+  private static int index(@Nullable String value,
+                           @NonNull List<String> strings,
+                           @NonNull Map<String, Integer> indexes) {
+    if (value == null) {
+      return NONE;
+    }
+    Integer index = indexes.get(value);
+    if (index == null) {
+      index = strings.size();
+      strings.add(value);
+      indexes.put(value, index);
+    }
+    return index;
+  }
+
+  @Nullable
+  private static String string(@NonNull String[] strings, int index) {
+    return index == NONE ? null : strings[index];
+  }
+
+}
@@ -0,0 +1,38 @@
+package au.com.dius.pactconsumer.data;
+
+/**
+ * Caps the extra load caused by retries and hedged requests to a share of the original requests.
+ * <p>
+ * Every original request deposits {@code ratio} of a token, up to {@code maxTokens}, and every retry or hedge
+ * has to withdraw a whole one. The budget starts full so the first failures can still be retried.
+ */
+public class RetryBudget {
+
+  private final double ratio;
+  private final double maxTokens;
+
+  private double tokens;
+
+  public RetryBudget(double ratio, double maxTokens) {
+    this.ratio = ratio;
+    this.maxTokens = maxTokens;
+    this.tokens = maxTokens;
+  }
+
+  public synchronized void deposit() {
+    tokens = Math.min(maxTokens, tokens + ratio);
+  }
+
+  public synchronized boolean tryWithdraw() {
+    if (tokens < 1) {
+      return false;
+    }
+    tokens -= 1;
+    return true;
+  }
+
+  public synchronized double getTokens() {
+    return tokens;
+  }
+
+}
@@ -1,23 +1,40 @@
 package au.com.dius.pactconsumer.data;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.jakewharton.retrofit2.adapter.rxjava2.HttpException;
+import com.squareup.moshi.JsonAdapter;
 
 import org.joda.time.DateTime;
 
 import java.io.UnsupportedEncodingException;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import au.com.dius.pactconsumer.data.exceptions.BadRequestException;
+import au.com.dius.pactconsumer.data.model.Animal;
+import au.com.dius.pactconsumer.data.model.AnimalJsonAdapter;
+import au.com.dius.pactconsumer.data.model.AnimalPool;
+import au.com.dius.pactconsumer.data.model.BatchResponse;
+import au.com.dius.pactconsumer.data.model.Page;
 import au.com.dius.pactconsumer.data.model.ServiceResponse;
 import au.com.dius.pactconsumer.util.DateHelper;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
 import io.reactivex.Single;
+import io.reactivex.functions.Consumer;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
+import retrofit2.http.Headers;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 @Singleton
 public class Service implements Repository {
@@ -25,40 +42,272 @@ public class Service implements Repository {
   private static final int BAD_REQUEST = 400;
   private static final int NOT_FOUND = 404;
 
+  private static final long PAGE_STREAM_IDLE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+  private static final String NO_CACHE = "no-cache";
+  private static final String REFRESH_KEY_PREFIX = "refresh:";
+
   public interface Api {
     @GET("provider.json")
     Single<ServiceResponse> loadProviderJson(@Query("valid_date") String validDate);
+
+    @Headers("Cache-Control: no-cache")
+    @GET("provider.json")
+    Single<ServiceResponse> reloadProviderJson(@Query("valid_date") String validDate);
+
+    @Streaming
+    @GET("provider.json")
+    Single<Response<ResponseBody>> loadProviderJsonIfChanged(@Query("valid_date") String validDate,
+                                                             @Nullable @Header("If-None-Match") String etag,
+                                                             @Nullable @Header("If-Modified-Since") String lastModified,
+                                                             @Nullable @Header("Cache-Control") String cacheControl);
+
+    @Streaming
+    @GET("provider.json")
+    Single<ResponseBody> streamProviderJson(@Query("valid_date") String validDate);
   }
 
   private final Api api;
 
+  private final ValidDatePolicy validDatePolicy;
+
+  private final RequestCoalescer<ServiceResponse> coalescer;
+
+  @Nullable
+  private final ConditionalResponseCache conditionalCache;
+
+  @Nullable
+  private final RequestPolicy requestPolicy;
+
+  private final Scheduler batchScheduler;
+
+  private final PageStreams pageStreams;
+
+  private final JsonAdapter<Animal> animalAdapter;
+
+  /**
+   * @param batchScheduler subscribes to each request of a batch, so the blocking calls run in parallel, and
+   *                       closes paged bodies left open
+   */
   @Inject
-  public Service(@NonNull Api api) {
+  public Service(@NonNull Api api,
+                 @NonNull Scheduler batchScheduler) {
+    this(api, ValidDatePolicy.exact(), batchScheduler);
+  }
+
+  public Service(@NonNull Api api,
+                 @NonNull ValidDatePolicy validDatePolicy,
+                 @NonNull Scheduler batchScheduler) {
+    this(api, validDatePolicy, new RequestCoalescer<>(), batchScheduler);
+  }
+
+  public Service(@NonNull Api api,
+                 @NonNull ValidDatePolicy validDatePolicy,
+                 @NonNull RequestCoalescer<ServiceResponse> coalescer,
+                 @NonNull Scheduler batchScheduler) {
+    this(api, validDatePolicy, coalescer, null, batchScheduler);
+  }
+
+  /**
+   * @param conditionalCache when set, requests are made conditional on the validators of the last response for
+   *                         the same normalized query, and unchanged responses are not decoded again
+   */
+  public Service(@NonNull Api api,
+                 @NonNull ValidDatePolicy validDatePolicy,
+                 @NonNull RequestCoalescer<ServiceResponse> coalescer,
+                 @Nullable ConditionalResponseCache conditionalCache,
+                 @NonNull Scheduler batchScheduler) {
+    this(api, validDatePolicy, coalescer, conditionalCache, null, batchScheduler);
+  }
+
+  /**
+   * @param requestPolicy when set, hedges and retries fetched responses; streamed bodies are not retried
+   *                      since part of them may already have been emitted
+   */
+  public Service(@NonNull Api api,
+                 @NonNull ValidDatePolicy validDatePolicy,
+                 @NonNull RequestCoalescer<ServiceResponse> coalescer,
+                 @Nullable ConditionalResponseCache conditionalCache,
+                 @Nullable RequestPolicy requestPolicy,
+                 @NonNull Scheduler batchScheduler) {
+    this(api, validDatePolicy, coalescer, conditionalCache, requestPolicy, batchScheduler, new AnimalPool());
+  }
+
+  /**
+   * @param animalPool interns the animals read from streamed bodies
+   */
+  public Service(@NonNull Api api,
+                 @NonNull ValidDatePolicy validDatePolicy,
+                 @NonNull RequestCoalescer<ServiceResponse> coalescer,
+                 @Nullable ConditionalResponseCache conditionalCache,
+                 @Nullable RequestPolicy requestPolicy,
+                 @NonNull Scheduler batchScheduler,
+                 @NonNull AnimalPool animalPool) {
     this.api = api;
+    this.validDatePolicy = validDatePolicy;
+    this.coalescer = coalescer;
+    this.conditionalCache = conditionalCache;
+    this.requestPolicy = requestPolicy;
+    this.batchScheduler = batchScheduler;
+    this.pageStreams = new PageStreams(batchScheduler, PAGE_STREAM_IDLE_MILLIS);
+    this.animalAdapter = new AnimalJsonAdapter(animalPool);
   }
 
   @NonNull
   @Override
   public Single<ServiceResponse> fetchResponse(@NonNull DateTime dateTime) {
+    return fetch(dateTime, false);
+  }
+
+  /**
+   * Sends the request with {@code Cache-Control: no-cache}, so the HTTP cache revalidates it with the
+   * provider rather than answering it. It is coalesced only with other refreshes.
+   */
+  @NonNull
+  @Override
+  public Single<ServiceResponse> refreshResponse(@NonNull DateTime dateTime) {
+    return fetch(dateTime, true);
+  }
+
+  @NonNull
+  @Override
+  public Flowable<BatchResponse> fetchResponses(@NonNull Collection<DateTime> dateTimes, int maxConcurrency) {
+    return BatchFetcher.fetch(dateTimes, maxConcurrency, this::fetchResponse, batchScheduler);
+  }
+
+  @NonNull
+  @Override
+  public Flowable<Animal> streamAnimals(@NonNull DateTime dateTime,
+                                       @NonNull Consumer<DateTime> onValidDate) {
     try {
-      return api.loadProviderJson(DateHelper.encodeDate(dateTime))
-          .onErrorResumeNext(this::mapError);
+      return api.streamProviderJson(DateHelper.encodeDate(validDatePolicy.normalize(dateTime)))
+          .toFlowable()
+          .flatMap(body -> AnimalStreamReader.stream(body.source(), animalAdapter, onValidDate))
+          .onErrorResumeNext(this::mapStreamError);
+    } catch (UnsupportedEncodingException e) {
+      return Flowable.error(e);
+    }
+  }
+
+  /**
+   * The provider has no paging parameters, so pages are cut from the streamed body. The body is kept open
+   * after a page so the next one continues from there; a page behind it is read from a new body, skipping
+   * the animals before the cursor.
+   */
+  @NonNull
+  @Override
+  public Single<Page> fetchPage(@NonNull DateTime dateTime, int cursor, int limit) {
+    String validDate;
+    try {
+      validDate = DateHelper.encodeDate(validDatePolicy.normalize(dateTime));
     } catch (UnsupportedEncodingException e) {
       return Single.error(e);
     }
+
+    return Single.defer(() -> {
+      PageStreams.Stream open = pageStreams.take(validDate, cursor);
+      if (open == null) {
+        return openPageStream(validDate).map(stream -> readPage(stream, cursor, limit));
+      }
+      return Single.fromCallable(() -> readPage(open, cursor, limit))
+          .onErrorResumeNext(throwable -> openPageStream(validDate).map(stream -> readPage(stream, cursor, limit)));
+    }).onErrorResumeNext(throwable -> mapPageError(throwable, cursor));
+  }
+
+  @Override
+  public void releasePages() {
+    pageStreams.clear();
+  }
+
+  private Single<PageStreams.Stream> openPageStream(String validDate) {
+    return api.streamProviderJson(validDate)
+        .map(body -> new PageStreams.Stream(validDate, body, body.source(), animalAdapter));
+  }
+
+  private Page readPage(PageStreams.Stream stream, int cursor, int limit) throws Exception {
+    Page page;
+    try {
+      page = stream.read(cursor, limit);
+    } catch (Exception e) {
+      stream.closeQuietly();
+      throw e;
+    }
+    pageStreams.offer(stream);
+    return page;
+  }
+
+  private Single<ServiceResponse> fetch(DateTime dateTime, boolean revalidate) {
+    try {
+      String validDate = DateHelper.encodeDate(validDatePolicy.normalize(dateTime));
+      String key = revalidate ? REFRESH_KEY_PREFIX + validDate : validDate;
+      return coalescer.coalesce(key, () -> withPolicy(validDate, revalidate)
+          .doOnSuccess(validDatePolicy::onResponse)
+          .onErrorResumeNext(this::mapError));
+    } catch (UnsupportedEncodingException e) {
+      return Single.error(e);
+    }
+  }
+
+  private Single<ServiceResponse> withPolicy(String validDate, boolean revalidate) {
+    if (requestPolicy == null) {
+      return load(validDate, revalidate);
+    }
+    return requestPolicy.apply(() -> load(validDate, revalidate));
+  }
+
+  private Single<ServiceResponse> load(String validDate, boolean revalidate) {
+    if (conditionalCache == null) {
+      return revalidate ? api.reloadProviderJson(validDate) : api.loadProviderJson(validDate);
+    }
+
+    ConditionalResponseCache.Entry validators = conditionalCache.get(validDate);
+    return api.loadProviderJsonIfChanged(
+        validDate,
+        validators != null ? validators.etag : null,
+        validators != null ? validators.lastModified : null,
+        revalidate ? NO_CACHE : null)
+        .map(response -> conditionalCache.resolve(validDate, response));
+  }
+
+  @NonNull
+  public RequestCoalescer<ServiceResponse> getCoalescer() {
+    return coalescer;
   }
 
   private Single<ServiceResponse> mapError(Throwable throwable) {
+    if (isNotFound(throwable)) {
+      return Single.just(new ServiceResponse(null, Collections.emptyList()));
+    }
+    return Single.error(mapException(throwable));
+  }
+
+  private Single<Page> mapPageError(Throwable throwable, int cursor) {
+    if (isNotFound(throwable)) {
+      return Single.just(new Page(null, Collections.emptyList(), cursor, Page.NO_MORE));
+    }
+    return Single.error(mapException(throwable));
+  }
+
+  private Flowable<Animal> mapStreamError(Throwable throwable) {
+    if (isNotFound(throwable)) {
+      return Flowable.empty();
+    }
+    return Flowable.error(mapException(throwable));
+  }
+
+  private boolean isNotFound(Throwable throwable) {
+    return throwable instanceof HttpException && ((HttpException) throwable).code() == NOT_FOUND;
+  }
+
+  private Throwable mapException(Throwable throwable) {
     if (!(throwable instanceof HttpException)) {
-      return Single.error(throwable);
+      return throwable;
     }
 
     HttpException exception = (HttpException) throwable;
-    if (exception.code() == NOT_FOUND) {
-      return Single.just(new ServiceResponse(null, Collections.emptyList()));
-    } else if (exception.code() == BAD_REQUEST) {
-      return Single.error(new BadRequestException(exception.message(), exception));
+    if (exception.code() == BAD_REQUEST) {
+      return new BadRequestException(exception.message(), exception);
     }
-    return Single.error(throwable);
+    return throwable;
   }
 }
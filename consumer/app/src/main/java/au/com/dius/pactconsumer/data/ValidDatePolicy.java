@@ -0,0 +1,115 @@
+package au.com.dius.pactconsumer.data;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.joda.time.DateTime;
+
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+
+/**
+ * Decides which valid_date is actually sent to the provider for a requested date. Requests that normalise
+ * to the same date share a URL, so they can be coalesced and answered from the HTTP cache.
+ */
+public abstract class ValidDatePolicy {
+
+  @Nullable
+  public abstract DateTime normalize(@Nullable DateTime dateTime);
+
+  /**
+   * Called with every successful response fetched under this policy.
+   */
+  public void onResponse(@NonNull ServiceResponse response) {
+  }
+
+  /**
+   * Sends the requested date unchanged.
+   */
+  @NonNull
+  public static ValidDatePolicy exact() {
+    return new Exact();
+  }
+
+  /**
+   * Truncates the requested date to the start of its bucket.
+   */
+  @NonNull
+  public static ValidDatePolicy truncate(long bucketMillis) {
+    return new Truncate(bucketMillis);
+  }
+
+  /**
+   * Reuses the valid date of the last response for any request falling within {@code windowMillis} of it,
+   * and truncates to buckets of {@code windowMillis} otherwise.
+   */
+  @NonNull
+  public static ValidDatePolicy validityWindow(long windowMillis) {
+    return new ValidityWindow(windowMillis);
+  }
+
+  private static class Exact extends ValidDatePolicy {
+
+    @Nullable
+    @Override
+    public DateTime normalize(@Nullable DateTime dateTime) {
+      return dateTime;
+    }
+  }
+
+  private static class Truncate extends ValidDatePolicy {
+
+    private final long bucketMillis;
+
+    Truncate(long bucketMillis) {
+      if (bucketMillis <= 0) {
+        throw new IllegalArgumentException("Bucket must be positive: " + bucketMillis);
+      }
+      this.bucketMillis = bucketMillis;
+    }
+
+    @Nullable
+    @Override
+    public DateTime normalize(@Nullable DateTime dateTime) {
+      if (dateTime == null) {
+        return null;
+      }
+      long millis = dateTime.getMillis();
+      long offset = ((millis % bucketMillis) + bucketMillis) % bucketMillis;
+      return offset == 0 ? dateTime : new DateTime(millis - offset, dateTime.getZone());
+    }
+  }
+
+  private static class ValidityWindow extends Truncate {
+
+    private final long windowMillis;
+
+    private volatile DateTime windowStart;
+
+    ValidityWindow(long windowMillis) {
+      super(windowMillis);
+      this.windowMillis = windowMillis;
+    }
+
+    @Nullable
+    @Override
+    public DateTime normalize(@Nullable DateTime dateTime) {
+      DateTime start = windowStart;
+      if (dateTime != null && start != null) {
+        long millis = dateTime.getMillis();
+        if (millis >= start.getMillis() && millis < start.getMillis() + windowMillis) {
+          return start.withZone(dateTime.getZone());
+        }
+      }
+      return super.normalize(dateTime);
+    }
+
+    @Override
+    public void onResponse(@NonNull ServiceResponse response) {
+      DateTime validDate = response.getValidDate();
+      if (validDate != null) {
+        windowStart = validDate;
+      }
+    }
+  }
+
+}
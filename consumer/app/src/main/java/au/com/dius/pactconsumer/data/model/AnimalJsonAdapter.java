@@ -0,0 +1,64 @@
+package au.com.dius.pactconsumer.data.model;
+
+import android.support.annotation.NonNull;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes {@link Animal} without reflection, skipping any field it does not know. Decoded animals
+ * are interned in an {@link AnimalPool}.
+ */
+public class AnimalJsonAdapter extends JsonAdapter<Animal> {
+
+  private static final JsonReader.Options OPTIONS = JsonReader.Options.of("name", "image");
+
+  private final AnimalPool pool;
+
+  public AnimalJsonAdapter(@NonNull AnimalPool pool) {
+    this.pool = pool;
+  }
+
+  @Override
+  public Animal fromJson(JsonReader reader) throws IOException {
+    String name = null;
+    String image = null;
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.selectName(OPTIONS)) {
+        case 0:
+          name = nextStringOrNull(reader);
+          break;
+        case 1:
+          image = nextStringOrNull(reader);
+          break;
+        default:
+          reader.nextName();
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    return pool.intern(name, image);
+  }
+
+  @Override
+  public void toJson(JsonWriter writer, Animal value) throws IOException {
+    writer.beginObject();
+    writer.name("name").value(value.getName());
+    writer.name("image").value(value.getType());
+    writer.endObject();
+  }
+
+  static String nextStringOrNull(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonReader.Token.NULL) {
+      return reader.nextNull();
+    }
+    return reader.nextString();
+  }
+
+}
@@ -0,0 +1,167 @@
+package au.com.dius.pactconsumer.data.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Canonicalizes decoded animals so identical records share one instance across responses.
+ * <p>
+ * Image types are few and long-lived, so each distinct type is kept strongly and given a small code, up to
+ * {@code maxTypes}; rarer types beyond that are passed through as they are. Animals are held weakly in a
+ * fixed-size direct-mapped table: an animal no longer on screen can be collected, and a colliding record
+ * simply takes over the slot, so the pool never grows past its capacity. Slots are swapped with
+ * compare-and-set, so decoding threads never wait on each other.
+ */
+public class AnimalPool {
+
+  public static final int NO_CODE = -1;
+
+  private static final int DEFAULT_CAPACITY = 4096;
+  private static final int DEFAULT_MAX_TYPES = 256;
+
+  private final AtomicReferenceArray<WeakReference<Animal>> animals;
+  private final int mask;
+
+  private final ConcurrentMap<String, Integer> typeCodes = new ConcurrentHashMap<>();
+  private final AtomicReferenceArray<String> types;
+  private int typeCount;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public AnimalPool() {
+    this(DEFAULT_CAPACITY, DEFAULT_MAX_TYPES);
+  }
+
+  /**
+   * @param capacity number of animal slots, rounded up to a power of two
+   * @param maxTypes number of image types given a code
+   */
+  public AnimalPool(int capacity, int maxTypes) {
+    int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+    this.animals = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+    this.types = new AtomicReferenceArray<>(Math.max(0, maxTypes));
+  }
+
+  /**
+   * @return an animal equal to {@code Animal.create(name, type)}, reusing a pooled instance when there is one
+   */
+  @NonNull
+  public Animal intern(@Nullable String name, @Nullable String type) {
+    int slot = hash(name, type) & mask;
+    WeakReference<Animal> reference = animals.get(slot);
+    Animal pooled = reference != null ? reference.get() : null;
+    if (matches(pooled, name, type)) {
+      hits.incrementAndGet();
+      return pooled;
+    }
+
+    misses.incrementAndGet();
+    Animal animal = Animal.create(name, internType(type));
+    if (!animals.compareAndSet(slot, reference, new WeakReference<>(animal))) {
+      // another thread filled the slot first; share its instance if it is the same record
+      WeakReference<Animal> raced = animals.get(slot);
+      Animal racedAnimal = raced != null ? raced.get() : null;
+      if (matches(racedAnimal, name, type)) {
+        return racedAnimal;
+      }
+    }
+    return animal;
+  }
+
+  @NonNull
+  public Animal intern(@NonNull Animal animal) {
+    return intern(animal.getName(), animal.getType());
+  }
+
+  /**
+   * @return the code of the type, or {@link #NO_CODE} if it is null or the type table is full
+   */
+  public int codeOf(@Nullable String type) {
+    if (type == null) {
+      return NO_CODE;
+    }
+    Integer code = typeCodes.get(type);
+    return code != null ? code : NO_CODE;
+  }
+
+  @Nullable
+  public String typeOf(int code) {
+    return code >= 0 && code < types.length() ? types.get(code) : null;
+  }
+
+  /**
+   * @return the number of slots, which bounds the number of animals held
+   */
+  public int capacity() {
+    return animals.length();
+  }
+
+  /**
+   * @return the number of animals currently held and not yet collected
+   */
+  public int size() {
+    int size = 0;
+    for (int i = 0; i < animals.length(); i++) {
+      WeakReference<Animal> reference = animals.get(i);
+      if (reference != null && reference.get() != null) {
+        size++;
+      }
+    }
+    return size;
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  @Nullable
+  private String internType(@Nullable String type) {
+    if (type == null) {
+      return null;
+    }
+    Integer code = typeCodes.get(type);
+    if (code != null) {
+      return types.get(code);
+    }
+    // only the first sighting of each type takes the lock, at most maxTypes times
+    synchronized (typeCodes) {
+      code = typeCodes.get(type);
+      if (code != null) {
+        return types.get(code);
+      }
+      if (typeCount >= types.length()) {
+        return type;
+      }
+      types.set(typeCount, type);
+      typeCodes.put(type, typeCount);
+      typeCount++;
+      return type;
+    }
+  }
+
+  private static boolean matches(@Nullable Animal animal, @Nullable String name, @Nullable String type) {
+    return animal != null && equal(animal.getName(), name) && equal(animal.getType(), type);
+  }
+
+  private static int hash(@Nullable String name, @Nullable String type) {
+    int hash = (name != null ? name.hashCode() : 0) * 31 + (type != null ? type.hashCode() : 0);
+    return hash ^ (hash >>> 16);
+  }
+
+  private static boolean equal(@Nullable String a, @Nullable String b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+}
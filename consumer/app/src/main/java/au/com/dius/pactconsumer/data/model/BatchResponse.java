@@ -0,0 +1,88 @@
+package au.com.dius.pactconsumer.data.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.joda.time.DateTime;
+
+/**
+ * The outcome of fetching one date of a batch: either its response or the error it failed with.
+ */
+public class BatchResponse {
+
+  @NonNull
+  private final DateTime dateTime;
+
+  @Nullable
+  private final ServiceResponse response;
+
+  @Nullable
+  private final Throwable error;
+
+  private BatchResponse(@NonNull DateTime dateTime,
+                        @Nullable ServiceResponse response,
+                        @Nullable Throwable error) {
+    this.dateTime = dateTime;
+    this.response = response;
+    this.error = error;
+  }
+
+  /**
+   * @return the date as it was requested
+   */
+  @NonNull
+  public DateTime getDateTime() {
+    return dateTime;
+  }
+
+  @Nullable
+  public ServiceResponse getResponse() {
+    return response;
+  }
+
+  @Nullable
+  public Throwable getError() {
+    return error;
+  }
+
+  public boolean isSuccess() {
+    return error == null;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    BatchResponse that = (BatchResponse) o;
+
+    if (dateTime.getMillis() != that.dateTime.getMillis()) return false;
+    if (response != null ? !response.equals(that.response) : that.response != null) return false;
+    return error != null ? error.equals(that.error) : that.error == null;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = (int) (dateTime.getMillis() ^ (dateTime.getMillis() >>> 32));
+    result = 31 * result + (response != null ? response.hashCode() : 0);
+    result = 31 * result + (error != null ? error.hashCode() : 0);
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "BatchResponse{" +
+        "dateTime=" + dateTime +
+        ", response=" + response +
+        ", error=" + error +
+        '}';
+  }
+
+  public static BatchResponse success(@NonNull DateTime dateTime, @NonNull ServiceResponse response) {
+    return new BatchResponse(dateTime, response, null);
+  }
+
+  public static BatchResponse failure(@NonNull DateTime dateTime, @NonNull Throwable error) {
+    return new BatchResponse(dateTime, null, error);
+  }
+}
@@ -0,0 +1,53 @@
+package au.com.dius.pactconsumer.data.model;
+
+import android.support.annotation.NonNull;
+
+import com.squareup.moshi.FromJson;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.ToJson;
+
+import org.joda.time.DateTime;
+
+import au.com.dius.pactconsumer.util.DateHelper;
+import au.com.dius.pactconsumer.util.Histogram;
+
+/**
+ * Builds the Moshi instance used for the provider's responses, with the hand-written adapters registered
+ * so no model is read by reflection.
+ */
+public final class MoshiFactory {
+
+  private MoshiFactory() {
+  }
+
+  /**
+   * @param decodeTime records how long each {@link ServiceResponse} takes to decode, including reads from
+   *                   the body it is decoded from
+   * @param pool       interns the decoded animals
+   */
+  @NonNull
+  public static Moshi create(@NonNull Histogram decodeTime, @NonNull AnimalPool pool) {
+    JsonAdapter<Animal> animalAdapter = new AnimalJsonAdapter(pool).nullSafe();
+    JsonAdapter<ServiceResponse> responseAdapter = new ServiceResponseJsonAdapter(animalAdapter);
+    return new Moshi.Builder()
+        .add(Animal.class, animalAdapter)
+        .add(ServiceResponse.class, new TimedJsonAdapter<>(responseAdapter, decodeTime).nullSafe())
+        .add(new DateTimeAdapter())
+        .build();
+  }
+
+  public static class DateTimeAdapter {
+
+    @ToJson
+    public String toJson(DateTime dateTime) {
+      return DateHelper.toString(dateTime);
+    }
+
+    @FromJson
+    public DateTime fromJson(String json) {
+      return DateHelper.parse(json);
+    }
+  }
+
+}
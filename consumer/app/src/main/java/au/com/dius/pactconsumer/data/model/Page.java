@@ -0,0 +1,106 @@
+package au.com.dius.pactconsumer.data.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.joda.time.DateTime;
+
+import java.util.List;
+
+public class Page {
+
+  public static final int NO_MORE = -1;
+
+  @Nullable
+  private final DateTime validDate;
+
+  @NonNull
+  private final List<Animal> animals;
+
+  private final int cursor;
+
+  private final int nextCursor;
+
+  public Page(@Nullable DateTime validDate,
+              @NonNull List<Animal> animals,
+              int cursor,
+              int nextCursor) {
+    this.validDate = validDate;
+    this.animals = animals;
+    this.cursor = cursor;
+    this.nextCursor = nextCursor;
+  }
+
+  @Nullable
+  public DateTime getValidDate() {
+    return validDate;
+  }
+
+  @NonNull
+  public List<Animal> getAnimals() {
+    return animals;
+  }
+
+  public int getCursor() {
+    return cursor;
+  }
+
+  public int getNextCursor() {
+    return nextCursor;
+  }
+
+  public boolean hasMore() {
+    return nextCursor != NO_MORE;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    Page page = (Page) o;
+
+    if (cursor != page.cursor) return false;
+    if (nextCursor != page.nextCursor) return false;
+
+    long millis = validDate != null ? validDate.getMillis() : -1;
+    long thatMillis = page.validDate != null ? page.validDate.getMillis() : -1;
+    if (millis != thatMillis)
+      return false;
+
+    return animals.equals(page.animals);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = validDate != null ? (int) (validDate.getMillis() ^ (validDate.getMillis() >>> 32)) : 0;
+    result = 31 * result + animals.hashCode();
+    result = 31 * result + cursor;
+    result = 31 * result + nextCursor;
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "Page{" +
+        "validDate=" + validDate +
+        ", animals=" + animals +
+        ", cursor=" + cursor +
+        ", nextCursor=" + nextCursor +
+        '}';
+  }
+
+  /**
+   * Builds the page starting at {@code cursor} from up to {@code limit + 1} animals, the extra one only
+   * signalling that a further page exists.
+   */
+  public static Page create(@Nullable DateTime validDate,
+                            @NonNull List<Animal> animals,
+                            int cursor,
+                            int limit) {
+    if (animals.size() > limit) {
+      return new Page(validDate, animals.subList(0, limit), cursor, cursor + limit);
+    }
+    return new Page(validDate, animals, cursor, NO_MORE);
+  }
+}
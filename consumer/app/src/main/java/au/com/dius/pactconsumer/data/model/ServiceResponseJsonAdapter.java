@@ -0,0 +1,83 @@
+package au.com.dius.pactconsumer.data.model;
+
+import android.support.annotation.NonNull;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+
+import org.joda.time.DateTime;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import au.com.dius.pactconsumer.util.DateHelper;
+
+/**
+ * Reads and writes {@link ServiceResponse} without reflection, skipping any field it does not know.
+ */
+public class ServiceResponseJsonAdapter extends JsonAdapter<ServiceResponse> {
+
+  private static final JsonReader.Options OPTIONS = JsonReader.Options.of("valid_date", "animals");
+
+  private final JsonAdapter<Animal> animalAdapter;
+
+  public ServiceResponseJsonAdapter(@NonNull JsonAdapter<Animal> animalAdapter) {
+    this.animalAdapter = animalAdapter;
+  }
+
+  @Override
+  public ServiceResponse fromJson(JsonReader reader) throws IOException {
+    DateTime validDate = null;
+    List<Animal> animals = null;
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.selectName(OPTIONS)) {
+        case 0:
+          String value = AnimalJsonAdapter.nextStringOrNull(reader);
+          validDate = value != null ? DateHelper.parse(value) : null;
+          break;
+        case 1:
+          animals = readAnimals(reader);
+          break;
+        default:
+          reader.nextName();
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    return new ServiceResponse(validDate, animals);
+  }
+
+  private List<Animal> readAnimals(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonReader.Token.NULL) {
+      return reader.nextNull();
+    }
+
+    List<Animal> animals = new ArrayList<>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      animals.add(animalAdapter.fromJson(reader));
+    }
+    reader.endArray();
+    return animals;
+  }
+
+  @Override
+  public void toJson(JsonWriter writer, ServiceResponse value) throws IOException {
+    writer.beginObject();
+    if (value.getValidDate() != null) {
+      writer.name("valid_date").value(DateHelper.toString(value.getValidDate()));
+    }
+    writer.name("animals").beginArray();
+    for (Animal animal : value.getAnimals()) {
+      animalAdapter.toJson(writer, animal);
+    }
+    writer.endArray();
+    writer.endObject();
+  }
+
+}
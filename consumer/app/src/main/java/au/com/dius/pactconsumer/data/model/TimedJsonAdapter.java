@@ -0,0 +1,45 @@
+package au.com.dius.pactconsumer.data.model;
+
+import android.support.annotation.NonNull;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+
+import java.io.IOException;
+
+import au.com.dius.pactconsumer.util.Histogram;
+
+/**
+ * Records how long the delegate takes to decode each value. Encoding is not timed.
+ * <p>
+ * The reader pulls from its source as it goes, so when that source is a network body the time includes
+ * waiting for bytes to arrive as well as parsing.
+ */
+public class TimedJsonAdapter<T> extends JsonAdapter<T> {
+
+  private final JsonAdapter<T> delegate;
+
+  private final Histogram histogram;
+
+  public TimedJsonAdapter(@NonNull JsonAdapter<T> delegate, @NonNull Histogram histogram) {
+    this.delegate = delegate;
+    this.histogram = histogram;
+  }
+
+  @Override
+  public T fromJson(JsonReader reader) throws IOException {
+    long start = Histogram.start();
+    try {
+      return delegate.fromJson(reader);
+    } finally {
+      histogram.recordSince(start);
+    }
+  }
+
+  @Override
+  public void toJson(JsonWriter writer, T value) throws IOException {
+    delegate.toJson(writer, value);
+  }
+
+}
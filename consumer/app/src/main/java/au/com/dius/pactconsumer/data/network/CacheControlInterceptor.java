@@ -0,0 +1,38 @@
+package au.com.dius.pactconsumer.data.network;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Gives successful responses that carry no caching headers of their own a max-age, so that the HTTP
+ * cache can answer repeated requests for the same normalised valid_date without going to the network.
+ */
+public class CacheControlInterceptor implements Interceptor {
+
+  private static final String CACHE_CONTROL = "Cache-Control";
+  private static final String EXPIRES = "Expires";
+
+  private final long maxAgeSeconds;
+
+  public CacheControlInterceptor(long maxAge, TimeUnit unit) {
+    this.maxAgeSeconds = unit.toSeconds(maxAge);
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    Response response = chain.proceed(chain.request());
+    if (!response.isSuccessful()
+        || response.header(CACHE_CONTROL) != null
+        || response.header(EXPIRES) != null) {
+      return response;
+    }
+
+    return response.newBuilder()
+        .header(CACHE_CONTROL, "max-age=" + maxAgeSeconds)
+        .build();
+  }
+
+}
@@ -0,0 +1,151 @@
+package au.com.dius.pactconsumer.data.network;
+
+import android.support.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.GzipSource;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * Asks the provider for a compressed body and decodes it while it is read, so the converter parses straight
+ * from the decoder and the body is never staged in memory. The HTTP cache keeps the compressed form.
+ * <p>
+ * gzip is built in. Other encodings, such as brotli, can be offered by passing a decoder for them; they are
+ * advertised in the order given. Requests that set their own Accept-Encoding are passed through untouched.
+ */
+public class ContentEncodingInterceptor implements Interceptor {
+
+  private static final String ACCEPT_ENCODING = "Accept-Encoding";
+  private static final String CONTENT_ENCODING = "Content-Encoding";
+  private static final String CONTENT_LENGTH = "Content-Length";
+  private static final String GZIP = "gzip";
+
+  public interface Decoder {
+    @NonNull
+    Source decode(@NonNull Source source) throws IOException;
+  }
+
+  private final TransferMetrics metrics;
+
+  private final Map<String, Decoder> decoders;
+
+  private final String acceptEncoding;
+
+  public ContentEncodingInterceptor(@NonNull TransferMetrics metrics) {
+    this(metrics, Collections.<String, Decoder>emptyMap());
+  }
+
+  /**
+   * @param decoders decoders by encoding name, preferred first; gzip is always offered last
+   */
+  public ContentEncodingInterceptor(@NonNull TransferMetrics metrics, @NonNull Map<String, Decoder> decoders) {
+    this.metrics = metrics;
+    this.decoders = new LinkedHashMap<>();
+    for (Map.Entry<String, Decoder> entry : decoders.entrySet()) {
+      this.decoders.put(entry.getKey().toLowerCase(Locale.US), entry.getValue());
+    }
+    if (!this.decoders.containsKey(GZIP)) {
+      this.decoders.put(GZIP, GzipSource::new);
+    }
+
+    StringBuilder builder = new StringBuilder();
+    for (String encoding : this.decoders.keySet()) {
+      if (builder.length() > 0) {
+        builder.append(", ");
+      }
+      builder.append(encoding);
+    }
+    this.acceptEncoding = builder.toString();
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    Request request = chain.request();
+    if (request.header(ACCEPT_ENCODING) != null) {
+      return chain.proceed(request);
+    }
+
+    Response response = chain.proceed(request.newBuilder()
+        .header(ACCEPT_ENCODING, acceptEncoding)
+        .build());
+
+    ResponseBody body = response.body();
+    if (body == null || !hasBody(response)) {
+      return response;
+    }
+
+    String encoding = response.header(CONTENT_ENCODING);
+    Decoder decoder = encoding == null ? null : decoders.get(encoding.toLowerCase(Locale.US));
+    if (encoding != null && decoder == null) {
+      return response;
+    }
+
+    boolean network = response.cacheResponse() == null;
+    Source source = body.source();
+    if (network) {
+      source = new CountingSource(source, true);
+    }
+    if (decoder != null) {
+      source = decoder.decode(source);
+    }
+    if (network) {
+      source = new CountingSource(source, false);
+    }
+
+    if (decoder == null) {
+      return response.newBuilder()
+          .body(ResponseBody.create(body.contentType(), body.contentLength(), Okio.buffer(source)))
+          .build();
+    }
+
+    return response.newBuilder()
+        .removeHeader(CONTENT_ENCODING)
+        .removeHeader(CONTENT_LENGTH)
+        .body(ResponseBody.create(body.contentType(), -1, Okio.buffer(source)))
+        .build();
+  }
+
+  private static boolean hasBody(@NonNull Response response) {
+    if (response.request().method().equals("HEAD")) {
+      return false;
+    }
+    int code = response.code();
+    return code != 204 && code != 304 && response.body().contentLength() != 0;
+  }
+
+  private class CountingSource extends ForwardingSource {
+
+    private final boolean wire;
+
+    CountingSource(@NonNull Source delegate, boolean wire) {
+      super(delegate);
+      this.wire = wire;
+    }
+
+    @Override
+    public long read(Buffer sink, long byteCount) throws IOException {
+      long read = super.read(sink, byteCount);
+      if (read > 0) {
+        if (wire) {
+          metrics.addWireBytes(read);
+        } else {
+          metrics.addDecodedBytes(read);
+        }
+      }
+      return read;
+    }
+  }
+
+}
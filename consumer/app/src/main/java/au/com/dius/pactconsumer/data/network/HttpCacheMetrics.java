@@ -0,0 +1,47 @@
+package au.com.dius.pactconsumer.data.network;
+
+import android.support.annotation.NonNull;
+
+import okhttp3.Cache;
+
+/**
+ * Read-only view of the OkHttp disk cache counters.
+ */
+public class HttpCacheMetrics {
+
+  private final Cache cache;
+
+  public HttpCacheMetrics(@NonNull Cache cache) {
+    this.cache = cache;
+  }
+
+  public int getRequestCount() {
+    return cache.requestCount();
+  }
+
+  /**
+   * Requests answered from the cache, including conditional requests that were validated with a 304.
+   */
+  public int getHitCount() {
+    return cache.hitCount();
+  }
+
+  public int getNetworkCount() {
+    return cache.networkCount();
+  }
+
+  public double getHitRate() {
+    int requests = cache.requestCount();
+    return requests == 0 ? 0 : (double) cache.hitCount() / requests;
+  }
+
+  @Override
+  public String toString() {
+    return "HttpCacheMetrics{" +
+        "requests=" + getRequestCount() +
+        ", hits=" + getHitCount() +
+        ", network=" + getNetworkCount() +
+        '}';
+  }
+
+}
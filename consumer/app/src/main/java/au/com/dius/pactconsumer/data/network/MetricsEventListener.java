@@ -0,0 +1,118 @@
+package au.com.dius.pactconsumer.data.network;
+
+import android.support.annotation.NonNull;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+import au.com.dius.pactconsumer.util.Histogram;
+import au.com.dius.pactconsumer.util.Metrics;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+
+/**
+ * Records how long each call spends resolving, connecting, waiting for the first byte of the response and
+ * reading its body. Calls answered from the cache or over a pooled connection skip the stages they do not
+ * need.
+ * <p>
+ * The body time runs from the start of the body until it has been read to the end or closed. Responses are
+ * decoded straight from the network stream, so it includes decoding, and for streamed and paged bodies the
+ * time the caller spends between reads. It is therefore not the transfer time alone, and it overlaps the
+ * {@link Metrics#DECODE} histogram rather than adding to it.
+ */
+public class MetricsEventListener extends EventListener {
+
+  private final Histogram call;
+  private final Histogram dns;
+  private final Histogram connect;
+  private final Histogram firstByte;
+  private final Histogram body;
+
+  private long callStart;
+  private long dnsStart;
+  private long connectStart;
+  private long bodyStart;
+
+  MetricsEventListener(@NonNull Histogram call,
+                       @NonNull Histogram dns,
+                       @NonNull Histogram connect,
+                       @NonNull Histogram firstByte,
+                       @NonNull Histogram body) {
+    this.call = call;
+    this.dns = dns;
+    this.connect = connect;
+    this.firstByte = firstByte;
+    this.body = body;
+  }
+
+  @NonNull
+  public static EventListener.Factory factory(@NonNull Metrics metrics) {
+    Histogram call = metrics.histogram(Metrics.HTTP_CALL);
+    Histogram dns = metrics.histogram(Metrics.HTTP_DNS);
+    Histogram connect = metrics.histogram(Metrics.HTTP_CONNECT);
+    Histogram firstByte = metrics.histogram(Metrics.HTTP_FIRST_BYTE);
+    Histogram body = metrics.histogram(Metrics.HTTP_BODY);
+    return ignored -> new MetricsEventListener(call, dns, connect, firstByte, body);
+  }
+
+  @Override
+  public void callStart(Call call) {
+    callStart = Histogram.start();
+  }
+
+  @Override
+  public void dnsStart(Call call, String domainName) {
+    dnsStart = Histogram.start();
+  }
+
+  @Override
+  public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+    dns.recordSince(dnsStart);
+  }
+
+  @Override
+  public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+    connectStart = Histogram.start();
+  }
+
+  @Override
+  public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+    connect.recordSince(connectStart);
+  }
+
+  @Override
+  public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol,
+                            IOException ioe) {
+    connect.recordSince(connectStart);
+  }
+
+  @Override
+  public void responseHeadersStart(Call call) {
+    firstByte.recordSince(callStart);
+  }
+
+  @Override
+  public void responseBodyStart(Call call) {
+    bodyStart = Histogram.start();
+  }
+
+  @Override
+  public void responseBodyEnd(Call call, long byteCount) {
+    body.recordSince(bodyStart);
+  }
+
+  @Override
+  public void callEnd(Call call) {
+    this.call.recordSince(callStart);
+  }
+
+  @Override
+  public void callFailed(Call call, IOException ioe) {
+    this.call.recordSince(callStart);
+  }
+
+}
@@ -0,0 +1,244 @@
+package au.com.dius.pactconsumer.data.network;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import au.com.dius.pactconsumer.util.Logger;
+import okhttp3.Headers;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * Logs one in every {@code sampleRate} calls without holding up the caller. The response body is not
+ * buffered: up to {@code maxBodyBytes} of it are copied aside as the caller reads it, and the entry is
+ * handed to the writer once the body has been read or closed. Formatting and logging run on the writer.
+ * <p>
+ * Add it before {@link ContentEncodingInterceptor} so that it sees decoded bodies.
+ */
+public class SampledLoggingInterceptor implements Interceptor {
+
+  private static final String TAG = "OkHttp";
+
+  private final Logger logger;
+
+  private final int sampleRate;
+
+  private final long maxBodyBytes;
+
+  private final Executor writer;
+
+  private final AtomicLong calls = new AtomicLong();
+
+  public SampledLoggingInterceptor(@NonNull Logger logger,
+                                   int sampleRate,
+                                   long maxBodyBytes,
+                                   @NonNull Executor writer) {
+    if (sampleRate < 1) {
+      throw new IllegalArgumentException("Sample rate must be at least 1: " + sampleRate);
+    }
+    if (maxBodyBytes < 0) {
+      throw new IllegalArgumentException("Body limit must not be negative: " + maxBodyBytes);
+    }
+    this.logger = logger;
+    this.sampleRate = sampleRate;
+    this.maxBodyBytes = maxBodyBytes;
+    this.writer = writer;
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    Request request = chain.request();
+    if (calls.getAndIncrement() % sampleRate != 0) {
+      return chain.proceed(request);
+    }
+
+    Entry entry = new Entry(request);
+    Response response;
+    try {
+      response = chain.proceed(request);
+    } catch (IOException e) {
+      entry.failed(e);
+      write(entry);
+      throw e;
+    }
+
+    entry.received(response);
+    ResponseBody body = response.body();
+    if (body == null) {
+      write(entry);
+      return response;
+    }
+
+    Source tee = new TeeSource(body.source(), entry);
+    return response.newBuilder()
+        .body(ResponseBody.create(body.contentType(), body.contentLength(), Okio.buffer(tee)))
+        .build();
+  }
+
+  private void write(@NonNull Entry entry) {
+    writer.execute(() -> logger.d(TAG, entry.format()));
+  }
+
+  private class TeeSource extends ForwardingSource {
+
+    private final Entry entry;
+
+    private boolean written;
+
+    TeeSource(@NonNull Source delegate, @NonNull Entry entry) {
+      super(delegate);
+      this.entry = entry;
+    }
+
+    @Override
+    public long read(Buffer sink, long byteCount) throws IOException {
+      long read;
+      try {
+        read = super.read(sink, byteCount);
+      } catch (IOException e) {
+        entry.failed(e);
+        finish();
+        throw e;
+      }
+
+      if (read == -1) {
+        finish();
+        return read;
+      }
+
+      entry.bodyBytes += read;
+      long copy = Math.min(read, maxBodyBytes - entry.prefix.size());
+      if (copy > 0) {
+        sink.copyTo(entry.prefix, sink.size() - read, copy);
+      }
+      return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+      finish();
+      super.close();
+    }
+
+    private void finish() {
+      if (!written) {
+        written = true;
+        entry.bodyEnd = System.nanoTime();
+        write(entry);
+      }
+    }
+  }
+
+  /**
+   * What was seen of one call. Filled in by the calling thread and read by the writer once handed over.
+   */
+  private static class Entry {
+
+    final String method;
+    final String url;
+    final Headers requestHeaders;
+    final long start = System.nanoTime();
+    final Buffer prefix = new Buffer();
+
+    int code;
+    String message;
+    Headers responseHeaders;
+    MediaType contentType;
+    boolean fromCache;
+    long headersEnd;
+    long bodyEnd;
+    long bodyBytes;
+    IOException error;
+    long errorAt;
+
+    Entry(@NonNull Request request) {
+      this.method = request.method();
+      this.url = request.url().toString();
+      this.requestHeaders = request.headers();
+    }
+
+    void received(@NonNull Response response) {
+      headersEnd = System.nanoTime();
+      code = response.code();
+      message = response.message();
+      responseHeaders = response.headers();
+      fromCache = response.networkResponse() == null;
+      ResponseBody body = response.body();
+      contentType = body == null ? null : body.contentType();
+    }
+
+    void failed(@NonNull IOException e) {
+      error = e;
+      errorAt = System.nanoTime();
+    }
+
+    @NonNull
+    String format() {
+      StringBuilder builder = new StringBuilder();
+      builder.append("--> ").append(method).append(' ').append(url).append('\n');
+      appendHeaders(builder, requestHeaders);
+
+      if (responseHeaders == null) {
+        builder.append("<-- HTTP FAILED: ").append(error).append(" (").append(millis(start, errorAt)).append("ms)");
+        return builder.toString();
+      }
+
+      builder.append("<-- ").append(code);
+      if (!message.isEmpty()) {
+        builder.append(' ').append(message);
+      }
+      builder.append(" (").append(millis(start, headersEnd)).append("ms");
+      if (fromCache) {
+        builder.append(", cache");
+      }
+      builder.append(")\n");
+      appendHeaders(builder, responseHeaders);
+
+      if (bodyEnd == 0) {
+        return builder.append("<-- END HTTP").toString();
+      }
+      if (isText(contentType)) {
+        boolean truncated = bodyBytes > prefix.size();
+        builder.append(prefix.readUtf8());
+        if (truncated) {
+          builder.append("...");
+        }
+        builder.append('\n');
+      }
+      builder.append("<-- END HTTP (").append(bodyBytes).append("-byte body");
+      if (error != null) {
+        builder.append(", failed: ").append(error);
+      }
+      builder.append(", ").append(millis(start, bodyEnd)).append("ms)");
+      return builder.toString();
+    }
+
+    private static void appendHeaders(@NonNull StringBuilder builder, @NonNull Headers headers) {
+      for (int i = 0; i < headers.size(); i++) {
+        builder.append(headers.name(i)).append(": ").append(headers.value(i)).append('\n');
+      }
+    }
+
+    private static long millis(long from, long to) {
+      return TimeUnit.NANOSECONDS.toMillis(to - from);
+    }
+
+    private static boolean isText(@Nullable MediaType type) {
+      return type != null
+          && (type.type().equals("text") || type.subtype().contains("json") || type.subtype().contains("xml"));
+    }
+  }
+
+}
@@ -0,0 +1,60 @@
+package au.com.dius.pactconsumer.data.network;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Bytes of response bodies as they came over the network and after decoding their content encoding.
+ * Responses answered from the cache are not counted.
+ */
+@Singleton
+public class TransferMetrics {
+
+  private final AtomicLong wireBytes = new AtomicLong();
+  private final AtomicLong decodedBytes = new AtomicLong();
+
+  @Inject
+  public TransferMetrics() {
+  }
+
+  void addWireBytes(long count) {
+    wireBytes.addAndGet(count);
+  }
+
+  void addDecodedBytes(long count) {
+    decodedBytes.addAndGet(count);
+  }
+
+  public long getWireBytes() {
+    return wireBytes.get();
+  }
+
+  public long getDecodedBytes() {
+    return decodedBytes.get();
+  }
+
+  /**
+   * Decoded bytes per wire byte; 1 when nothing was compressed or nothing was read.
+   */
+  public double getCompressionRatio() {
+    long wire = wireBytes.get();
+    return wire == 0 ? 1 : (double) decodedBytes.get() / wire;
+  }
+
+  public void reset() {
+    wireBytes.set(0);
+    decodedBytes.set(0);
+  }
+
+  @Override
+  public String toString() {
+    return "TransferMetrics{" +
+        "wire=" + getWireBytes() +
+        ", decoded=" + getDecodedBytes() +
+        ", ratio=" + String.format("%.1f", getCompressionRatio()) +
+        '}';
+  }
+
+}
@@ -0,0 +1,126 @@
+package au.com.dius.pactconsumer.domain;
+
+import android.support.annotation.NonNull;
+
+import java.util.List;
+
+import au.com.dius.pactconsumer.data.model.Animal;
+import au.com.dius.pactconsumer.data.model.Page;
+
+/**
+ * What happened while loading animals, reduced into a {@link ViewState} by the {@link Reducer}.
+ */
+public abstract class Event {
+
+  public static class Refresh extends Event {
+
+    private static final Refresh instance = new Refresh();
+
+    @Override
+    public String toString() {
+      return "Refresh{}";
+    }
+
+    public static Refresh create() {
+      return instance;
+    }
+
+  }
+
+  public static class Loaded extends Event {
+
+    @NonNull
+    private final List<Animal> animals;
+
+    private Loaded(@NonNull List<Animal> animals) {
+      this.animals = animals;
+    }
+
+    @NonNull
+    public List<Animal> getAnimals() {
+      return animals;
+    }
+
+    @Override
+    public String toString() {
+      return "Loaded{" +
+          "animals=" + animals +
+          '}';
+    }
+
+    public static Loaded create(@NonNull List<Animal> animals) {
+      return new Loaded(animals);
+    }
+
+  }
+
+  public static class PageLoaded extends Event {
+
+    @NonNull
+    private final Page page;
+
+    private PageLoaded(@NonNull Page page) {
+      this.page = page;
+    }
+
+    @NonNull
+    public Page getPage() {
+      return page;
+    }
+
+    @Override
+    public String toString() {
+      return "PageLoaded{" +
+          "page=" + page +
+          '}';
+    }
+
+    public static PageLoaded create(@NonNull Page page) {
+      return new PageLoaded(page);
+    }
+
+  }
+
+  public static class PagesCleared extends Event {
+
+    private static final PagesCleared instance = new PagesCleared();
+
+    @Override
+    public String toString() {
+      return "PagesCleared{}";
+    }
+
+    public static PagesCleared create() {
+      return instance;
+    }
+
+  }
+
+  public static class Failed extends Event {
+
+    @NonNull
+    private final Throwable error;
+
+    private Failed(@NonNull Throwable error) {
+      this.error = error;
+    }
+
+    @NonNull
+    public Throwable getError() {
+      return error;
+    }
+
+    @Override
+    public String toString() {
+      return "Failed{" +
+          "error=" + error +
+          '}';
+    }
+
+    public static Failed create(@NonNull Throwable error) {
+      return new Failed(error);
+    }
+
+  }
+
+}
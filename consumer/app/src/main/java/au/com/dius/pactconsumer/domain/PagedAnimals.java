@@ -0,0 +1,141 @@
+package au.com.dius.pactconsumer.domain;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import au.com.dius.pactconsumer.data.model.Animal;
+import au.com.dius.pactconsumer.data.model.Page;
+
+/**
+ * Tracks which pages of a long animal list are held in memory.
+ * <p>
+ * Positions are stable once known: pages dropped to stay within {@code maxPages} leave a gap that is loaded
+ * again when it comes back into view. Not thread safe, meant to be used from the main thread.
+ */
+public class PagedAnimals {
+
+  private final int pageSize;
+
+  private final int maxPages;
+
+  private final Map<Integer, List<Animal>> pages = new HashMap<>();
+
+  private final Set<Integer> loading = new HashSet<>();
+
+  private int size;
+
+  private boolean hasMore = true;
+
+  public PagedAnimals(int pageSize, int maxPages) {
+    if (pageSize <= 0 || maxPages <= 0) {
+      throw new IllegalArgumentException("Page size and max pages must be positive");
+    }
+    this.pageSize = pageSize;
+    this.maxPages = maxPages;
+  }
+
+  public int getPageSize() {
+    return pageSize;
+  }
+
+  /**
+   * @return the number of positions known so far, including those of dropped pages
+   */
+  public int size() {
+    return size;
+  }
+
+  public boolean hasMore() {
+    return hasMore;
+  }
+
+  public int getLoadedPageCount() {
+    return pages.size();
+  }
+
+  /**
+   * @return the animal at the position, or null when its page is not in memory
+   */
+  @Nullable
+  public Animal get(int position) {
+    List<Animal> page = pages.get(position / pageSize);
+    int index = position % pageSize;
+    return page != null && index < page.size() ? page.get(index) : null;
+  }
+
+  /**
+   * Works out which pages need loading now that {@code position} is being shown, and marks them as loading.
+   *
+   * @return the cursors to load
+   */
+  @NonNull
+  public List<Integer> cursorsToLoad(int position, int prefetchDistance) {
+    List<Integer> cursors = new ArrayList<>(2);
+
+    int page = position / pageSize;
+    if (position < size && !pages.containsKey(page) && loading.add(page)) {
+      cursors.add(page * pageSize);
+    }
+
+    if (hasMore && position >= size - prefetchDistance) {
+      int next = size / pageSize;
+      if (!pages.containsKey(next) && loading.add(next)) {
+        cursors.add(next * pageSize);
+      }
+    }
+    return cursors;
+  }
+
+  /**
+   * @return the number of new positions the page added to the end of the list
+   */
+  public int onPageLoaded(@NonNull Page page) {
+    int index = page.getCursor() / pageSize;
+    loading.remove(index);
+    pages.put(index, page.getAnimals());
+
+    int end = page.getCursor() + page.getAnimals().size();
+    int added = Math.max(0, end - size);
+    if (added > 0 || !page.hasMore()) {
+      size = Math.max(size, end);
+      hasMore = page.hasMore();
+    }
+    return added;
+  }
+
+  public void onPageFailed(int cursor) {
+    loading.remove(cursor / pageSize);
+  }
+
+  /**
+   * Drops the pages furthest from {@code position} until at most {@code maxPages} remain.
+   *
+   * @return the cursors of the dropped pages
+   */
+  @NonNull
+  public List<Integer> trim(int position) {
+    if (pages.size() <= maxPages) {
+      return Collections.emptyList();
+    }
+
+    int current = position / pageSize;
+    List<Integer> indices = new ArrayList<>(pages.keySet());
+    Collections.sort(indices, (a, b) -> Math.abs(b - current) - Math.abs(a - current));
+
+    List<Integer> dropped = new ArrayList<>();
+    for (int i = 0; pages.size() > maxPages; i++) {
+      pages.remove(indices.get(i));
+      dropped.add(indices.get(i) * pageSize);
+    }
+    return dropped;
+  }
+
+}
@@ -6,19 +6,33 @@ import android.support.annotation.Nullable;
 import org.joda.time.DateTime;
 
 import java.lang.ref.WeakReference;
-import java.util.List;
 
-import au.com.dius.pactconsumer.R;
 import au.com.dius.pactconsumer.data.Repository;
-import au.com.dius.pactconsumer.data.model.Animal;
-import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import au.com.dius.pactconsumer.data.ResponseSnapshot;
+import au.com.dius.pactconsumer.data.model.Page;
 import au.com.dius.pactconsumer.util.Logger;
 import au.com.dius.pactconsumer.util.RxBinder;
-import io.reactivex.Observable;
-
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Renders the states of a {@link ViewStateStore}. The store outlives the presenter, so stopping only
+ * detaches the view and a load in flight carries on.
+ * <p>
+ * States that arrive in a burst are rendered once, with the latest state, on the next run of
+ * {@code frameScheduler}.
+ * <p>
+ * A list shown a page at a time is started with {@link #onStartPaging()} and fetches its pages through
+ * {@link #loadPage}, so its loading, empty and error states come from the store like those of a full load.
+ */
 public class Presenter implements Contract.Presenter {
 
-  private final Repository repository;
+  private static final String TAG = Presenter.class.getSimpleName();
+
+  private final ViewStateStore store;
 
   private final WeakReference<Contract.View> viewRef;
 
@@ -26,61 +40,126 @@ public class Presenter implements Contract.Presenter {
 
   private final Logger logger;
 
+  private final Scheduler frameScheduler;
+
+  @Nullable
+  private ViewState rendered;
+
+  @Nullable
+  private ViewState pending;
+
+  private boolean frameScheduled;
+
+  private Disposable frame = Disposables.disposed();
+
   public Presenter(@NonNull Repository repository,
                    @NonNull Contract.View view,
                    @NonNull RxBinder binder,
                    @NonNull Logger logger) {
-    this.repository = repository;
+    this(repository, view, binder, logger, null);
+  }
+
+  public Presenter(@NonNull Repository repository,
+                   @NonNull Contract.View view,
+                   @NonNull RxBinder binder,
+                   @NonNull Logger logger,
+                   @Nullable ResponseSnapshot snapshot) {
+    this(repository, view, binder, logger, snapshot, Schedulers.trampoline());
+  }
+
+  public Presenter(@NonNull Repository repository,
+                   @NonNull Contract.View view,
+                   @NonNull RxBinder binder,
+                   @NonNull Logger logger,
+                   @Nullable ResponseSnapshot snapshot,
+                   @NonNull Scheduler frameScheduler) {
+    this(new ViewStateStore(repository, snapshot, logger, Schedulers.trampoline()), view, binder, logger, frameScheduler);
+  }
+
+  /**
+   * @param frameScheduler renders the latest pending state, on the main thread
+   */
+  public Presenter(@NonNull ViewStateStore store,
+                   @NonNull Contract.View view,
+                   @NonNull RxBinder binder,
+                   @NonNull Logger logger,
+                   @NonNull Scheduler frameScheduler) {
+    this.store = store;
     this.viewRef = new WeakReference<>(view);
     this.binder = binder;
     this.logger = logger;
+    this.frameScheduler = frameScheduler;
   }
 
   @Override
   public void onStart() {
-    setLoading();
-    binder.bind(getAnimals(), this::setAnimals, this::setError, this::setComplete);
+    bindStates();
+    store.refresh();
   }
 
-  @Override
-  public void onStop() {
-    binder.clear();
+  /**
+   * Renders the store's states without loading the whole list, which is fetched through {@link #loadPage}.
+   */
+  public void onStartPaging() {
+    bindStates();
   }
 
-  private Observable<List<Animal>> getAnimals() {
-    return repository.fetchResponse(DateTime.now())
-        .toObservable()
-        .map(ServiceResponse::getAnimals);
+  @NonNull
+  public Single<Page> loadPage(@NonNull DateTime dateTime, int cursor, int limit) {
+    return store.fetchPage(dateTime, cursor, limit);
   }
 
-  private void setLoading() {
-    Contract.View view = getView();
-    if (view == null) return;
+  /**
+   * Called once the paged list is torn down, so the next one starts from the loading state.
+   */
+  public void clearPages() {
+    store.clearPages();
+  }
 
-    view.setViewState(ViewState.Loading.create());
+  @Override
+  public void onStop() {
+    binder.clear();
+    frame.dispose();
+    frameScheduled = false;
   }
 
-  private void setAnimals(@NonNull List<Animal> animals) {
-    Contract.View view = getView();
-    if (view == null) return;
+  private void bindStates() {
+    binder.bind(store.getViewStates(), this::render, this::onStatesFailed, this::onStatesCompleted);
+  }
 
-    if (animals.isEmpty()) {
-      view.setViewState(ViewState.Empty.create(R.string.empty_message));
+  private void render(@NonNull ViewState next) {
+    pending = next;
+    if (frameScheduled) {
       return;
     }
-
-    view.setViewState(ViewState.Loaded.create(animals));
+    frameScheduled = true;
+    frame = frameScheduler.scheduleDirect(this::renderPending);
   }
 
-  private void setError(@NonNull Exception exception) {
+  private void renderPending() {
+    ViewState next = pending;
+    pending = null;
+    frameScheduled = false;
+    if (next == null || next.equals(rendered)) {
+      return;
+    }
+
     Contract.View view = getView();
     if (view == null) return;
 
-    logger.e(Presenter.class.getSimpleName(), "Error loading service response", exception);
-    view.setViewState(ViewState.Error.create(R.string.error_message));
+    rendered = next;
+    view.setViewState(next);
+  }
+
+  /**
+   * The store's states neither fail nor complete, so reaching either of these is a bug worth logging.
+   */
+  private void onStatesFailed(@NonNull Exception exception) {
+    logger.e(TAG, "View states failed", exception);
   }
 
-  private void setComplete() {
+  private void onStatesCompleted() {
+    logger.d(TAG, "View states completed");
   }
 
   @Nullable
@@ -0,0 +1,56 @@
+package au.com.dius.pactconsumer.domain;
+
+import android.support.annotation.NonNull;
+
+import au.com.dius.pactconsumer.R;
+import au.com.dius.pactconsumer.data.model.Page;
+import io.reactivex.functions.BiFunction;
+
+/**
+ * Folds events into the view state.
+ * <p>
+ * Loaded content stays on screen while it is refreshed, and when a refresh fails, so the spinner and error
+ * are only shown when there is nothing else to show. The same holds for a list loaded a page at a time,
+ * which shows its pages once the first has loaded, until the pages are cleared.
+ */
+public class Reducer implements BiFunction<ViewState, Event, ViewState> {
+
+  @NonNull
+  @Override
+  public ViewState apply(@NonNull ViewState state, @NonNull Event event) {
+    if (event instanceof Event.Refresh) {
+      return hasContent(state) ? state : ViewState.Loading.create();
+    }
+
+    if (event instanceof Event.Loaded) {
+      Event.Loaded loaded = (Event.Loaded) event;
+      if (loaded.getAnimals().isEmpty()) {
+        return ViewState.Empty.create(R.string.empty_message);
+      }
+      return ViewState.Loaded.create(loaded.getAnimals());
+    }
+
+    if (event instanceof Event.PageLoaded) {
+      Page page = ((Event.PageLoaded) event).getPage();
+      if (page.getCursor() == 0 && page.getAnimals().isEmpty()) {
+        return ViewState.Empty.create(R.string.empty_message);
+      }
+      return ViewState.Paged.create();
+    }
+
+    if (event instanceof Event.PagesCleared) {
+      return ViewState.Loading.create();
+    }
+
+    if (event instanceof Event.Failed) {
+      return hasContent(state) ? state : ViewState.Error.create(R.string.error_message);
+    }
+
+    return state;
+  }
+
+  private static boolean hasContent(@NonNull ViewState state) {
+    return state instanceof ViewState.Loaded || state instanceof ViewState.Paged;
+  }
+
+}
@@ -52,6 +52,24 @@ public class ViewState {
 
   }
 
+  /**
+   * The list is shown a page at a time; the animals are held by the paging adapter rather than the state.
+   */
+  public static class Paged extends ViewState {
+
+    private static final Paged instance = new Paged();
+
+    @Override
+    public String toString() {
+      return "Paged{}";
+    }
+
+    public static Paged create() {
+      return instance;
+    }
+
+  }
+
   public static class Loading extends ViewState {
 
     private static final Loading instance = new Loading();
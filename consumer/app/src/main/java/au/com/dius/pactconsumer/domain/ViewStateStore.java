@@ -0,0 +1,182 @@
+package au.com.dius.pactconsumer.domain;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.joda.time.DateTime;
+
+import au.com.dius.pactconsumer.data.Repository;
+import au.com.dius.pactconsumer.data.ResponseSnapshot;
+import au.com.dius.pactconsumer.data.model.Page;
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import au.com.dius.pactconsumer.util.Histogram;
+import au.com.dius.pactconsumer.util.Logger;
+import au.com.dius.pactconsumer.util.Metrics;
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.subjects.BehaviorSubject;
+import io.reactivex.subjects.Subject;
+
+/**
+ * Loads animals and holds the resulting view state independently of any view, so a load keeps running
+ * while the activity is recreated and the new view is shown the latest state straight away.
+ * <p>
+ * Loading is a stream of {@link Event}s folded into view states by the {@link Reducer}. A list shown a page at
+ * a time is loaded through {@link #fetchPage} instead, and each page's outcome is folded in the same way.
+ */
+public class ViewStateStore {
+
+  private static final String TAG = ViewStateStore.class.getSimpleName();
+
+  private final Repository repository;
+
+  @Nullable
+  private final ResponseSnapshot snapshot;
+
+  private final Logger logger;
+
+  private final Scheduler scheduler;
+
+  private final Reducer reducer = new Reducer();
+
+  private final Histogram reduceTime;
+
+  private final BehaviorSubject<ViewState> states = BehaviorSubject.createDefault(ViewState.Loading.create());
+
+  private final Subject<ViewState> serializedStates = states.toSerialized();
+
+  private Disposable loading = Disposables.disposed();
+
+  public ViewStateStore(@NonNull Repository repository,
+                        @Nullable ResponseSnapshot snapshot,
+                        @NonNull Logger logger,
+                        @NonNull Scheduler scheduler) {
+    this(repository, snapshot, logger, new Metrics(), scheduler);
+  }
+
+  /**
+   * @param snapshot  when set, its animals are shown while the network request is in flight, and replaced
+   *                  with the network result. A failed request then leaves them on screen.
+   * @param metrics   records the time taken to reduce each event
+   * @param scheduler runs the load
+   */
+  public ViewStateStore(@NonNull Repository repository,
+                        @Nullable ResponseSnapshot snapshot,
+                        @NonNull Logger logger,
+                        @NonNull Metrics metrics,
+                        @NonNull Scheduler scheduler) {
+    this.repository = repository;
+    this.snapshot = snapshot;
+    this.logger = logger;
+    this.reduceTime = metrics.histogram(Metrics.REDUCE);
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * @return the latest view state followed by every distinct state after it
+   */
+  @NonNull
+  public Observable<ViewState> getViewStates() {
+    return serializedStates.distinctUntilChanged();
+  }
+
+  /**
+   * Starts loading, unless a load is already in flight.
+   */
+  @MainThread
+  public void refresh() {
+    if (!loading.isDisposed()) {
+      return;
+    }
+
+    loading = getEvents()
+        .scan(states.getValue(), this::reduce)
+        .skip(1)
+        .subscribeOn(scheduler)
+        .subscribe(serializedStates::onNext, this::onLoadFailed);
+  }
+
+  public boolean isLoading() {
+    return !loading.isDisposed();
+  }
+
+  /**
+   * Fetches a page of a list shown a page at a time. The caller keeps the pages; the store only folds in
+   * whether they loaded.
+   */
+  @NonNull
+  public Single<Page> fetchPage(@NonNull DateTime dateTime, int cursor, int limit) {
+    return repository.fetchPage(dateTime, cursor, limit)
+        .doOnSuccess(page -> dispatch(Event.PageLoaded.create(page)))
+        .doOnError(error -> {
+          logger.e(TAG, "Error loading page", error);
+          dispatch(Event.Failed.create(error));
+        });
+  }
+
+  /**
+   * Forgets that pages were shown, once the list holding them is torn down, and releases what the
+   * repository kept open to read the next page.
+   */
+  @MainThread
+  public void clearPages() {
+    repository.releasePages();
+    dispatch(Event.PagesCleared.create());
+  }
+
+  private synchronized void dispatch(@NonNull Event event) {
+    serializedStates.onNext(reduce(states.getValue(), event));
+  }
+
+  private ViewState reduce(@NonNull ViewState state, @NonNull Event event) {
+    long start = Histogram.start();
+    ViewState next = reducer.apply(state, event);
+    reduceTime.recordSince(start);
+    return next;
+  }
+
+  /**
+   * Failed responses are already reduced to events, so this only sees errors from the store itself, such as
+   * a snapshot that could not be read. The load is treated as failed so the view does not wait on it.
+   */
+  private void onLoadFailed(@NonNull Throwable error) {
+    logger.e(TAG, "Error loading view state", error);
+    serializedStates.onNext(reducer.apply(states.getValue(), Event.Failed.create(error)));
+  }
+
+  private Observable<Event> getEvents() {
+    return Observable.<Event>just(Event.Refresh.create())
+        .concatWith(getSnapshotEvents())
+        .concatWith(getResponseEvents());
+  }
+
+  private Observable<Event> getSnapshotEvents() {
+    if (snapshot == null) {
+      return Observable.empty();
+    }
+
+    return snapshot.load()
+        .map(ServiceResponse::getAnimals)
+        .filter(animals -> !animals.isEmpty())
+        .<Event>map(Event.Loaded::create)
+        .toObservable();
+  }
+
+  private Observable<Event> getResponseEvents() {
+    return Observable.defer(() -> repository.fetchResponse(DateTime.now())
+        .doOnSuccess(response -> {
+          if (snapshot != null) {
+            snapshot.save(response);
+          }
+        })
+        .<Event>map(response -> Event.Loaded.create(response.getAnimals()))
+        .doOnError(error -> logger.e(TAG, "Error loading service response", error))
+        .onErrorReturn(Event.Failed::create)
+        .toObservable());
+  }
+
+}
@@ -0,0 +1,202 @@
+package au.com.dius.pactconsumer.presentation;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.support.v7.util.DiffUtil;
+import android.support.v7.util.ListUpdateCallback;
+
+import java.util.Collections;
+import java.util.List;
+
+import au.com.dius.pactconsumer.data.model.Animal;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+
+/**
+ * Holds the animals shown by an adapter and moves it to new lists with the minimal set of updates.
+ * <p>
+ * The common prefix and suffix of the two lists are skipped, which is cheap since decoded animals are
+ * interned, and only the part in between is diffed, on {@code diffScheduler}. The updates are dispatched on
+ * {@code mainScheduler}. A diff that finishes after a newer list was submitted is dropped.
+ */
+@MainThread
+public class AnimalListDiffer {
+
+  private final ListUpdateCallback callback;
+
+  private final Scheduler diffScheduler;
+
+  private final Scheduler mainScheduler;
+
+  private List<Animal> animals = Collections.emptyList();
+
+  private int generation;
+
+  private Disposable pending = Disposables.disposed();
+
+  public AnimalListDiffer(@NonNull ListUpdateCallback callback,
+                          @NonNull Scheduler diffScheduler,
+                          @NonNull Scheduler mainScheduler) {
+    this.callback = callback;
+    this.diffScheduler = diffScheduler;
+    this.mainScheduler = mainScheduler;
+  }
+
+  @NonNull
+  public List<Animal> getAnimals() {
+    return animals;
+  }
+
+  public void submit(@NonNull List<Animal> next) {
+    int submitted = ++generation;
+    pending.dispose();
+
+    List<Animal> previous = animals;
+    if (previous == next) {
+      return;
+    }
+
+    if (previous.isEmpty() || next.isEmpty()) {
+      animals = next;
+      if (!previous.isEmpty()) {
+        callback.onRemoved(0, previous.size());
+      }
+      if (!next.isEmpty()) {
+        callback.onInserted(0, next.size());
+      }
+      return;
+    }
+
+    pending = Single.fromCallable(() -> diff(previous, next))
+        .subscribeOn(diffScheduler)
+        .observeOn(mainScheduler)
+        .subscribe(update -> {
+          if (submitted != generation) {
+            return;
+          }
+          animals = next;
+          update.dispatchTo(callback);
+        });
+  }
+
+  /**
+   * Drops any diff still in flight.
+   */
+  public void clear() {
+    generation++;
+    pending.dispose();
+  }
+
+  @NonNull
+  @WorkerThread
+  static Update diff(@NonNull List<Animal> previous, @NonNull List<Animal> next) {
+    int start = 0;
+    int previousEnd = previous.size();
+    int nextEnd = next.size();
+    while (start < previousEnd && start < nextEnd && previous.get(start).equals(next.get(start))) {
+      start++;
+    }
+    while (previousEnd > start && nextEnd > start && previous.get(previousEnd - 1).equals(next.get(nextEnd - 1))) {
+      previousEnd--;
+      nextEnd--;
+    }
+
+    if (start == previousEnd && start == nextEnd) {
+      return new Update(start, null);
+    }
+
+    List<Animal> oldItems = previous.subList(start, previousEnd);
+    List<Animal> newItems = next.subList(start, nextEnd);
+    return new Update(start, DiffUtil.calculateDiff(new Callback(oldItems, newItems), true));
+  }
+
+  static final class Update {
+
+    private final int offset;
+
+    @Nullable
+    private final DiffUtil.DiffResult result;
+
+    Update(int offset, @Nullable DiffUtil.DiffResult result) {
+      this.offset = offset;
+      this.result = result;
+    }
+
+    void dispatchTo(@NonNull ListUpdateCallback callback) {
+      if (result != null) {
+        result.dispatchUpdatesTo(new OffsetCallback(offset, callback));
+      }
+    }
+  }
+
+  private static final class Callback extends DiffUtil.Callback {
+
+    private final List<Animal> oldItems;
+    private final List<Animal> newItems;
+
+    Callback(List<Animal> oldItems, List<Animal> newItems) {
+      this.oldItems = oldItems;
+      this.newItems = newItems;
+    }
+
+    @Override
+    public int getOldListSize() {
+      return oldItems.size();
+    }
+
+    @Override
+    public int getNewListSize() {
+      return newItems.size();
+    }
+
+    @Override
+    public boolean areItemsTheSame(int oldPosition, int newPosition) {
+      return equal(oldItems.get(oldPosition).getName(), newItems.get(newPosition).getName());
+    }
+
+    @Override
+    public boolean areContentsTheSame(int oldPosition, int newPosition) {
+      return oldItems.get(oldPosition).equals(newItems.get(newPosition));
+    }
+
+    private static boolean equal(@Nullable String a, @Nullable String b) {
+      return a == null ? b == null : a.equals(b);
+    }
+  }
+
+  private static final class OffsetCallback implements ListUpdateCallback {
+
+    private final int offset;
+    private final ListUpdateCallback callback;
+
+    OffsetCallback(int offset, ListUpdateCallback callback) {
+      this.offset = offset;
+      this.callback = callback;
+    }
+
+    @Override
+    public void onInserted(int position, int count) {
+      callback.onInserted(position + offset, count);
+    }
+
+    @Override
+    public void onRemoved(int position, int count) {
+      callback.onRemoved(position + offset, count);
+    }
+
+    @Override
+    public void onMoved(int fromPosition, int toPosition) {
+      callback.onMoved(fromPosition + offset, toPosition + offset);
+    }
+
+    @Override
+    public void onChanged(int position, int count, Object payload) {
+      callback.onChanged(position + offset, count, payload);
+    }
+  }
+
+}
@@ -1,7 +1,8 @@
 package au.com.dius.pactconsumer.presentation;
 
-import android.content.Context;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.util.ListUpdateCallback;
 import android.support.v7.widget.RecyclerView;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -13,32 +14,77 @@ import java.util.List;
 
 import au.com.dius.pactconsumer.R;
 import au.com.dius.pactconsumer.data.model.Animal;
+import io.reactivex.Scheduler;
 
+/**
+ * Shows a list of animals that is replaced in place with {@link #setAnimals(List)}, so rows that did not
+ * change keep their view holders.
+ */
 public class AnimalsAdapter extends RecyclerView.Adapter<AnimalsAdapter.ViewHolder> {
 
-  private final List<Animal> animals;
+  private final AnimalListDiffer differ;
 
-  public AnimalsAdapter(@NonNull List<Animal> animals) {
-    this.animals = animals;
+  private final DrawableCache drawables;
+
+  private final BindMetrics metrics;
+
+  public AnimalsAdapter(@NonNull DrawableCache drawables,
+                        @NonNull BindMetrics metrics,
+                        @NonNull Scheduler diffScheduler,
+                        @NonNull Scheduler mainScheduler) {
+    this.differ = new AnimalListDiffer(new UpdateCallback(), diffScheduler, mainScheduler);
+    this.drawables = drawables;
+    this.metrics = metrics;
+  }
+
+  public void setAnimals(@NonNull List<Animal> animals) {
+    differ.submit(animals);
+  }
+
+  /**
+   * Drops any update still being computed.
+   */
+  public void clear() {
+    differ.clear();
   }
 
   @Override
   public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
-    return new ViewHolder(LayoutInflater.from(parent.getContext()).inflate(R.layout.layout_animal, parent, false));
+    return new ViewHolder(LayoutInflater.from(parent.getContext()).inflate(R.layout.layout_animal, parent, false),
+        drawables, metrics);
   }
 
   @Override
   public void onBindViewHolder(ViewHolder holder, int position) {
-    Animal animal = animals.get(position);
-    holder.titleView.setText(animal.getName());
-    Context context = holder.itemView.getContext();
-    int id = holder.itemView.getContext().getResources().getIdentifier(animal.getType(), "drawable", context.getPackageName());
-    holder.imageView.setImageDrawable(context.getResources().getDrawable(id, null));
+    holder.bind(differ.getAnimals().get(position));
   }
 
   @Override
   public int getItemCount() {
-    return animals.size();
+    return differ.getAnimals().size();
+  }
+
+  private class UpdateCallback implements ListUpdateCallback {
+
+    @Override
+    public void onInserted(int position, int count) {
+      notifyItemRangeInserted(position, count);
+    }
+
+    @Override
+    public void onRemoved(int position, int count) {
+      notifyItemRangeRemoved(position, count);
+    }
+
+    @Override
+    public void onMoved(int fromPosition, int toPosition) {
+      notifyItemMoved(fromPosition, toPosition);
+    }
+
+    @Override
+    public void onChanged(int position, int count, Object payload) {
+      notifyItemRangeChanged(position, count, payload);
+    }
   }
 
   public static class ViewHolder extends RecyclerView.ViewHolder {
@@ -46,10 +92,31 @@ public class AnimalsAdapter extends RecyclerView.Adapter<AnimalsAdapter.ViewHold
     public ImageView imageView;
     public TextView titleView;
 
-    public ViewHolder(View itemView) {
+    private final DrawableCache drawables;
+    private final BindMetrics metrics;
+
+    public ViewHolder(View itemView, @NonNull DrawableCache drawables, @NonNull BindMetrics metrics) {
       super(itemView);
       imageView = (ImageView) itemView.findViewById(R.id.img_animal);
       titleView = (TextView) itemView.findViewById(R.id.txt_title);
+      this.drawables = drawables;
+      this.metrics = metrics;
+    }
+
+    /**
+     * Binds the animal, or clears the row when it has not been loaded yet.
+     */
+    public void bind(@Nullable Animal animal) {
+      if (animal == null) {
+        titleView.setText(null);
+        imageView.setImageDrawable(null);
+        return;
+      }
+
+      long start = System.nanoTime();
+      titleView.setText(animal.getName());
+      imageView.setImageDrawable(drawables.get(animal.getType()));
+      metrics.record(System.nanoTime() - start);
     }
 
   }
@@ -0,0 +1,48 @@
+package au.com.dius.pactconsumer.presentation;
+
+import android.support.annotation.MainThread;
+
+/**
+ * Records how long binding each row takes.
+ */
+@MainThread
+public class BindMetrics {
+
+  private long count;
+  private long totalNanos;
+  private long maxNanos;
+
+  public void record(long nanos) {
+    count++;
+    totalNanos += nanos;
+    maxNanos = Math.max(maxNanos, nanos);
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getMeanNanos() {
+    return count == 0 ? 0 : totalNanos / count;
+  }
+
+  public long getMaxNanos() {
+    return maxNanos;
+  }
+
+  public void reset() {
+    count = 0;
+    totalNanos = 0;
+    maxNanos = 0;
+  }
+
+  @Override
+  public String toString() {
+    return "BindMetrics{" +
+        "count=" + count +
+        ", meanMicros=" + getMeanNanos() / 1000 +
+        ", maxMicros=" + maxNanos / 1000 +
+        '}';
+  }
+
+}
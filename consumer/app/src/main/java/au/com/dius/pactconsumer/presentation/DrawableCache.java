@@ -0,0 +1,99 @@
+package au.com.dius.pactconsumer.presentation;
+
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.DrawableRes;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import au.com.dius.pactconsumer.R;
+
+/**
+ * Resolves animal image types to drawables for binding rows.
+ * <p>
+ * Each type is looked up once, from the known types or failing that with {@link Resources#getIdentifier},
+ * and unknown types fall back to a placeholder. Each drawable is inflated once; later rows get a new
+ * drawable from its {@link Drawable.ConstantState}, so they share the same underlying bitmap or vector.
+ */
+@MainThread
+public class DrawableCache {
+
+  private static final String DRAWABLE = "drawable";
+
+  private final Resources resources;
+
+  private final String packageName;
+
+  @DrawableRes
+  private final int placeholder;
+
+  private final Map<String, Integer> ids = new HashMap<>();
+
+  private final Map<Integer, Drawable.ConstantState> states = new HashMap<>();
+
+  private int lookups;
+  private int inflations;
+
+  public DrawableCache(@NonNull Resources resources,
+                       @NonNull String packageName,
+                       @DrawableRes int placeholder) {
+    this.resources = resources;
+    this.packageName = packageName;
+    this.placeholder = placeholder;
+    ids.put("dog", R.drawable.dog);
+    ids.put("cat", R.drawable.cat);
+    ids.put("bird", R.drawable.bird);
+  }
+
+  @NonNull
+  public Drawable get(@Nullable String type) {
+    int id = resolve(type);
+    Drawable.ConstantState state = states.get(id);
+    if (state != null) {
+      return state.newDrawable(resources);
+    }
+
+    inflations++;
+    Drawable drawable = resources.getDrawable(id, null);
+    state = drawable.getConstantState();
+    if (state != null) {
+      states.put(id, state);
+    }
+    return drawable;
+  }
+
+  @DrawableRes
+  int resolve(@Nullable String type) {
+    if (type == null) {
+      return placeholder;
+    }
+
+    Integer id = ids.get(type);
+    if (id == null) {
+      lookups++;
+      int found = resources.getIdentifier(type, DRAWABLE, packageName);
+      id = found != 0 ? found : placeholder;
+      ids.put(type, id);
+    }
+    return id;
+  }
+
+  /**
+   * @return how many types had to be looked up by name
+   */
+  public int getLookupCount() {
+    return lookups;
+  }
+
+  /**
+   * @return how many drawables were inflated rather than created from a shared constant state
+   */
+  public int getInflationCount() {
+    return inflations;
+  }
+
+}
@@ -11,26 +11,56 @@ import android.widget.TextView;
 
 import javax.inject.Inject;
 
+import org.joda.time.DateTime;
+
+import au.com.dius.pactconsumer.BuildConfig;
 import au.com.dius.pactconsumer.R;
 import au.com.dius.pactconsumer.app.PactActivity;
 import au.com.dius.pactconsumer.app.di.ApplicationComponent;
-import au.com.dius.pactconsumer.data.Repository;
+import au.com.dius.pactconsumer.data.network.TransferMetrics;
 import au.com.dius.pactconsumer.domain.Contract;
 import au.com.dius.pactconsumer.domain.Presenter;
 import au.com.dius.pactconsumer.domain.ViewState;
+import au.com.dius.pactconsumer.domain.ViewStateStore;
+import au.com.dius.pactconsumer.util.Histogram;
 import au.com.dius.pactconsumer.util.Logger;
+import au.com.dius.pactconsumer.util.Metrics;
 import au.com.dius.pactconsumer.util.RxBinder;
+import au.com.dius.pactconsumer.util.SchedulerProvider;
+import au.com.dius.pactconsumer.util.StartupTrace;
 
 public class HomeActivity extends PactActivity implements Contract.View {
 
+  private static final int PREFETCH_DISTANCE = 20;
+  private static final int MAX_PAGES = 8;
+
   @Inject
-  Repository repository;
+  ViewStateStore store;
 
   @Inject
   Logger logger;
 
+  @Inject
+  SchedulerProvider schedulers;
+
+  @Inject
+  Metrics metrics;
+
+  @Inject
+  TransferMetrics transferMetrics;
+
+  private Histogram renderTime;
+
   private Presenter presenter;
 
+  private DrawableCache drawables;
+
+  private AnimalsAdapter adapter;
+
+  private PagingAnimalsAdapter pagingAdapter;
+
+  private final BindMetrics bindMetrics = new BindMetrics();
+
   private View loadingView;
   private TextView emptyView;
   private TextView errorView;
@@ -45,6 +75,7 @@ public class HomeActivity extends PactActivity implements Contract.View {
 
     initialiseView();
     initialisePresenter(savedInstanceState);
+    StartupTrace.mark(logger, "HomeActivity.onCreate");
   }
 
   private void initialiseView() {
@@ -53,10 +84,26 @@ public class HomeActivity extends PactActivity implements Contract.View {
     errorView = (TextView) findViewById(R.id.txt_error);
     recyclerView = (RecyclerView) findViewById(R.id.view_recycler);
     recyclerView.setLayoutManager(new LinearLayoutManager(this));
+    drawables = new DrawableCache(getResources(), getPackageName(), R.drawable.placeholder);
+    adapter = new AnimalsAdapter(drawables, bindMetrics, schedulers.compute(), schedulers.main());
+    recyclerView.setAdapter(adapter);
+    if (isPaged()) {
+      DateTime validDate = DateTime.now();
+      pagingAdapter = new PagingAnimalsAdapter(
+          (cursor, limit) -> presenter.loadPage(validDate, cursor, limit),
+          new RxBinder(schedulers, logger),
+          drawables,
+          bindMetrics,
+          BuildConfig.PAGE_SIZE,
+          PREFETCH_DISTANCE,
+          MAX_PAGES);
+      recyclerView.setAdapter(pagingAdapter);
+    }
+    renderTime = metrics.histogram(Metrics.RENDER);
   }
 
   private void initialisePresenter(@Nullable Bundle savedInstanceState) {
-    presenter = new Presenter(repository, this, new RxBinder(), logger);
+    presenter = new Presenter(store, this, new RxBinder(schedulers, logger), logger, schedulers.main());
   }
 
   @Override
@@ -64,29 +111,68 @@ public class HomeActivity extends PactActivity implements Contract.View {
     component.inject(this);
   }
 
+  @Override
+  protected void onDestroy() {
+    super.onDestroy();
+    adapter.clear();
+    if (isPaged()) {
+      pagingAdapter.stop();
+      presenter.clearPages();
+    }
+  }
+
   @Override
   protected void onResume() {
     super.onResume();
-    presenter.onStart();
+    if (isPaged()) {
+      presenter.onStartPaging();
+      pagingAdapter.start();
+    } else {
+      presenter.onStart();
+    }
   }
 
   @Override
   protected void onPause() {
     super.onPause();
+    if (isPaged()) {
+      pagingAdapter.stop();
+    }
     presenter.onStop();
+    if (BuildConfig.DEBUG) {
+      logMetrics();
+    }
+  }
+
+  private void logMetrics() {
+    logger.d(HomeActivity.class.getSimpleName(), bindMetrics + ", drawable lookups=" + drawables.getLookupCount()
+        + ", inflations=" + drawables.getInflationCount());
+    metrics.log(logger);
+    logger.d(HomeActivity.class.getSimpleName(), transferMetrics.toString());
   }
 
   @Override
   public void setViewState(@NonNull ViewState viewState) {
+    long start = Histogram.start();
     if (viewState instanceof ViewState.Loading) {
       setLoading((ViewState.Loading) viewState);
     } else if (viewState instanceof ViewState.Loaded) {
       setLoaded((ViewState.Loaded) viewState);
+    } else if (viewState instanceof ViewState.Paged) {
+      setPaged((ViewState.Paged) viewState);
     } else if (viewState instanceof ViewState.Empty) {
       setEmpty((ViewState.Empty) viewState);
     } else if (viewState instanceof ViewState.Error) {
       setError((ViewState.Error) viewState);
     }
+    renderTime.recordSince(start);
+  }
+
+  /**
+   * Large catalogs are shown a page at a time, through the presenter, when the build sets a page size.
+   */
+  private boolean isPaged() {
+    return BuildConfig.PAGE_SIZE > 0;
   }
 
   private void setLoading(@NonNull ViewState.Loading viewState) {
@@ -97,7 +183,12 @@ public class HomeActivity extends PactActivity implements Contract.View {
   private void setLoaded(@NonNull ViewState.Loaded viewState) {
     hideViews();
     recyclerView.setVisibility(View.VISIBLE);
-    recyclerView.setAdapter(new AnimalsAdapter(viewState.getAnimals()));
+    adapter.setAnimals(viewState.getAnimals());
+  }
+
+  private void setPaged(@NonNull ViewState.Paged viewState) {
+    hideViews();
+    recyclerView.setVisibility(View.VISIBLE);
   }
 
   private void setEmpty(@NonNull ViewState.Empty viewState) {
@@ -0,0 +1,108 @@
+package au.com.dius.pactconsumer.presentation;
+
+import android.support.annotation.NonNull;
+import android.support.v7.widget.RecyclerView;
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+
+import au.com.dius.pactconsumer.R;
+import au.com.dius.pactconsumer.data.model.Page;
+import au.com.dius.pactconsumer.domain.PagedAnimals;
+import au.com.dius.pactconsumer.util.RxBinder;
+import io.reactivex.Single;
+
+/**
+ * Shows a long animal list a page at a time. The next page is requested once a row within
+ * {@code prefetchDistance} of the end is bound, and pages far from the bound row are dropped.
+ * <p>
+ * Whether the list is loading, empty or failed is not decided here: the {@code loader} reports each page's
+ * outcome to the view state store, and the presenter renders it.
+ */
+public class PagingAnimalsAdapter extends RecyclerView.Adapter<AnimalsAdapter.ViewHolder> {
+
+  public interface PageLoader {
+    @NonNull
+    Single<Page> loadPage(int cursor, int limit);
+  }
+
+  private final PageLoader loader;
+
+  private final RxBinder binder;
+
+  private final DrawableCache drawables;
+
+  private final BindMetrics metrics;
+
+  private final PagedAnimals pagedAnimals;
+
+  private final int prefetchDistance;
+
+  private int lastBoundPosition;
+
+  public PagingAnimalsAdapter(@NonNull PageLoader loader,
+                              @NonNull RxBinder binder,
+                              @NonNull DrawableCache drawables,
+                              @NonNull BindMetrics metrics,
+                              int pageSize,
+                              int prefetchDistance,
+                              int maxPages) {
+    this.loader = loader;
+    this.binder = binder;
+    this.drawables = drawables;
+    this.metrics = metrics;
+    this.pagedAnimals = new PagedAnimals(pageSize, maxPages);
+    this.prefetchDistance = prefetchDistance;
+  }
+
+  public void start() {
+    requestPages(0);
+  }
+
+  public void stop() {
+    binder.clear();
+  }
+
+  @Override
+  public AnimalsAdapter.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+    return new AnimalsAdapter.ViewHolder(LayoutInflater.from(parent.getContext()).inflate(R.layout.layout_animal, parent, false),
+        drawables, metrics);
+  }
+
+  @Override
+  public void onBindViewHolder(AnimalsAdapter.ViewHolder holder, int position) {
+    lastBoundPosition = position;
+    holder.bind(pagedAnimals.get(position));
+    requestPages(position);
+  }
+
+  @Override
+  public int getItemCount() {
+    return pagedAnimals.size();
+  }
+
+  private void requestPages(int position) {
+    for (int cursor : pagedAnimals.cursorsToLoad(position, prefetchDistance)) {
+      binder.bind(loader.loadPage(cursor, pagedAnimals.getPageSize()).toObservable(),
+          this::onPageLoaded,
+          exception -> pagedAnimals.onPageFailed(cursor),
+          () -> { });
+    }
+  }
+
+  private void onPageLoaded(@NonNull Page page) {
+    int before = pagedAnimals.size();
+    int added = pagedAnimals.onPageLoaded(page);
+    if (added > 0) {
+      notifyItemRangeInserted(before, added);
+    }
+    int reloaded = Math.min(page.getAnimals().size(), before - page.getCursor());
+    if (reloaded > 0) {
+      notifyItemRangeChanged(page.getCursor(), reloaded);
+    }
+
+    for (int cursor : pagedAnimals.trim(lastBoundPosition)) {
+      notifyItemRangeChanged(cursor, Math.min(pagedAnimals.getPageSize(), pagedAnimals.size() - cursor));
+    }
+  }
+
+}
@@ -0,0 +1,9 @@
+package au.com.dius.pactconsumer.util;
+
+public interface Clock {
+
+  Clock SYSTEM = System::currentTimeMillis;
+
+  long currentTimeMillis();
+
+}
@@ -6,7 +6,6 @@ import android.support.annotation.Nullable;
 import org.joda.time.DateTime;
 
 import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
 
 public final class DateHelper {
 
@@ -17,15 +16,15 @@ public final class DateHelper {
     if (dateTime == null) {
       return null;
     }
-    return URLEncoder.encode(toString(dateTime), "UTF-8");
+    return IsoDateTimeCodec.encode(dateTime);
   }
 
   public static DateTime parse(@NonNull String value) {
-    return DateTime.parse(value);
+    return IsoDateTimeCodec.parse(value);
   }
 
   public static String toString(@NonNull DateTime value) {
-    return value.toString();
+    return IsoDateTimeCodec.format(value);
   }
 
 }
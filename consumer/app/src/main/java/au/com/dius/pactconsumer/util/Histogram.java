@@ -0,0 +1,153 @@
+package au.com.dius.pactconsumer.util;
+
+import android.support.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts durations into a fixed layout of power-of-two microsecond buckets: bucket 0 holds durations under
+ * 1us, bucket {@code i} those in {@code [2^(i-1), 2^i)}us, and the last bucket everything longer.
+ * <p>
+ * Recording takes a few atomic increments and does not allocate, so it can be left on in hot paths.
+ */
+public class Histogram {
+
+  public static final int BUCKETS = 32;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong sumNanos = new AtomicLong();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  /**
+   * @return a start time to pass to {@link #recordSince(long)}
+   */
+  public static long start() {
+    return System.nanoTime();
+  }
+
+  public void recordSince(long startNanos) {
+    record(System.nanoTime() - startNanos);
+  }
+
+  public void record(long nanos) {
+    if (nanos < 0) {
+      nanos = 0;
+    }
+    buckets.incrementAndGet(bucketOf(nanos / 1000));
+    count.incrementAndGet();
+    sumNanos.addAndGet(nanos);
+
+    long max = maxNanos.get();
+    while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+      max = maxNanos.get();
+    }
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * Copies the current counts. Recording may carry on while the copy is made, so the total of the buckets
+   * can be slightly out of step with the count.
+   */
+  @NonNull
+  public Snapshot snapshot() {
+    long[] counts = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets.get(i);
+    }
+    return new Snapshot(counts, count.get(), sumNanos.get(), maxNanos.get());
+  }
+
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets.set(i, 0);
+    }
+    count.set(0);
+    sumNanos.set(0);
+    maxNanos.set(0);
+  }
+
+  static int bucketOf(long micros) {
+    return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+  }
+
+  /**
+   * @return the exclusive upper bound of the bucket in microseconds, or {@link Long#MAX_VALUE} for the last one
+   */
+  static long upperBoundMicros(int bucket) {
+    return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+  }
+
+  public static class Snapshot {
+
+    private final long[] buckets;
+    private final long count;
+    private final long sumNanos;
+    private final long maxNanos;
+
+    Snapshot(@NonNull long[] buckets, long count, long sumNanos, long maxNanos) {
+      this.buckets = buckets;
+      this.count = count;
+      this.sumNanos = sumNanos;
+      this.maxNanos = maxNanos;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getBucketCount(int bucket) {
+      return buckets[bucket];
+    }
+
+    public long getMeanNanos() {
+      return count == 0 ? 0 : sumNanos / count;
+    }
+
+    public long getMaxNanos() {
+      return maxNanos;
+    }
+
+    /**
+     * @return the upper bound, in microseconds, of the bucket holding the given percentile, or of the
+     * maximum if that is lower
+     */
+    public long percentileMicros(double percentile) {
+      long total = 0;
+      for (long bucket : buckets) {
+        total += bucket;
+      }
+      if (total == 0) {
+        return 0;
+      }
+
+      long rank = (long) Math.ceil(percentile * total);
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += buckets[i];
+        if (seen >= rank && seen > 0) {
+          return Math.min(upperBoundMicros(i), maxNanos / 1000 + 1);
+        }
+      }
+      return maxNanos / 1000 + 1;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.US, "count=%d mean=%.2fms p50<%.2fms p95<%.2fms p99<%.2fms max=%.2fms",
+          count,
+          getMeanNanos() / 1e6,
+          percentileMicros(0.5) / 1e3,
+          percentileMicros(0.95) / 1e3,
+          percentileMicros(0.99) / 1e3,
+          maxNanos / 1e6);
+    }
+  }
+
+}
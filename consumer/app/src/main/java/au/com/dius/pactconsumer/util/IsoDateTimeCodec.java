@@ -0,0 +1,326 @@
+package au.com.dius.pactconsumer.util;
+
+import android.support.annotation.NonNull;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.chrono.ISOChronology;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+
+/**
+ * Formats and parses ISO-8601 date times in the {@code yyyy-MM-dd'T'HH:mm:ss.SSSZZ} form used on the wire,
+ * producing the same results as Joda's {@link DateTime#toString()} and {@link DateTime#parse(String)}.
+ * <p>
+ * The fixed format is handled with plain arithmetic. Anything else (other chronologies, years outside
+ * 0000-9999, offsets with seconds, partial dates, missing offsets) falls back to Joda. The last few
+ * formatted and parsed values are kept in small direct-mapped caches.
+ */
+public final class IsoDateTimeCodec {
+
+  private static final int CACHE_SIZE = 32;
+  private static final int CACHE_MASK = CACHE_SIZE - 1;
+
+  private static final long MILLIS_PER_DAY = 86400000L;
+  private static final int MILLIS_PER_MINUTE = 60000;
+
+  private static final String UTF_8 = "UTF-8";
+
+  private static final FormatEntry[] formatCache = new FormatEntry[CACHE_SIZE];
+  private static final ParseEntry[] parseCache = new ParseEntry[CACHE_SIZE];
+
+  private IsoDateTimeCodec() {
+  }
+
+  @NonNull
+  public static String format(@NonNull DateTime value) {
+    return formatEntry(value).text;
+  }
+
+  /**
+   * Formats the value and URL encodes it for use as a query parameter.
+   */
+  @NonNull
+  public static String encode(@NonNull DateTime value) throws UnsupportedEncodingException {
+    FormatEntry entry = formatEntry(value);
+    return entry.encoded != null ? entry.encoded : URLEncoder.encode(entry.text, UTF_8);
+  }
+
+  @NonNull
+  public static DateTime parse(@NonNull CharSequence value) {
+    int hash = mix(value.hashCode());
+    ParseEntry cached = parseCache[hash & CACHE_MASK];
+    if (cached != null && contentEquals(cached.text, value)) {
+      return cached.value;
+    }
+
+    DateTime parsed = parseFixed(value);
+    if (parsed == null) {
+      parsed = DateTime.parse(value.toString());
+    }
+    parseCache[hash & CACHE_MASK] = new ParseEntry(value.toString(), parsed);
+    return parsed;
+  }
+
+  private static FormatEntry formatEntry(@NonNull DateTime value) {
+    long millis = value.getMillis();
+    DateTimeZone zone = value.getZone();
+    int slot = mix((int) (millis ^ (millis >>> 32)) * 31 + zone.hashCode()) & CACHE_MASK;
+
+    FormatEntry cached = formatCache[slot];
+    if (cached != null && cached.millis == millis && cached.zone.equals(zone)) {
+      return cached;
+    }
+
+    FormatEntry entry = formatFixed(value);
+    if (entry == null) {
+      entry = new FormatEntry(millis, zone, value.toString(), null);
+    }
+    formatCache[slot] = entry;
+    return entry;
+  }
+
+  private static FormatEntry formatFixed(@NonNull DateTime value) {
+    if (!(value.getChronology() instanceof ISOChronology)) {
+      return null;
+    }
+
+    long millis = value.getMillis();
+    DateTimeZone zone = value.getZone();
+    int offset = zone.getOffset(millis);
+    if (offset % MILLIS_PER_MINUTE != 0) {
+      return null;
+    }
+
+    long local = millis + offset;
+    long days = local >= 0 ? local / MILLIS_PER_DAY : (local + 1) / MILLIS_PER_DAY - 1;
+    int millisOfDay = (int) (local - days * MILLIS_PER_DAY);
+
+    long z = days + 719468;
+    long era = (z >= 0 ? z : z - 146096) / 146097;
+    long dayOfEra = z - era * 146097;
+    long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    long mp = (5 * dayOfYear + 2) / 153;
+    int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+    int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+    long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+    if (year < 0 || year > 9999) {
+      return null;
+    }
+
+    char[] text = new char[offset == 0 ? 24 : 29];
+    writeDigits(text, 0, (int) year, 4);
+    text[4] = '-';
+    writeDigits(text, 5, month, 2);
+    text[7] = '-';
+    writeDigits(text, 8, day, 2);
+    text[10] = 'T';
+    writeDigits(text, 11, millisOfDay / 3600000, 2);
+    text[13] = ':';
+    writeDigits(text, 14, millisOfDay / 60000 % 60, 2);
+    text[16] = ':';
+    writeDigits(text, 17, millisOfDay / 1000 % 60, 2);
+    text[19] = '.';
+    writeDigits(text, 20, millisOfDay % 1000, 3);
+
+    if (offset == 0) {
+      text[23] = 'Z';
+      String formatted = new String(text);
+      return new FormatEntry(millis, zone, formatted, formatted.replace(":", "%3A"));
+    }
+
+    int offsetMinutes = Math.abs(offset / MILLIS_PER_MINUTE);
+    text[23] = offset < 0 ? '-' : '+';
+    writeDigits(text, 24, offsetMinutes / 60, 2);
+    text[26] = ':';
+    writeDigits(text, 27, offsetMinutes % 60, 2);
+
+    String formatted = new String(text);
+    return new FormatEntry(millis, zone, formatted, formatted.replace(":", "%3A").replace("+", "%2B"));
+  }
+
+  private static void writeDigits(char[] text, int start, int value, int width) {
+    for (int i = start + width - 1; i >= start; i--) {
+      text[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+  }
+
+  /**
+   * @return the parsed date time, or null if the value is not in the fixed format
+   */
+  private static DateTime parseFixed(@NonNull CharSequence value) {
+    int length = value.length();
+    if (length < 20
+        || value.charAt(4) != '-' || value.charAt(7) != '-' || value.charAt(10) != 'T'
+        || value.charAt(13) != ':' || value.charAt(16) != ':') {
+      return null;
+    }
+
+    int year = readDigits(value, 0, 4);
+    int month = readDigits(value, 5, 2);
+    int day = readDigits(value, 8, 2);
+    int hour = readDigits(value, 11, 2);
+    int minute = readDigits(value, 14, 2);
+    int second = readDigits(value, 17, 2);
+    if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+        || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+      return null;
+    }
+
+    int pos = 19;
+    int millis = 0;
+    if (value.charAt(pos) == '.' || value.charAt(pos) == ',') {
+      pos++;
+      int digits = 0;
+      while (pos < length && isDigit(value.charAt(pos))) {
+        if (digits < 3) {
+          millis = millis * 10 + (value.charAt(pos) - '0');
+        }
+        digits++;
+        pos++;
+      }
+      if (digits == 0 || digits > 9) {
+        return null;
+      }
+      for (; digits < 3; digits++) {
+        millis *= 10;
+      }
+    }
+
+    if (pos >= length) {
+      return null;
+    }
+
+    int offset;
+    char sign = value.charAt(pos);
+    if (sign == 'Z' && pos + 1 == length) {
+      offset = 0;
+    } else if (sign == '+' || sign == '-') {
+      offset = parseOffset(value, pos + 1, length);
+      if (offset < 0) {
+        return null;
+      }
+      if (sign == '-') {
+        offset = -offset;
+      }
+    } else {
+      return null;
+    }
+
+    long days = daysFromCivil(year, month, day);
+    long instant = days * MILLIS_PER_DAY + ((hour * 60L + minute) * 60 + second) * 1000 + millis - offset;
+    DateTimeZone zone = offset == 0 ? DateTimeZone.UTC : DateTimeZone.forOffsetMillis(offset);
+    return new DateTime(instant, zone);
+  }
+
+  /**
+   * Parses {@code HH}, {@code HHmm} or {@code HH:mm} running to the end of the value.
+   *
+   * @return the offset in millis, or -1 if malformed
+   */
+  private static int parseOffset(@NonNull CharSequence value, int pos, int length) {
+    int remaining = length - pos;
+    int hours = readDigits(value, pos, 2);
+    int minutes;
+    if (remaining == 2) {
+      minutes = 0;
+    } else if (remaining == 4) {
+      minutes = readDigits(value, pos + 2, 2);
+    } else if (remaining == 5 && value.charAt(pos + 2) == ':') {
+      minutes = readDigits(value, pos + 3, 2);
+    } else {
+      return -1;
+    }
+    if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+      return -1;
+    }
+    return (hours * 60 + minutes) * MILLIS_PER_MINUTE;
+  }
+
+  private static int readDigits(@NonNull CharSequence value, int start, int width) {
+    if (start + width > value.length()) {
+      return -1;
+    }
+    int result = 0;
+    for (int i = start; i < start + width; i++) {
+      char c = value.charAt(i);
+      if (!isDigit(c)) {
+        return -1;
+      }
+      result = result * 10 + (c - '0');
+    }
+    return result;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static int daysInMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        return leap ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+  private static long daysFromCivil(long year, int month, int day) {
+    year -= month <= 2 ? 1 : 0;
+    long era = (year >= 0 ? year : year - 399) / 400;
+    long yearOfEra = year - era * 400;
+    long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+    long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097 + dayOfEra - 719468;
+  }
+
+  private static boolean contentEquals(@NonNull String text, @NonNull CharSequence value) {
+    if (text.length() != value.length()) {
+      return false;
+    }
+    for (int i = 0; i < text.length(); i++) {
+      if (text.charAt(i) != value.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int mix(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  private static final class FormatEntry {
+    final long millis;
+    final DateTimeZone zone;
+    final String text;
+    final String encoded;
+
+    FormatEntry(long millis, DateTimeZone zone, String text, String encoded) {
+      this.millis = millis;
+      this.zone = zone;
+      this.text = text;
+      this.encoded = encoded;
+    }
+  }
+
+  private static final class ParseEntry {
+    final String text;
+    final DateTime value;
+
+    ParseEntry(String text, DateTime value) {
+      this.text = text;
+      this.value = value;
+    }
+  }
+
+}
@@ -0,0 +1,93 @@
+package au.com.dius.pactconsumer.util;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed-size thread pool that queues work instead of adding threads, and reports its queue depth and how
+ * busy its threads are.
+ */
+public class MeteredExecutor extends ThreadPoolExecutor {
+
+  private static final long KEEP_ALIVE_SECONDS = 30;
+
+  private final long createdAt = System.nanoTime();
+
+  private final ThreadLocal<long[]> taskStart = new ThreadLocal<long[]>() {
+    @Override
+    protected long[] initialValue() {
+      return new long[1];
+    }
+  };
+
+  private final AtomicLong busyNanos = new AtomicLong();
+  private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+  public MeteredExecutor(@NonNull String name, int threads) {
+    super(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory(name));
+    allowCoreThreadTimeOut(true);
+  }
+
+  @Override
+  public void execute(@NonNull Runnable command) {
+    super.execute(command);
+    int depth = getQueue().size();
+    int max;
+    do {
+      max = maxQueueDepth.get();
+    } while (depth > max && !maxQueueDepth.compareAndSet(max, depth));
+  }
+
+  @Override
+  protected void beforeExecute(Thread thread, Runnable runnable) {
+    taskStart.get()[0] = System.nanoTime();
+  }
+
+  @Override
+  protected void afterExecute(Runnable runnable, Throwable throwable) {
+    busyNanos.addAndGet(System.nanoTime() - taskStart.get()[0]);
+  }
+
+  public int getQueueDepth() {
+    return getQueue().size();
+  }
+
+  public int getMaxQueueDepth() {
+    return maxQueueDepth.get();
+  }
+
+  /**
+   * @return the share of the pool's thread time, since it was created, spent running tasks
+   */
+  public double getUtilization() {
+    long elapsed = System.nanoTime() - createdAt;
+    return elapsed <= 0 ? 0 : (double) busyNanos.get() / ((double) elapsed * getMaximumPoolSize());
+  }
+
+  @Override
+  public String toString() {
+    return "MeteredExecutor{" +
+        "active=" + getActiveCount() +
+        ", largestPool=" + getLargestPoolSize() +
+        ", queueDepth=" + getQueueDepth() +
+        ", maxQueueDepth=" + getMaxQueueDepth() +
+        ", utilization=" + getUtilization() +
+        '}';
+  }
+
+  private static ThreadFactory threadFactory(@NonNull String name) {
+    AtomicInteger count = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+}
@@ -0,0 +1,85 @@
+package au.com.dius.pactconsumer.util;
+
+import android.support.annotation.NonNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Named latency histograms for the stages of loading and showing animals.
+ * <p>
+ * Look a histogram up once and keep it; recording into it is then allocation free.
+ */
+@Singleton
+public class Metrics {
+
+  private static final String TAG = Metrics.class.getSimpleName();
+
+  public static final String HTTP_CALL = "http.call";
+  public static final String HTTP_DNS = "http.dns";
+  public static final String HTTP_CONNECT = "http.connect";
+  public static final String HTTP_FIRST_BYTE = "http.first_byte";
+  public static final String HTTP_BODY = "http.body";
+  public static final String DECODE = "decode";
+  public static final String REDUCE = "reduce";
+  public static final String RENDER = "render";
+
+  private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+
+  @Inject
+  public Metrics() {
+  }
+
+  @NonNull
+  public synchronized Histogram histogram(@NonNull String name) {
+    Histogram histogram = histograms.get(name);
+    if (histogram == null) {
+      histogram = new Histogram();
+      histograms.put(name, histogram);
+    }
+    return histogram;
+  }
+
+  /**
+   * @return a copy of every histogram, in the order they were first looked up
+   */
+  @NonNull
+  public synchronized Map<String, Histogram.Snapshot> snapshot() {
+    Map<String, Histogram.Snapshot> result = new LinkedHashMap<>();
+    for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().snapshot());
+    }
+    return result;
+  }
+
+  /**
+   * @return one line per histogram that has recorded anything
+   */
+  @NonNull
+  public String export() {
+    StringBuilder builder = new StringBuilder();
+    for (Map.Entry<String, Histogram.Snapshot> entry : snapshot().entrySet()) {
+      if (entry.getValue().getCount() > 0) {
+        builder.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+      }
+    }
+    return builder.toString();
+  }
+
+  public void log(@NonNull Logger logger) {
+    String text = export();
+    if (!text.isEmpty()) {
+      logger.d(TAG, text);
+    }
+  }
+
+  public synchronized void reset() {
+    for (Histogram histogram : histograms.values()) {
+      histogram.reset();
+    }
+  }
+
+}
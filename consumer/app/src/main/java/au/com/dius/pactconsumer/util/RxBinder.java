@@ -1,28 +1,40 @@
 package au.com.dius.pactconsumer.util;
 
 
-import android.util.Log;
+import android.support.annotation.NonNull;
 
 import io.reactivex.Observable;
-import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.exceptions.Exceptions;
 import io.reactivex.functions.Action;
 import io.reactivex.functions.Consumer;
 import io.reactivex.observers.DisposableObserver;
-import io.reactivex.schedulers.Schedulers;
 
 public class RxBinder {
 
+  private static final String TAG = RxBinder.class.getSimpleName();
+
+  private final SchedulerProvider schedulers;
+
+  private final Logger logger;
+
   private CompositeDisposable compositeDisposable = new CompositeDisposable();
 
+  /**
+   * @param logger reports exceptions thrown by the bound callbacks
+   */
+  public RxBinder(@NonNull SchedulerProvider schedulers, @NonNull Logger logger) {
+    this.schedulers = schedulers;
+    this.logger = logger;
+  }
+
   public <T> void bind(Observable<T> observable,
                        Consumer<T> onNext,
                        Consumer<Exception> onError,
                        Action onComplete) {
     compositeDisposable.add(
-        observable.subscribeOn(Schedulers.io())
-            .observeOn(AndroidSchedulers.mainThread())
+        observable.subscribeOn(schedulers.io())
+            .observeOn(schedulers.main())
             .subscribeWith(new DisposableObserver<T>() {
 
               @Override
@@ -30,7 +42,7 @@ public class RxBinder {
                 try {
                   onNext.accept(o);
                 } catch (Exception e) {
-                  Log.e(RxBinder.class.getSimpleName(), "Error calling onNext", e);
+                  logger.e(TAG, "Error calling onNext", e);
                 }
               }
 
@@ -44,7 +56,7 @@ public class RxBinder {
                 try {
                   onError.accept((Exception) thr);
                 } catch (Exception e) {
-                  Log.e(RxBinder.class.getSimpleName(), "Error calling onError", thr);
+                  logger.e(TAG, "Error calling onError", e);
                 }
               }
 
@@ -53,7 +65,7 @@ public class RxBinder {
                 try {
                   onComplete.run();
                 } catch (Exception e) {
-                  Log.e(RxBinder.class.getSimpleName(), "Error calling onComplete", e);
+                  logger.e(TAG, "Error calling onComplete", e);
                 }
               }
             })
@@ -0,0 +1,118 @@
+package au.com.dius.pactconsumer.util;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * The schedulers work is run on: {@link #io()} for blocking network and disk work, {@link #compute()} for
+ * decoding and diffing, and {@link #main()} for the view.
+ */
+public class SchedulerProvider {
+
+  private final Scheduler io;
+  private final Scheduler compute;
+  private final Scheduler main;
+
+  @Nullable
+  private final MeteredExecutor ioExecutor;
+
+  @Nullable
+  private final MeteredExecutor computeExecutor;
+
+  public SchedulerProvider(@NonNull Scheduler io,
+                           @NonNull Scheduler compute,
+                           @NonNull Scheduler main) {
+    this(io, compute, main, null, null);
+  }
+
+  private SchedulerProvider(@NonNull Scheduler io,
+                            @NonNull Scheduler compute,
+                            @NonNull Scheduler main,
+                            @Nullable MeteredExecutor ioExecutor,
+                            @Nullable MeteredExecutor computeExecutor) {
+    this.io = io;
+    this.compute = compute;
+    this.main = main;
+    this.ioExecutor = ioExecutor;
+    this.computeExecutor = computeExecutor;
+  }
+
+  /**
+   * Runs io and compute work on fixed-size pools, so load queues work rather than growing threads.
+   */
+  @NonNull
+  public static SchedulerProvider bounded(int ioThreads, int computeThreads, @NonNull Scheduler main) {
+    MeteredExecutor ioExecutor = new MeteredExecutor("pact-io", ioThreads);
+    MeteredExecutor computeExecutor = new MeteredExecutor("pact-compute", computeThreads);
+    return new SchedulerProvider(
+        Schedulers.from(ioExecutor), Schedulers.from(computeExecutor), main, ioExecutor, computeExecutor);
+  }
+
+  /**
+   * Runs everything on the calling thread, for tests.
+   */
+  @NonNull
+  public static SchedulerProvider trampoline() {
+    Scheduler trampoline = Schedulers.trampoline();
+    return new SchedulerProvider(trampoline, trampoline, trampoline);
+  }
+
+  /**
+   * Runs io work on a virtual thread per task, and compute work on a pool sized to the processors. Only
+   * available on JVMs with virtual threads, for tests and benchmarks.
+   *
+   * @return the provider, or null if virtual threads are not available
+   */
+  @Nullable
+  public static SchedulerProvider virtualThreads(@NonNull Scheduler main) {
+    ExecutorService executor;
+    try {
+      Method factory = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      executor = (ExecutorService) factory.invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+
+    MeteredExecutor computeExecutor = new MeteredExecutor("pact-compute", Runtime.getRuntime().availableProcessors());
+    return new SchedulerProvider(
+        Schedulers.from(executor), Schedulers.from(computeExecutor), main, null, computeExecutor);
+  }
+
+  @NonNull
+  public Scheduler io() {
+    return io;
+  }
+
+  @NonNull
+  public Scheduler compute() {
+    return compute;
+  }
+
+  @NonNull
+  public Scheduler main() {
+    return main;
+  }
+
+  /**
+   * @return the io pool, or null if io work does not run on a metered pool
+   */
+  @Nullable
+  public MeteredExecutor getIoExecutor() {
+    return ioExecutor;
+  }
+
+  /**
+   * @return the compute pool, or null if compute work does not run on a metered pool
+   */
+  @Nullable
+  public MeteredExecutor getComputeExecutor() {
+    return computeExecutor;
+  }
+
+}
@@ -0,0 +1,39 @@
+package au.com.dius.pactconsumer.util;
+
+import android.os.Trace;
+import android.support.annotation.NonNull;
+
+/**
+ * Startup markers, visible both as systrace sections and as log lines with the time since the
+ * application class started initialising. Log lines go through the given {@link Logger}.
+ */
+public final class StartupTrace {
+
+  private static final String TAG = StartupTrace.class.getSimpleName();
+
+  private static final long origin = System.nanoTime();
+
+  private StartupTrace() {
+  }
+
+  /**
+   * Opens a systrace section, which must be closed with {@link #end(Logger, String)} on the same thread.
+   */
+  public static void begin(@NonNull String section) {
+    Trace.beginSection(section);
+  }
+
+  public static void end(@NonNull Logger logger, @NonNull String section) {
+    Trace.endSection();
+    mark(logger, section);
+  }
+
+  public static void mark(@NonNull Logger logger, @NonNull String event) {
+    logger.d(TAG, event + " at " + elapsedMillis() + "ms on " + Thread.currentThread().getName());
+  }
+
+  public static long elapsedMillis() {
+    return (System.nanoTime() - origin) / 1000000;
+  }
+
+}
@@ -0,0 +1,94 @@
+package au.com.dius.pactconsumer.app;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import au.com.dius.pactconsumer.data.CachingRepository;
+import au.com.dius.pactconsumer.data.Repository;
+import au.com.dius.pactconsumer.data.ResponseSnapshot;
+import au.com.dius.pactconsumer.data.model.Animal;
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import au.com.dius.pactconsumer.util.Logger;
+import io.reactivex.Single;
+import io.reactivex.functions.Action;
+import io.reactivex.schedulers.Schedulers;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BackgroundRefreshTest {
+
+  static final long MAX_AGE = TimeUnit.MINUTES.toMillis(5);
+  static final long MAX_STALE = TimeUnit.DAYS.toMillis(1);
+
+  static final ServiceResponse OLD = ServiceResponse.create(null, Collections.singletonList(Animal.create("Doggy", "dog")));
+  static final ServiceResponse NEW = ServiceResponse.create(null, Collections.singletonList(Animal.create("Kitty", "cat")));
+
+  Repository network;
+  AtomicLong offset;
+  CachingRepository repository;
+  ResponseSnapshot snapshot;
+  RefreshScheduler refreshScheduler;
+  Action onFinished;
+
+  @Before
+  public void setUp() {
+    network = mock(Repository.class);
+    offset = new AtomicLong();
+    repository = new CachingRepository(network, null, 4, MAX_AGE, MAX_STALE,
+        () -> System.currentTimeMillis() + offset.get(), Schedulers.trampoline(), mock(Logger.class));
+    snapshot = mock(ResponseSnapshot.class);
+    refreshScheduler = mock(RefreshScheduler.class);
+    onFinished = mock(Action.class);
+  }
+
+  private BackgroundRefresh refresh() {
+    return new BackgroundRefresh(repository, snapshot, refreshScheduler, mock(Logger.class), Schedulers.trampoline());
+  }
+
+  @Test
+  public void should_store_network_response_when_cache_holds_stale_entry() throws Exception {
+    // given
+    when(network.fetchResponse(any())).thenReturn(Single.just(OLD));
+    when(network.refreshResponse(any())).thenReturn(Single.just(NEW));
+    repository.fetchResponse(DateTime.now()).test().assertValue(OLD);
+    offset.set(TimeUnit.MINUTES.toMillis(20));
+
+    // when
+    refresh().run(onFinished);
+
+    // then
+    InOrder order = inOrder(snapshot, refreshScheduler, onFinished);
+    order.verify(snapshot).save(NEW);
+    order.verify(refreshScheduler).onRefreshed(NEW);
+    order.verify(onFinished).run();
+    verify(snapshot, never()).save(OLD);
+    repository.fetchResponse(DateTime.now()).test().assertValue(NEW);
+  }
+
+  @Test
+  public void should_finish_after_reporting_failure() throws Exception {
+    // given
+    when(network.refreshResponse(any())).thenReturn(Single.error(new RuntimeException()));
+
+    // when
+    refresh().run(onFinished);
+
+    // then
+    InOrder order = inOrder(refreshScheduler, onFinished);
+    order.verify(refreshScheduler).onFailed();
+    order.verify(onFinished).run();
+    verify(snapshot, never()).save(any());
+  }
+
+}
@@ -0,0 +1,87 @@
+package au.com.dius.pactconsumer.data;
+
+import com.squareup.moshi.JsonAdapter;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import au.com.dius.pactconsumer.data.model.Animal;
+import au.com.dius.pactconsumer.data.model.AnimalJsonAdapter;
+import au.com.dius.pactconsumer.data.model.AnimalPool;
+import au.com.dius.pactconsumer.util.DateHelper;
+import io.reactivex.subscribers.TestSubscriber;
+import okio.Buffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AnimalStreamReaderTest {
+
+  static final DateTime DATE_TIME = DateTime.now();
+
+  static final JsonAdapter<Animal> ADAPTER = new AnimalJsonAdapter(new AnimalPool());
+
+  static final String JSON = "{" +
+      "\"test\": \"NO\"," +
+      "\"valid_date\": \"" + DateHelper.toString(DATE_TIME) + "\"," +
+      "\"animals\": [" +
+      "{\"name\": \"Doggy\", \"image\": \"dog\"}," +
+      "{\"name\": \"Cathy\", \"image\": \"cat\", \"extra\": {\"ignored\": [1, 2]}}," +
+      "{\"name\": \"Birdy\", \"image\": \"bird\"}" +
+      "]" +
+      "}";
+
+  @Test
+  public void should_emit_animals_in_order() {
+    // when
+    TestSubscriber<Animal> subscriber = AnimalStreamReader.stream(new Buffer().writeUtf8(JSON), ADAPTER, date -> { }).test();
+
+    // then
+    subscriber.assertNoErrors();
+    subscriber.assertValues(
+        Animal.create("Doggy", "dog"),
+        Animal.create("Cathy", "cat"),
+        Animal.create("Birdy", "bird"));
+    subscriber.assertComplete();
+  }
+
+  @Test
+  public void should_report_valid_date_before_first_animal() {
+    // given
+    List<Object> events = new ArrayList<>();
+
+    // when
+    AnimalStreamReader.stream(new Buffer().writeUtf8(JSON), ADAPTER, events::add)
+        .doOnNext(events::add)
+        .test();
+
+    // then
+    assertEquals(4, events.size());
+    assertTrue(events.get(0) instanceof DateTime);
+    assertEquals(DATE_TIME.getMillis(), ((DateTime) events.get(0)).getMillis());
+  }
+
+  @Test
+  public void should_only_decode_requested_animals() {
+    // when
+    TestSubscriber<Animal> subscriber = AnimalStreamReader.stream(new Buffer().writeUtf8(JSON), ADAPTER, date -> { }).test(1);
+
+    // then
+    subscriber.assertValue(Animal.create("Doggy", "dog"));
+    subscriber.assertNotComplete();
+  }
+
+  @Test
+  public void should_fail_on_malformed_body() {
+    // when
+    TestSubscriber<Animal> subscriber = AnimalStreamReader.stream(new Buffer().writeUtf8("{\"animals\": [{"), ADAPTER, date -> { }).test();
+
+    // then
+    subscriber.assertNoValues();
+    subscriber.assertError(Exception.class);
+  }
+
+}
@@ -0,0 +1,148 @@
+package au.com.dius.pactconsumer.data;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import au.com.dius.pactconsumer.data.model.Animal;
+import au.com.dius.pactconsumer.data.model.BatchResponse;
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BatchFetcherTest {
+
+  static final DateTime FIRST = new DateTime(1000L, DateTimeZone.UTC);
+  static final DateTime SECOND = new DateTime(2000L, DateTimeZone.UTC);
+  static final DateTime THIRD = new DateTime(3000L, DateTimeZone.UTC);
+
+  Map<Long, PublishSubject<ServiceResponse>> requests;
+
+  @Before
+  public void setUp() {
+    requests = new LinkedHashMap<>();
+  }
+
+  private Flowable<BatchResponse> fetch(int maxConcurrency, DateTime... dateTimes) {
+    return BatchFetcher.fetch(Arrays.asList(dateTimes), maxConcurrency, dateTime -> {
+      PublishSubject<ServiceResponse> request = PublishSubject.create();
+      requests.put(dateTime.getMillis(), request);
+      return request.singleOrError();
+    }, Schedulers.trampoline());
+  }
+
+  private ServiceResponse complete(DateTime dateTime) {
+    ServiceResponse response = ServiceResponse.create(dateTime, Collections.singletonList(Animal.create("Doggy", "dog")));
+    PublishSubject<ServiceResponse> request = requests.get(dateTime.getMillis());
+    request.onNext(response);
+    request.onComplete();
+    return response;
+  }
+
+  @Test
+  public void should_fetch_each_instant_once() {
+    // when
+    TestSubscriber<BatchResponse> subscriber = fetch(4, FIRST, FIRST.withZone(DateTimeZone.forOffsetHours(10)), SECOND).test();
+
+    // then
+    assertEquals(2, requests.size());
+    complete(FIRST);
+    complete(SECOND);
+    subscriber.assertValueCount(2);
+    subscriber.assertComplete();
+  }
+
+  @Test
+  public void should_limit_requests_in_flight() {
+    // when
+    TestSubscriber<BatchResponse> subscriber = fetch(2, FIRST, SECOND, THIRD).test();
+
+    // then
+    assertEquals(2, requests.size());
+    assertFalse(requests.containsKey(THIRD.getMillis()));
+
+    complete(FIRST);
+    assertTrue(requests.containsKey(THIRD.getMillis()));
+    subscriber.assertNotComplete();
+  }
+
+  @Test
+  public void should_emit_in_completion_order() {
+    // given
+    TestSubscriber<BatchResponse> subscriber = fetch(2, FIRST, SECOND).test();
+
+    // when
+    ServiceResponse second = complete(SECOND);
+    ServiceResponse first = complete(FIRST);
+
+    // then
+    subscriber.assertValues(BatchResponse.success(SECOND, second), BatchResponse.success(FIRST, first));
+    subscriber.assertComplete();
+  }
+
+  @Test
+  public void should_report_failures_per_date_without_ending_batch() {
+    // given
+    IOException error = new IOException("offline");
+    TestSubscriber<BatchResponse> subscriber = fetch(1, FIRST, SECOND).test();
+
+    // when
+    requests.get(FIRST.getMillis()).onError(error);
+    ServiceResponse second = complete(SECOND);
+
+    // then
+    subscriber.assertValues(BatchResponse.failure(FIRST, error), BatchResponse.success(SECOND, second));
+    subscriber.assertNoErrors();
+    subscriber.assertComplete();
+  }
+
+  @Test
+  public void should_report_errors_thrown_while_creating_request() {
+    // when
+    TestSubscriber<BatchResponse> subscriber = BatchFetcher.fetch(
+        Collections.singletonList(FIRST),
+        1,
+        dateTime -> {
+          throw new IllegalStateException("broken");
+        },
+        Schedulers.trampoline()).test();
+
+    // then
+    subscriber.assertValueCount(1);
+    assertFalse(subscriber.values().get(0).isSuccess());
+    subscriber.assertComplete();
+  }
+
+  @Test
+  public void should_complete_empty_batch() {
+    // when
+    TestSubscriber<BatchResponse> subscriber = fetch(2).test();
+
+    // then
+    subscriber.assertNoValues();
+    subscriber.assertComplete();
+  }
+
+  @Test
+  public void should_reject_non_positive_concurrency() {
+    // when
+    TestSubscriber<BatchResponse> subscriber = fetch(0, FIRST).test();
+
+    // then
+    subscriber.assertError(IllegalArgumentException.class);
+  }
+
+}
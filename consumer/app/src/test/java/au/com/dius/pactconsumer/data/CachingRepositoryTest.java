@@ -0,0 +1,291 @@
+package au.com.dius.pactconsumer.data;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import au.com.dius.pactconsumer.app.di.NetworkModule;
+import au.com.dius.pactconsumer.data.model.Animal;
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import au.com.dius.pactconsumer.util.Logger;
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingRepositoryTest {
+
+  static final long MAX_AGE = TimeUnit.MINUTES.toMillis(5);
+  static final long MAX_STALE = TimeUnit.HOURS.toMillis(1);
+  static final long NOW = 1000 * MAX_AGE;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  Repository delegate;
+  AtomicLong time;
+  DiskResponseCache diskCache;
+  Logger logger;
+  CachingRepository repository;
+
+  @Before
+  public void setUp() {
+    delegate = mock(Repository.class);
+    logger = mock(Logger.class);
+    time = new AtomicLong(NOW);
+    diskCache = diskCache(8);
+    repository = create(2);
+  }
+
+  private DiskResponseCache diskCache(int maxEntries) {
+    return new DiskResponseCache(
+        folder.getRoot(),
+        new NetworkModule().getMoshi().adapter(ServiceResponse.class),
+        maxEntries,
+        MAX_AGE + MAX_STALE,
+        time::get);
+  }
+
+  private CachingRepository create(int maxEntries) {
+    return new CachingRepository(delegate, diskCache, maxEntries, MAX_AGE, MAX_STALE, time::get, Schedulers.trampoline(),
+        logger);
+  }
+
+  private ServiceResponse response(String name) {
+    return ServiceResponse.create(new DateTime(time.get()), Collections.singletonList(Animal.create(name, "dog")));
+  }
+
+  @Test
+  public void should_return_cached_response_while_fresh() {
+    // given
+    ServiceResponse response = response("Doggy");
+    when(delegate.fetchResponse(any())).thenReturn(Single.just(response));
+    repository.fetchResponse(new DateTime(NOW)).test();
+
+    // when
+    time.addAndGet(MAX_AGE / 2);
+    TestObserver<ServiceResponse> observer = repository.fetchResponse(new DateTime(NOW + 1)).test();
+
+    // then
+    observer.assertValue(response);
+    verify(delegate, times(1)).fetchResponse(any());
+    assertEquals(1, repository.getHitCount());
+    assertEquals(1, repository.getMissCount());
+    assertEquals(0.5, repository.getHitRate(), 0.001);
+  }
+
+  @Test
+  public void should_return_stale_response_and_revalidate_in_background() {
+    // given
+    ServiceResponse stale = response("Doggy");
+    when(delegate.fetchResponse(any())).thenReturn(Single.just(stale));
+    repository.fetchResponse(new DateTime(NOW)).test();
+
+    // when
+    time.addAndGet(MAX_AGE + 1);
+    ServiceResponse fresh = response("Cathy");
+    when(delegate.fetchResponse(any())).thenReturn(Single.just(fresh));
+    TestObserver<ServiceResponse> staleObserver = repository.fetchResponse(new DateTime(NOW)).test();
+    TestObserver<ServiceResponse> freshObserver = repository.fetchResponse(new DateTime(NOW)).test();
+
+    // then
+    staleObserver.assertValue(stale);
+    freshObserver.assertValue(fresh);
+    verify(delegate, times(2)).fetchResponse(any());
+  }
+
+  @Test
+  public void should_log_failed_revalidation_and_keep_stale_response() {
+    // given
+    ServiceResponse stale = response("Doggy");
+    when(delegate.fetchResponse(any())).thenReturn(Single.just(stale));
+    repository.fetchResponse(new DateTime(NOW)).test();
+    time.addAndGet(MAX_AGE + 1);
+    RuntimeException error = new RuntimeException("offline");
+    when(delegate.fetchResponse(any())).thenReturn(Single.error(error));
+
+    // when
+    TestObserver<ServiceResponse> observer = repository.fetchResponse(new DateTime(NOW)).test();
+
+    // then
+    observer.assertValue(stale);
+    verify(logger).e(anyString(), anyString(), eq(error));
+    assertEquals(0, repository.getRevalidationCount());
+    repository.fetchResponse(new DateTime(NOW)).test().assertValue(stale);
+  }
+
+  @Test
+  public void should_cancel_running_revalidation() {
+    // given
+    when(delegate.fetchResponse(any())).thenReturn(Single.just(response("Doggy")));
+    repository.fetchResponse(new DateTime(NOW)).test();
+    time.addAndGet(MAX_AGE + 1);
+    PublishSubject<ServiceResponse> network = PublishSubject.create();
+    when(delegate.fetchResponse(any())).thenReturn(network.singleOrError());
+    repository.fetchResponse(new DateTime(NOW)).test();
+
+    // when
+    assertEquals(1, repository.getRevalidationCount());
+    repository.cancelRevalidations();
+
+    // then
+    assertFalse(network.hasObservers());
+    assertEquals(0, repository.getRevalidationCount());
+  }
+
+  @Test
+  public void should_fetch_again_once_past_max_stale() {
+    // given
+    when(delegate.fetchResponse(any())).thenReturn(Single.just(response("Doggy")));
+    repository.fetchResponse(new DateTime(NOW)).test();
+
+    // when
+    time.addAndGet(MAX_AGE + MAX_STALE);
+    ServiceResponse fresh = response("Cathy");
+    when(delegate.fetchResponse(any())).thenReturn(Single.just(fresh));
+    TestObserver<ServiceResponse> observer = repository.fetchResponse(new DateTime(NOW)).test();
+
+    // then
+    observer.assertValue(fresh);
+    assertEquals(2, repository.getMissCount());
+  }
+
+  @Test
+  public void should_evict_least_recently_used_entries() {
+    // given
+    when(delegate.fetchResponse(any())).thenReturn(Single.just(response("Doggy")));
+
+    // when
+    repository.fetchResponse(new DateTime(NOW)).test();
+    repository.fetchResponse(new DateTime(NOW - MAX_AGE)).test();
+    repository.fetchResponse(new DateTime(NOW - 2 * MAX_AGE)).test();
+
+    // then
+    assertEquals(2, repository.size());
+    assertEquals(1, repository.getEvictionCount());
+  }
+
+  @Test
+  public void should_serve_responses_persisted_on_disk() {
+    // given
+    ServiceResponse response = response("Doggy");
+    when(delegate.fetchResponse(any())).thenReturn(Single.just(response));
+    repository.fetchResponse(new DateTime(NOW)).test();
+
+    // when
+    CachingRepository restarted = create(2);
+    TestObserver<ServiceResponse> observer = restarted.fetchResponse(new DateTime(NOW)).test();
+
+    // then
+    observer.assertValue(response);
+    assertEquals(1, restarted.getHitCount());
+  }
+
+  @Test
+  public void should_not_cache_errors() {
+    // given
+    when(delegate.fetchResponse(any())).thenReturn(Single.error(new RuntimeException()));
+
+    // when
+    repository.fetchResponse(new DateTime(NOW)).test();
+
+    // then
+    assertEquals(0, repository.size());
+  }
+
+  @Test
+  public void should_persist_responses_without_valid_date() {
+    // given
+    ServiceResponse response = new ServiceResponse(null, Collections.emptyList());
+    when(delegate.fetchResponse(any())).thenReturn(Single.just(response));
+    repository.fetchResponse(new DateTime(NOW)).test();
+
+    // when
+    TestObserver<ServiceResponse> observer = create(2).fetchResponse(new DateTime(NOW)).test();
+
+    // then
+    observer.assertValue(response);
+  }
+
+  @Test
+  public void should_serve_stale_latest_response_once_current_key_rolls_over() {
+    // given
+    ServiceResponse stale = response("Doggy");
+    when(delegate.fetchResponse(any())).thenReturn(Single.just(stale));
+    repository.fetchResponse(new DateTime(time.get())).test();
+
+    // when
+    time.addAndGet(MAX_AGE + 1);
+    ServiceResponse fresh = response("Cathy");
+    when(delegate.fetchResponse(any())).thenReturn(Single.just(fresh));
+    TestObserver<ServiceResponse> staleObserver = repository.fetchResponse(new DateTime(time.get())).test();
+    TestObserver<ServiceResponse> freshObserver = create(2).fetchResponse(new DateTime(time.get())).test();
+
+    // then
+    staleObserver.assertValue(stale);
+    freshObserver.assertValue(fresh);
+    verify(delegate, times(2)).fetchResponse(any());
+  }
+
+  @Test
+  public void should_not_answer_past_dates_with_latest_response() {
+    // given
+    when(delegate.fetchResponse(any())).thenReturn(Single.just(response("Doggy")));
+    repository.fetchResponse(new DateTime(time.get())).test();
+
+    // when
+    repository.fetchResponse(new DateTime(NOW - 10 * MAX_AGE)).test();
+
+    // then
+    verify(delegate, times(2)).fetchResponse(any());
+  }
+
+  @Test
+  public void should_prune_disk_cache_to_newest_entries() {
+    // given
+    diskCache = diskCache(3);
+
+    // when
+    for (int i = 0; i < 5; i++) {
+      diskCache.put("key" + i, response("Doggy"));
+      time.addAndGet(1000);
+    }
+
+    // then
+    assertEquals(3, folder.getRoot().listFiles().length);
+    assertNull(diskCache.get("key0"));
+    assertNotNull(diskCache.get("key4"));
+  }
+
+  @Test
+  public void should_drop_disk_entries_past_max_age() {
+    // given
+    diskCache.put("key", response("Doggy"));
+
+    // when
+    time.addAndGet(MAX_AGE + MAX_STALE + 1);
+
+    // then
+    assertNull(diskCache.get("key"));
+    assertEquals(0, folder.getRoot().listFiles().length);
+  }
+
+}
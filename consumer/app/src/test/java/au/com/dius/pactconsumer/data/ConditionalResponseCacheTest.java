@@ -0,0 +1,207 @@
+package au.com.dius.pactconsumer.data;
+
+import com.jakewharton.retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+import com.squareup.moshi.Moshi;
+
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import au.com.dius.pactconsumer.app.di.NetworkModule;
+import au.com.dius.pactconsumer.data.exceptions.BadRequestException;
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import au.com.dius.pactconsumer.util.DateHelper;
+import io.reactivex.schedulers.Schedulers;
+import okhttp3.OkHttpClient;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
+import retrofit2.Retrofit;
+import retrofit2.converter.moshi.MoshiConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ConditionalResponseCacheTest {
+
+  static final String BODY = "{\"valid_date\":\"2017-01-02T03:04:05.000Z\",\"animals\":[{\"name\":\"Doggy\",\"image\":\"dog\"}]}";
+
+  static final DateTime DATE = new DateTime(2017, 1, 2, 3, 4);
+
+  MockWebServer server;
+  ConditionalResponseCache cache;
+  Service service;
+  Moshi moshi;
+
+  @Before
+  public void setUp() throws IOException {
+    server = new MockWebServer();
+    server.start();
+
+    moshi = new NetworkModule().getMoshi();
+    cache = new ConditionalResponseCache(moshi.adapter(ServiceResponse.class), 4);
+    service = new Service(api(new OkHttpClient()), ValidDatePolicy.exact(), new RequestCoalescer<>(), cache, Schedulers.io());
+  }
+
+  private Service.Api api(OkHttpClient client) {
+    return new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .client(client)
+        .addConverterFactory(MoshiConverterFactory.create(moshi))
+        .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
+        .build()
+        .create(Service.Api.class);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.shutdown();
+  }
+
+  private ServiceResponse fetch() {
+    return service.fetchResponse(DATE).blockingGet();
+  }
+
+  @Test
+  public void should_send_validators_and_reuse_response_when_not_modified() throws InterruptedException {
+    // given
+    server.enqueue(new MockResponse().setBody(BODY).setHeader("ETag", "\"v1\"").setHeader("Last-Modified", "Mon, 02 Jan 2017 03:04:05 GMT"));
+    server.enqueue(new MockResponse().setResponseCode(304));
+
+    // when
+    ServiceResponse first = fetch();
+    ServiceResponse second = fetch();
+
+    // then
+    RecordedRequest initial = server.takeRequest();
+    assertNull(initial.getHeader("If-None-Match"));
+    RecordedRequest conditional = server.takeRequest();
+    assertEquals("\"v1\"", conditional.getHeader("If-None-Match"));
+    assertEquals("Mon, 02 Jan 2017 03:04:05 GMT", conditional.getHeader("If-Modified-Since"));
+    assertSame(first, second);
+    assertEquals(1, cache.getNotModifiedCount());
+    assertEquals(1, cache.getDecodedCount());
+  }
+
+  @Test
+  public void should_reuse_response_when_body_is_unchanged() {
+    // given
+    server.enqueue(new MockResponse().setBody(BODY));
+    server.enqueue(new MockResponse().setBody(BODY));
+
+    // when
+    ServiceResponse first = fetch();
+    ServiceResponse second = fetch();
+
+    // then
+    assertSame(first, second);
+    assertEquals(1, cache.getUnchangedCount());
+    assertEquals(1, cache.getDecodedCount());
+  }
+
+  @Test
+  public void should_decode_changed_body() throws UnsupportedEncodingException {
+    // given
+    server.enqueue(new MockResponse().setBody(BODY).setHeader("ETag", "\"v1\""));
+    server.enqueue(new MockResponse().setBody(BODY.replace("Doggy", "Kitty")).setHeader("ETag", "\"v2\""));
+
+    // when
+    fetch();
+    ServiceResponse second = fetch();
+
+    // then
+    assertEquals("Kitty", second.getAnimals().get(0).getName());
+    assertEquals("\"v2\"", cache.get(DateHelper.encodeDate(DATE)).etag);
+  }
+
+  @Test
+  public void should_map_not_found_to_empty_response() {
+    // given
+    server.enqueue(new MockResponse().setResponseCode(404));
+
+    // when
+    ServiceResponse response = fetch();
+
+    // then
+    assertEquals(0, response.getAnimals().size());
+  }
+
+  @Test
+  public void should_map_bad_request() {
+    // given
+    server.enqueue(new MockResponse().setResponseCode(400));
+
+    // then
+    service.fetchResponse(DATE).test().assertError(BadRequestException.class);
+  }
+
+  @Test
+  public void should_decode_while_body_is_still_being_read() {
+    // given
+    StringBuilder body = new StringBuilder("{\"valid_date\":\"2017-01-02T03:04:05.000Z\",\"animals\":[");
+    for (int i = 0; i < 2000; i++) {
+      body.append(i == 0 ? "" : ",").append("{\"name\":\"Doggy ").append(i).append("\",\"image\":\"dog\"}");
+    }
+    body.append("]}");
+    server.enqueue(new MockResponse().setBody(body.toString()));
+
+    AtomicLong read = new AtomicLong();
+    AtomicLong readWhenDecodeStarted = new AtomicLong(-1);
+    OkHttpClient client = new OkHttpClient.Builder()
+        .addInterceptor(chain -> {
+          okhttp3.Response response = chain.proceed(chain.request());
+          ResponseBody original = response.body();
+          ForwardingSource counting = new ForwardingSource(original.source()) {
+            @Override
+            public long read(Buffer sink, long byteCount) throws IOException {
+              long count = super.read(sink, byteCount);
+              read.addAndGet(Math.max(count, 0));
+              return count;
+            }
+          };
+          return response.newBuilder()
+              .body(ResponseBody.create(original.contentType(), original.contentLength(), Okio.buffer(counting)))
+              .build();
+        })
+        .build();
+    JsonAdapter<ServiceResponse> delegate = moshi.adapter(ServiceResponse.class);
+    JsonAdapter<ServiceResponse> adapter = new JsonAdapter<ServiceResponse>() {
+      @Override
+      public ServiceResponse fromJson(JsonReader reader) throws IOException {
+        readWhenDecodeStarted.set(read.get());
+        return delegate.fromJson(reader);
+      }
+
+      @Override
+      public void toJson(JsonWriter writer, ServiceResponse value) throws IOException {
+        delegate.toJson(writer, value);
+      }
+    };
+    service = new Service(api(client), ValidDatePolicy.exact(), new RequestCoalescer<>(),
+        new ConditionalResponseCache(adapter, 4), Schedulers.io());
+
+    // when
+    ServiceResponse response = fetch();
+
+    // then
+    assertEquals(2000, response.getAnimals().size());
+    assertEquals(body.length(), read.get());
+    assertTrue(readWhenDecodeStarted.get() >= 0);
+    assertTrue(readWhenDecodeStarted.get() < body.length() / 2);
+  }
+
+}
@@ -4,8 +4,21 @@ import org.joda.time.DateTime;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import au.com.dius.pactconsumer.data.model.Animal;
 import au.com.dius.pactconsumer.data.model.ServiceResponse;
 import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
 public class FakeServiceTest {
 
@@ -26,4 +39,107 @@ public class FakeServiceTest {
     observer.assertValue(FakeService.RESPONSE);
   }
 
+  @Test
+  public void should_stream_list_of_animals() {
+    // when
+    TestSubscriber<Animal> subscriber = service.streamAnimals(DateTime.now(), date -> { }).test();
+
+    // then
+    subscriber.assertNoErrors();
+    subscriber.assertValueSequence(FakeService.RESPONSE.getAnimals());
+  }
+
+  @Test
+  public void should_generate_same_catalog_for_same_seed() {
+    // when
+    List<Animal> first = AnimalGenerator.uniform(7).generate(1000);
+    List<Animal> second = AnimalGenerator.uniform(7).generate(1000);
+    List<Animal> other = AnimalGenerator.uniform(8).generate(1000);
+
+    // then
+    assertEquals(1000, first.size());
+    assertEquals(first, second);
+    assertNotEquals(first, other);
+  }
+
+  @Test
+  public void should_follow_type_weights() {
+    // given
+    Map<String, Integer> weights = new LinkedHashMap<>();
+    weights.put("dog", 3);
+    weights.put("cat", 1);
+    weights.put("bird", 0);
+
+    // when
+    List<Animal> animals = new AnimalGenerator(1, weights).generate(4000);
+
+    // then
+    int dogs = 0;
+    for (Animal animal : animals) {
+      assertNotEquals("bird", animal.getType());
+      if (animal.getType().equals("dog")) {
+        dogs++;
+      }
+    }
+    assertEquals(3000, dogs, 150);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void should_reject_weights_adding_up_to_zero() {
+    Map<String, Integer> weights = new LinkedHashMap<>();
+    weights.put("dog", 0);
+    new AnimalGenerator(1, weights);
+  }
+
+  @Test
+  public void should_answer_generated_catalog_after_latency() {
+    // given
+    TestScheduler scheduler = new TestScheduler();
+    service = FakeService.generated(500, 3, DateTime.now(), 100, 0, 0, scheduler);
+
+    // when
+    TestObserver<ServiceResponse> observer = service.fetchResponse(DateTime.now()).test();
+
+    // then
+    scheduler.advanceTimeBy(99, TimeUnit.MILLISECONDS);
+    observer.assertNoValues();
+    scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+    observer.assertValue(service.getResponse());
+    assertEquals(500, service.getResponse().getAnimals().size());
+  }
+
+  @Test
+  public void should_add_jitter_within_bound() {
+    // given
+    TestScheduler scheduler = new TestScheduler();
+    service = new FakeService(FakeService.RESPONSE, 100, 50, 0, new Random(1), scheduler);
+
+    // when
+    TestObserver<ServiceResponse> observer = service.fetchResponse(DateTime.now()).test();
+
+    // then
+    scheduler.advanceTimeBy(99, TimeUnit.MILLISECONDS);
+    observer.assertNoValues();
+    scheduler.advanceTimeBy(51, TimeUnit.MILLISECONDS);
+    observer.assertValue(FakeService.RESPONSE);
+  }
+
+  @Test
+  public void should_fail_at_error_rate() {
+    // given
+    TestScheduler scheduler = new TestScheduler();
+    service = new FakeService(FakeService.RESPONSE, 0, 0, 1, new Random(1), scheduler);
+
+    // when
+    TestSubscriber<Animal> subscriber = service.streamAnimals(DateTime.now(), date -> { }).test();
+
+    // then
+    subscriber.assertError(IOException.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void should_reject_error_rate_above_one() {
+    new FakeService(FakeService.RESPONSE, 0, 0, 1.5, new Random(1), new TestScheduler());
+  }
+
 }
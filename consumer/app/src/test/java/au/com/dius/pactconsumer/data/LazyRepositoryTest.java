@@ -0,0 +1,72 @@
+package au.com.dius.pactconsumer.data;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LazyRepositoryTest {
+
+  Repository delegate;
+  AtomicInteger created;
+  LazyRepository repository;
+
+  @Before
+  public void setUp() {
+    delegate = mock(Repository.class);
+    created = new AtomicInteger();
+    repository = new LazyRepository(() -> {
+      created.incrementAndGet();
+      return delegate;
+    });
+  }
+
+  @Test
+  public void should_not_create_repository_until_subscribed() {
+    // when
+    Single<ServiceResponse> single = repository.fetchResponse(DateTime.now());
+
+    // then
+    assertEquals(0, created.get());
+    assertFalse(repository.isCreated());
+  }
+
+  @Test
+  public void should_create_repository_once() {
+    // given
+    when(delegate.fetchResponse(any())).thenReturn(Single.just(FakeService.RESPONSE));
+
+    // when
+    TestObserver<ServiceResponse> first = repository.fetchResponse(DateTime.now()).test();
+    TestObserver<ServiceResponse> second = repository.fetchResponse(DateTime.now()).test();
+
+    // then
+    assertEquals(1, created.get());
+    first.assertValue(FakeService.RESPONSE);
+    second.assertValue(FakeService.RESPONSE);
+  }
+
+  @Test
+  public void should_create_repository_when_warmed() {
+    // when
+    repository.warm();
+    repository.warm();
+
+    // then
+    assertEquals(1, created.get());
+    assertTrue(repository.isCreated());
+  }
+
+}
@@ -0,0 +1,192 @@
+package au.com.dius.pactconsumer.data;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import au.com.dius.pactconsumer.data.model.Animal;
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+
+import static org.junit.Assert.assertEquals;
+
+public class RefreshPolicyTest {
+
+  static final long MINUTE = 60000;
+  static final long MIN = 15 * MINUTE;
+  static final long MAX = 12 * 60 * MINUTE;
+
+  AtomicLong time;
+  RefreshPolicy policy;
+
+  @Before
+  public void setUp() {
+    time = new AtomicLong(1000000000L);
+    policy = new RefreshPolicy(MIN, MAX, MINUTE, time::get);
+  }
+
+  private ServiceResponse response(String name) {
+    return ServiceResponse.create(new DateTime(time.get()), Collections.singletonList(Animal.create(name, "dog")));
+  }
+
+  @Test
+  public void should_use_min_interval_before_any_change_is_seen() {
+    // when
+    policy.onResponse(response("a"));
+
+    // then
+    assertEquals(MIN, policy.nextDelayMillis(false, false));
+  }
+
+  @Test
+  public void should_poll_at_half_the_observed_change_interval() {
+    // given
+    policy.onResponse(response("a"));
+
+    // when
+    time.addAndGet(120 * MINUTE);
+    policy.onResponse(response("b"));
+
+    // then
+    assertEquals(120 * MINUTE, policy.getChangeIntervalMillis());
+    assertEquals(60 * MINUTE, policy.nextDelayMillis(false, false));
+  }
+
+  @Test
+  public void should_smooth_change_interval() {
+    // given
+    policy.onResponse(response("a"));
+    time.addAndGet(120 * MINUTE);
+    policy.onResponse(response("b"));
+
+    // when
+    time.addAndGet(40 * MINUTE);
+    policy.onResponse(response("c"));
+
+    // then
+    assertEquals(100 * MINUTE, policy.getChangeIntervalMillis());
+  }
+
+  @Test
+  public void should_back_off_exponentially_while_unchanged() {
+    // given
+    ServiceResponse response = response("a");
+    policy.onResponse(response);
+
+    // when
+    policy.onResponse(response);
+    policy.onResponse(response);
+
+    // then
+    assertEquals(2, policy.getUnchangedCount());
+    assertEquals(4 * MIN, policy.nextDelayMillis(false, false));
+  }
+
+  @Test
+  public void should_back_off_when_unchanged_catalog_has_new_valid_date() {
+    // given
+    policy.onResponse(response("a"));
+
+    // when
+    time.addAndGet(MIN);
+    policy.onResponse(response("a"));
+    time.addAndGet(2 * MIN);
+    policy.onResponse(response("a"));
+
+    // then
+    assertEquals(2, policy.getUnchangedCount());
+    assertEquals(-1, policy.getChangeIntervalMillis());
+    assertEquals(4 * MIN, policy.nextDelayMillis(false, false));
+  }
+
+  @Test
+  public void should_back_off_on_failure() {
+    // given
+    policy.onResponse(response("a"));
+
+    // when
+    policy.onFailure();
+
+    // then
+    assertEquals(2 * MIN, policy.nextDelayMillis(false, false));
+  }
+
+  @Test
+  public void should_reset_back_off_when_response_changes() {
+    // given
+    ServiceResponse response = response("a");
+    policy.onResponse(response);
+    policy.onResponse(response);
+    policy.onResponse(response);
+
+    // when
+    policy.onResponse(response("b"));
+
+    // then
+    assertEquals(0, policy.getUnchangedCount());
+  }
+
+  @Test
+  public void should_back_off_on_metered_network_and_when_idle() {
+    // given
+    policy.onResponse(response("a"));
+
+    // then
+    assertEquals(2 * MIN, policy.nextDelayMillis(true, false));
+    assertEquals(4 * MIN, policy.nextDelayMillis(false, true));
+    assertEquals(8 * MIN, policy.nextDelayMillis(true, true));
+  }
+
+  @Test
+  public void should_cap_delay_at_max_interval() {
+    // given
+    ServiceResponse response = response("a");
+    policy.onResponse(response);
+
+    // when
+    for (int i = 0; i < 100; i++) {
+      policy.onResponse(response);
+    }
+
+    // then
+    assertEquals(MAX, policy.nextDelayMillis(true, true));
+  }
+
+  @Test
+  public void should_wait_until_valid_date_expires() {
+    // given
+    policy = new RefreshPolicy(MIN, MAX, 60 * MINUTE, time::get);
+
+    // when
+    policy.onResponse(response("a"));
+    time.addAndGet(10 * MINUTE);
+
+    // then
+    assertEquals(50 * MINUTE, policy.nextDelayMillis(false, false));
+  }
+
+  @Test
+  public void should_keep_back_off_across_restore() {
+    // given
+    policy.onResponse(response("a"));
+    policy.onResponse(response("a"));
+    policy.onResponse(response("a"));
+
+    // when
+    RefreshPolicy restored = new RefreshPolicy(MIN, MAX, MINUTE, time::get);
+    restored.restore(policy.getState());
+    restored.onResponse(response("a"));
+
+    // then
+    assertEquals(3, restored.getUnchangedCount());
+    assertEquals(8 * MIN, restored.nextDelayMillis(false, false));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void should_reject_max_interval_below_min() {
+    new RefreshPolicy(MIN, MIN - 1, MINUTE, time::get);
+  }
+
+}
@@ -0,0 +1,168 @@
+package au.com.dius.pactconsumer.data;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RequestCoalescerTest {
+
+  RequestCoalescer<String> coalescer;
+  PublishSubject<String> upstream;
+  AtomicInteger calls;
+
+  @Before
+  public void setUp() {
+    coalescer = new RequestCoalescer<>();
+    upstream = PublishSubject.create();
+    calls = new AtomicInteger();
+  }
+
+  private Single<String> request(String key) {
+    return coalescer.coalesce(key, () -> {
+      calls.incrementAndGet();
+      return upstream.singleOrError();
+    });
+  }
+
+  @Test
+  public void should_share_in_flight_request_for_same_key() {
+    // when
+    TestObserver<String> first = request("a").test();
+    TestObserver<String> second = request("a").test();
+    upstream.onNext("value");
+    upstream.onComplete();
+
+    // then
+    assertEquals(1, calls.get());
+    first.assertValue("value");
+    second.assertValue("value");
+    assertEquals(1, coalescer.getMissCount());
+    assertEquals(1, coalescer.getHitCount());
+    assertEquals(0, coalescer.getInFlightCount());
+  }
+
+  @Test
+  public void should_not_share_requests_for_different_keys() {
+    // when
+    request("a").test();
+    request("b").test();
+
+    // then
+    assertEquals(2, calls.get());
+    assertEquals(2, coalescer.getMissCount());
+    assertEquals(0, coalescer.getHitCount());
+  }
+
+  @Test
+  public void should_keep_request_alive_while_other_subscribers_remain() {
+    // given
+    TestObserver<String> first = request("a").test();
+    TestObserver<String> second = request("a").test();
+
+    // when
+    first.dispose();
+    upstream.onNext("value");
+    upstream.onComplete();
+
+    // then
+    second.assertValue("value");
+    first.assertNoValues();
+  }
+
+  @Test
+  public void should_cancel_request_when_all_subscribers_dispose() {
+    // given
+    TestObserver<String> first = request("a").test();
+    TestObserver<String> second = request("a").test();
+
+    // when
+    first.dispose();
+    second.dispose();
+
+    // then
+    assertFalse(upstream.hasObservers());
+    assertEquals(0, coalescer.getInFlightCount());
+  }
+
+  @Test
+  public void should_start_new_request_after_previous_completes() {
+    // given
+    request("a").test();
+    upstream.onNext("value");
+    upstream.onComplete();
+
+    // when
+    upstream = PublishSubject.create();
+    request("a").test();
+
+    // then
+    assertEquals(2, calls.get());
+    assertTrue(upstream.hasObservers());
+  }
+
+  @Test
+  public void should_give_result_to_caller_joining_as_request_completes() {
+    // given
+    TestObserver<String> first = request("a").test();
+
+    // when
+    upstream.onNext("value");
+    TestObserver<String> late = request("a").test();
+    upstream.onComplete();
+
+    // then
+    assertEquals(1, calls.get());
+    first.assertValue("value");
+    late.assertValue("value");
+    assertEquals(0, coalescer.getInFlightCount());
+  }
+
+  @Test
+  public void should_never_fail_callers_racing_completion() throws Exception {
+    // given
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (int round = 0; round < 200; round++) {
+        RequestCoalescer<String> shared = new RequestCoalescer<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 4; i++) {
+          results.add(executor.submit(() -> {
+            start.await();
+            return shared.coalesce("a", () -> Single.fromCallable(() -> "value").subscribeOn(Schedulers.io()))
+                .blockingGet();
+          }));
+        }
+        start.countDown();
+
+        // then
+        for (Future<String> result : results) {
+          assertEquals("value", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(0, shared.getInFlightCount());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+}
@@ -0,0 +1,170 @@
+package au.com.dius.pactconsumer.data;
+
+import com.jakewharton.retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
+
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import au.com.dius.pactconsumer.app.di.NetworkModule;
+import au.com.dius.pactconsumer.data.exceptions.BadRequestException;
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import io.reactivex.schedulers.Schedulers;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import retrofit2.Retrofit;
+import retrofit2.converter.moshi.MoshiConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+
+public class RequestPolicyTest {
+
+  static final String SLOW = "{\"animals\":[{\"name\":\"Slow\",\"image\":\"dog\"}]}";
+  static final String FAST = "{\"animals\":[{\"name\":\"Fast\",\"image\":\"dog\"}]}";
+
+  MockWebServer server;
+  Service.Api api;
+
+  @Before
+  public void setUp() throws IOException {
+    server = new MockWebServer();
+    server.start();
+    api = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .client(new OkHttpClient.Builder().retryOnConnectionFailure(false).build())
+        .addConverterFactory(MoshiConverterFactory.create(new NetworkModule().getMoshi()))
+        .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
+        .build()
+        .create(Service.Api.class);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.shutdown();
+  }
+
+  private RequestPolicy policy(double hedgePercentile, int maxRetries, RetryBudget budget) {
+    return new RequestPolicy(hedgePercentile, 50, maxRetries, 10, 20, budget, Schedulers.io(), new Random(0));
+  }
+
+  private ServiceResponse fetch(RequestPolicy policy) {
+    Service service = new Service(api, ValidDatePolicy.exact(), new RequestCoalescer<>(), null, policy, Schedulers.io());
+    return service.fetchResponse(DateTime.now()).timeout(5, TimeUnit.SECONDS).blockingGet();
+  }
+
+  @Test
+  public void should_take_hedged_response_when_first_is_slow() {
+    // given
+    RequestPolicy policy = policy(0.95, 0, new RetryBudget(0.1, 10));
+    server.enqueue(new MockResponse().setBody(SLOW).setBodyDelay(2, TimeUnit.SECONDS));
+    server.enqueue(new MockResponse().setBody(FAST));
+
+    // when
+    ServiceResponse response = fetch(policy);
+
+    // then
+    assertEquals("Fast", response.getAnimals().get(0).getName());
+    assertEquals(1, policy.getHedgeCount());
+    assertEquals(2, server.getRequestCount());
+  }
+
+  @Test
+  public void should_keep_waiting_for_first_when_hedge_fails() {
+    // given
+    RequestPolicy policy = policy(0.95, 0, new RetryBudget(0.1, 10));
+    server.enqueue(new MockResponse().setBody(SLOW).setBodyDelay(500, TimeUnit.MILLISECONDS));
+    server.enqueue(new MockResponse().setResponseCode(503));
+
+    // when
+    ServiceResponse response = fetch(policy);
+
+    // then
+    assertEquals("Slow", response.getAnimals().get(0).getName());
+    assertEquals(1, policy.getHedgeCount());
+    assertEquals(2, server.getRequestCount());
+  }
+
+  @Test
+  public void should_fail_once_first_and_hedge_have_failed() {
+    // given
+    RequestPolicy policy = policy(0.95, 0, new RetryBudget(0.1, 10));
+    server.enqueue(new MockResponse().setResponseCode(503).setBody("slow").setBodyDelay(500, TimeUnit.MILLISECONDS));
+    server.enqueue(new MockResponse().setResponseCode(503));
+
+    // when
+    Service service = new Service(api, ValidDatePolicy.exact(), new RequestCoalescer<>(), null, policy, Schedulers.io());
+
+    // then
+    service.fetchResponse(DateTime.now()).test().awaitDone(5, TimeUnit.SECONDS).assertError(Throwable.class);
+    assertEquals(1, policy.getHedgeCount());
+    assertEquals(2, server.getRequestCount());
+  }
+
+  @Test
+  public void should_retry_server_errors_and_disconnects() {
+    // given
+    RequestPolicy policy = policy(0, 2, new RetryBudget(0.1, 10));
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+    server.enqueue(new MockResponse().setBody(FAST));
+
+    // when
+    ServiceResponse response = fetch(policy);
+
+    // then
+    assertEquals("Fast", response.getAnimals().get(0).getName());
+    assertEquals(2, policy.getRetryCount());
+  }
+
+  @Test
+  public void should_not_retry_bad_request() {
+    // given
+    RequestPolicy policy = policy(0, 2, new RetryBudget(0.1, 10));
+    server.enqueue(new MockResponse().setResponseCode(400));
+
+    // when
+    Service service = new Service(api, ValidDatePolicy.exact(), new RequestCoalescer<>(), null, policy, Schedulers.io());
+
+    // then
+    service.fetchResponse(DateTime.now()).test().awaitDone(5, TimeUnit.SECONDS).assertError(BadRequestException.class);
+    assertEquals(0, policy.getRetryCount());
+    assertEquals(1, server.getRequestCount());
+  }
+
+  @Test
+  public void should_stop_retrying_when_budget_is_exhausted() {
+    // given
+    RequestPolicy policy = policy(0, 5, new RetryBudget(0.1, 1));
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setBody(FAST));
+
+    // when
+    Service service = new Service(api, ValidDatePolicy.exact(), new RequestCoalescer<>(), null, policy, Schedulers.io());
+
+    // then
+    service.fetchResponse(DateTime.now()).test().awaitDone(5, TimeUnit.SECONDS).assertError(Throwable.class);
+    assertEquals(1, policy.getRetryCount());
+    assertEquals(1, policy.getRejectedCount());
+  }
+
+  @Test
+  public void should_hedge_at_percentile_of_recorded_latencies() {
+    // given
+    RequestPolicy policy = policy(0.9, 0, new RetryBudget(0.1, 10));
+    for (int i = 1; i <= 100; i++) {
+      policy.getLatencies().record(i);
+    }
+
+    // then
+    assertEquals(90, policy.hedgeDelayMillis());
+  }
+
+}
@@ -0,0 +1,130 @@
+package au.com.dius.pactconsumer.data;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import au.com.dius.pactconsumer.data.model.Animal;
+import au.com.dius.pactconsumer.data.model.AnimalPool;
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class ResponseSnapshotTest {
+
+  static final long MAX_AGE = 1000;
+
+  static final ServiceResponse RESPONSE = new ServiceResponse(
+      new DateTime(2017, 1, 2, 3, 4, DateTimeZone.forOffsetHours(10)),
+      Arrays.asList(
+          Animal.create("Doggy", "dog"),
+          Animal.create("Kitty", "cat"),
+          Animal.create("Puppy", "dog"),
+          Animal.create("Émile", "bear")));
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  AtomicLong time;
+  File file;
+  ResponseSnapshot snapshot;
+
+  @Before
+  public void setUp() {
+    time = new AtomicLong(10000);
+    file = new File(folder.getRoot(), "snapshot.bin");
+    snapshot = new ResponseSnapshot(file, MAX_AGE, time::get, new AnimalPool());
+  }
+
+  private void corrupt(long position, int value) throws IOException {
+    try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+      output.seek(position);
+      output.writeInt(value);
+    }
+  }
+
+  @Test
+  public void should_read_saved_response() {
+    // when
+    snapshot.save(RESPONSE);
+
+    // then
+    ServiceResponse read = snapshot.read();
+    assertEquals(RESPONSE, read);
+    assertEquals(RESPONSE.getValidDate().getZone(), read.getValidDate().getZone());
+  }
+
+  @Test
+  public void should_read_response_without_valid_date() {
+    // given
+    ServiceResponse response = new ServiceResponse(null, RESPONSE.getAnimals());
+
+    // when
+    snapshot.save(response);
+
+    // then
+    assertEquals(response, snapshot.read());
+  }
+
+  @Test
+  public void should_return_nothing_when_missing() {
+    snapshot.load().test().assertNoValues().assertComplete();
+  }
+
+  @Test
+  public void should_ignore_corrupt_snapshot() throws IOException {
+    // given
+    snapshot.save(RESPONSE);
+    corrupt(file.length() - 4, 0x7fffffff);
+
+    // then
+    assertNull(snapshot.read());
+    assertFalse(file.exists());
+  }
+
+  @Test
+  public void should_ignore_other_version() throws IOException {
+    // given
+    snapshot.save(RESPONSE);
+    corrupt(4, ResponseSnapshot.VERSION + 1);
+
+    // then
+    assertNull(snapshot.read());
+  }
+
+  @Test
+  public void should_ignore_stale_snapshot() {
+    // given
+    snapshot.save(RESPONSE);
+
+    // when
+    time.addAndGet(MAX_AGE + 1);
+
+    // then
+    assertNull(snapshot.read());
+  }
+
+  @Test
+  public void should_ignore_truncated_snapshot() throws IOException {
+    // given
+    snapshot.save(RESPONSE);
+    try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+      output.setLength(file.length() - 3);
+    }
+
+    // then
+    assertNull(snapshot.read());
+  }
+
+}
@@ -18,6 +18,7 @@ import au.com.dius.pactconsumer.app.di.NetworkModule;
 import au.com.dius.pactconsumer.data.exceptions.BadRequestException;
 import au.com.dius.pactconsumer.data.model.ServiceResponse;
 import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.Schedulers;
 
 import static org.mockito.Mockito.mock;
 
@@ -28,7 +29,7 @@ public class ServiceMissingQueryPactTest {
   @Before
   public void setUp() {
     NetworkModule networkModule = new NetworkModule();
-    service = new Service(networkModule.getRetrofit(mock(Context.class), "http://localhost:9292").create(Service.Api.class));
+    service = new Service(networkModule.getRetrofit(mock(Context.class), "http://localhost:9292").create(Service.Api.class), Schedulers.io());
   }
 
   @Rule
@@ -4,15 +4,28 @@ import org.joda.time.DateTime;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 import au.com.dius.pactconsumer.data.model.Animal;
+import au.com.dius.pactconsumer.data.model.BatchResponse;
+import au.com.dius.pactconsumer.data.model.Page;
 import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import au.com.dius.pactconsumer.util.DateHelper;
 import io.reactivex.Single;
 import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
+import io.reactivex.subjects.PublishSubject;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ServiceTest {
@@ -23,7 +36,7 @@ public class ServiceTest {
   @Before
   public void setup() {
     api = mock(Service.Api.class);
-    service = new Service(api);
+    service = new Service(api, Schedulers.io());
   }
 
   @Test
@@ -40,4 +53,192 @@ public class ServiceTest {
     observer.assertValue(response);
   }
 
+  @Test
+  public void should_fetch_each_date_of_a_batch() {
+    // given
+    DateTime first = new DateTime(1000L);
+    DateTime second = new DateTime(2000L);
+    ServiceResponse response = ServiceResponse.create(first, Collections.singletonList(Animal.create("Doggy", "dog")));
+    when(api.loadProviderJson(any())).thenReturn(Single.just(response));
+    service = new Service(api, ValidDatePolicy.exact(), new RequestCoalescer<>(), null, null, Schedulers.trampoline());
+
+    // when
+    TestSubscriber<BatchResponse> subscriber = service.fetchResponses(Arrays.asList(first, second, first), 2).test();
+
+    // then
+    verify(api, times(2)).loadProviderJson(any());
+    subscriber.assertValues(BatchResponse.success(first, response), BatchResponse.success(second, response));
+    subscriber.assertComplete();
+  }
+
+  @Test
+  public void should_share_concurrent_requests_for_same_date() {
+    // given
+    DateTime dateTime = DateTime.now();
+    ServiceResponse response = ServiceResponse.create(dateTime, Collections.singletonList(Animal.create("Doggy", "dog")));
+    PublishSubject<ServiceResponse> subject = PublishSubject.create();
+    when(api.loadProviderJson(any())).thenReturn(subject.singleOrError());
+
+    // when
+    TestObserver<ServiceResponse> first = service.fetchResponse(dateTime).test();
+    TestObserver<ServiceResponse> second = service.fetchResponse(dateTime).test();
+    subject.onNext(response);
+    subject.onComplete();
+
+    // then
+    verify(api, times(1)).loadProviderJson(any());
+    first.assertValue(response);
+    second.assertValue(response);
+  }
+
+  @Test
+  public void should_refresh_without_joining_cacheable_request() {
+    // given
+    DateTime dateTime = DateTime.now();
+    ServiceResponse response = ServiceResponse.create(dateTime, Collections.singletonList(Animal.create("Doggy", "dog")));
+    when(api.loadProviderJson(any())).thenReturn(Single.never());
+    when(api.reloadProviderJson(any())).thenReturn(Single.just(response));
+    service.fetchResponse(dateTime).test();
+
+    // when
+    TestObserver<ServiceResponse> observer = service.refreshResponse(dateTime).test();
+
+    // then
+    observer.awaitTerminalEvent(5, TimeUnit.SECONDS);
+    observer.assertValue(response);
+    verify(api).reloadProviderJson(any());
+  }
+
+  @Test
+  public void should_stream_animals_from_provider() {
+    // given
+    DateTime dateTime = DateTime.now();
+    String json = "{\"valid_date\": \"" + DateHelper.toString(dateTime) + "\", \"animals\": [{\"name\": \"Doggy\", \"image\": \"dog\"}]}";
+    when(api.streamProviderJson(any())).thenReturn(Single.just(ResponseBody.create(MediaType.parse("application/json"), json)));
+
+    // when
+    TestSubscriber<Animal> subscriber = service.streamAnimals(dateTime, date -> { }).test();
+
+    // then
+    subscriber.assertNoErrors();
+    subscriber.assertValue(Animal.create("Doggy", "dog"));
+  }
+
+  @Test
+  public void should_normalize_valid_date_before_request() throws Exception {
+    // given
+    service = new Service(api, ValidDatePolicy.truncate(60000), Schedulers.io());
+    DateTime dateTime = new DateTime(60000 * 10 + 1234);
+    when(api.loadProviderJson(any())).thenReturn(Single.just(new ServiceResponse(null, Collections.emptyList())));
+
+    // when
+    service.fetchResponse(dateTime).test();
+
+    // then
+    verify(api).loadProviderJson(DateHelper.encodeDate(new DateTime(60000 * 10)));
+  }
+
+  @Test
+  public void should_fetch_page_from_streamed_animals() {
+    // given
+    DateTime dateTime = DateTime.now();
+    String json = "{\"valid_date\": \"" + DateHelper.toString(dateTime) + "\", \"animals\": [" +
+        "{\"name\": \"Doggy\", \"image\": \"dog\"}," +
+        "{\"name\": \"Cathy\", \"image\": \"cat\"}," +
+        "{\"name\": \"Birdy\", \"image\": \"bird\"}]}";
+    when(api.streamProviderJson(any())).thenAnswer(invocation -> Single.just(ResponseBody.create(MediaType.parse("application/json"), json)));
+
+    // when
+    TestObserver<Page> first = service.fetchPage(dateTime, 0, 2).test();
+    TestObserver<Page> last = service.fetchPage(dateTime, 2, 2).test();
+
+    // then
+    first.assertValue(new Page(dateTime, Arrays.asList(Animal.create("Doggy", "dog"), Animal.create("Cathy", "cat")), 0, 2));
+    last.assertValue(new Page(dateTime, Collections.singletonList(Animal.create("Birdy", "bird")), 2, Page.NO_MORE));
+  }
+
+  private String pagedJson(DateTime dateTime) {
+    return "{\"valid_date\": \"" + DateHelper.toString(dateTime) + "\", \"animals\": [" +
+        "{\"name\": \"Doggy\", \"image\": \"dog\"}," +
+        "{\"name\": \"Cathy\", \"image\": \"cat\"}," +
+        "{\"name\": \"Birdy\", \"image\": \"bird\"}]}";
+  }
+
+  @Test
+  public void should_continue_next_page_from_open_body() {
+    // given
+    DateTime dateTime = DateTime.now();
+    String json = pagedJson(dateTime);
+    when(api.streamProviderJson(any())).thenAnswer(invocation -> Single.just(ResponseBody.create(MediaType.parse("application/json"), json)));
+    service = new Service(api, ValidDatePolicy.exact(), new RequestCoalescer<>(), null, null, new TestScheduler());
+
+    // when
+    TestObserver<Page> first = service.fetchPage(dateTime, 0, 1).test();
+    TestObserver<Page> second = service.fetchPage(dateTime, 1, 1).test();
+    TestObserver<Page> last = service.fetchPage(dateTime, 2, 1).test();
+
+    // then
+    verify(api, times(1)).streamProviderJson(any());
+    first.assertValue(new Page(dateTime, Collections.singletonList(Animal.create("Doggy", "dog")), 0, 1));
+    second.assertValue(new Page(dateTime, Collections.singletonList(Animal.create("Cathy", "cat")), 1, 2));
+    last.assertValue(new Page(dateTime, Collections.singletonList(Animal.create("Birdy", "bird")), 2, Page.NO_MORE));
+  }
+
+  @Test
+  public void should_read_next_page_from_new_body_once_pages_released() {
+    // given
+    DateTime dateTime = DateTime.now();
+    String json = pagedJson(dateTime);
+    when(api.streamProviderJson(any())).thenAnswer(invocation -> Single.just(ResponseBody.create(MediaType.parse("application/json"), json)));
+    service = new Service(api, ValidDatePolicy.exact(), new RequestCoalescer<>(), null, null, new TestScheduler());
+    service.fetchPage(dateTime, 0, 1).test();
+
+    // when
+    service.releasePages();
+    TestObserver<Page> second = service.fetchPage(dateTime, 1, 1).test();
+
+    // then
+    verify(api, times(2)).streamProviderJson(any());
+    second.assertValue(new Page(dateTime, Collections.singletonList(Animal.create("Cathy", "cat")), 1, 2));
+  }
+
+  @Test
+  public void should_read_earlier_page_from_new_body() {
+    // given
+    DateTime dateTime = DateTime.now();
+    String json = pagedJson(dateTime);
+    when(api.streamProviderJson(any())).thenAnswer(invocation -> Single.just(ResponseBody.create(MediaType.parse("application/json"), json)));
+    service = new Service(api, ValidDatePolicy.exact(), new RequestCoalescer<>(), null, null, new TestScheduler());
+    service.fetchPage(dateTime, 0, 1).test();
+    service.fetchPage(dateTime, 1, 1).test();
+
+    // when
+    TestObserver<Page> again = service.fetchPage(dateTime, 0, 1).test();
+    TestObserver<Page> next = service.fetchPage(dateTime, 2, 1).test();
+
+    // then
+    verify(api, times(2)).streamProviderJson(any());
+    again.assertValue(new Page(dateTime, Collections.singletonList(Animal.create("Doggy", "dog")), 0, 1));
+    next.assertValue(new Page(dateTime, Collections.singletonList(Animal.create("Birdy", "bird")), 2, Page.NO_MORE));
+  }
+
+  @Test
+  public void should_close_idle_page_body() {
+    // given
+    DateTime dateTime = DateTime.now();
+    String json = pagedJson(dateTime);
+    when(api.streamProviderJson(any())).thenAnswer(invocation -> Single.just(ResponseBody.create(MediaType.parse("application/json"), json)));
+    TestScheduler scheduler = new TestScheduler();
+    service = new Service(api, ValidDatePolicy.exact(), new RequestCoalescer<>(), null, null, scheduler);
+    service.fetchPage(dateTime, 0, 1).test();
+
+    // when
+    scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+    TestObserver<Page> second = service.fetchPage(dateTime, 1, 1).test();
+
+    // then
+    verify(api, times(2)).streamProviderJson(any());
+    second.assertValue(new Page(dateTime, Collections.singletonList(Animal.create("Cathy", "cat")), 1, 2));
+  }
+
 }
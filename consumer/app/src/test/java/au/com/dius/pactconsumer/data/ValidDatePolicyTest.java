@@ -0,0 +1,73 @@
+package au.com.dius.pactconsumer.data;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ValidDatePolicyTest {
+
+  static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+  static final DateTimeZone ZONE = DateTimeZone.forOffsetHours(10);
+
+  @Test
+  public void should_leave_date_unchanged_when_exact() {
+    // given
+    DateTime dateTime = DateTime.now();
+
+    // then
+    assertSame(dateTime, ValidDatePolicy.exact().normalize(dateTime));
+  }
+
+  @Test
+  public void should_truncate_to_start_of_bucket() {
+    // given
+    ValidDatePolicy policy = ValidDatePolicy.truncate(MINUTE);
+
+    // when
+    DateTime normalized = policy.normalize(new DateTime(10 * MINUTE + 1234, ZONE));
+
+    // then
+    assertEquals(10 * MINUTE, normalized.getMillis());
+    assertEquals(ZONE, normalized.getZone());
+  }
+
+  @Test
+  public void should_map_dates_in_same_bucket_to_same_value() {
+    // given
+    ValidDatePolicy policy = ValidDatePolicy.truncate(MINUTE);
+
+    // then
+    assertEquals(
+        policy.normalize(new DateTime(10 * MINUTE + 1, ZONE)),
+        policy.normalize(new DateTime(11 * MINUTE - 1, ZONE)));
+  }
+
+  @Test
+  public void should_pass_through_null() {
+    assertNull(ValidDatePolicy.truncate(MINUTE).normalize(null));
+    assertNull(ValidDatePolicy.validityWindow(MINUTE).normalize(null));
+  }
+
+  @Test
+  public void should_align_to_last_valid_date_within_window() {
+    // given
+    ValidDatePolicy policy = ValidDatePolicy.validityWindow(MINUTE);
+    DateTime validDate = new DateTime(10 * MINUTE + 500, ZONE);
+    policy.onResponse(ServiceResponse.create(validDate, Collections.emptyList()));
+
+    // then
+    assertEquals(validDate.getMillis(), policy.normalize(new DateTime(10 * MINUTE + 700, ZONE)).getMillis());
+    assertEquals(validDate.getMillis(), policy.normalize(new DateTime(11 * MINUTE + 499, ZONE)).getMillis());
+    assertEquals(11 * MINUTE, policy.normalize(new DateTime(11 * MINUTE + 500, ZONE)).getMillis());
+  }
+
+}
@@ -0,0 +1,165 @@
+package au.com.dius.pactconsumer.data.model;
+
+import com.squareup.moshi.JsonAdapter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AnimalPoolTest {
+
+  AnimalPool pool;
+
+  @Before
+  public void setUp() {
+    pool = new AnimalPool(16, 2);
+  }
+
+  @Test
+  public void should_reuse_equal_animals() {
+    // when
+    Animal first = pool.intern(new String("Doggy"), new String("dog"));
+    Animal second = pool.intern(new String("Doggy"), new String("dog"));
+
+    // then
+    assertSame(first, second);
+    assertEquals(1, pool.getHitCount());
+  }
+
+  @Test
+  public void should_share_type_strings_between_animals() {
+    // when
+    Animal doggy = pool.intern("Doggy", new String("dog"));
+    Animal puppy = pool.intern("Puppy", new String("dog"));
+
+    // then
+    assertSame(doggy.getType(), puppy.getType());
+    assertEquals(0, pool.codeOf("dog"));
+    assertEquals("dog", pool.typeOf(0));
+  }
+
+  @Test
+  public void should_stop_coding_types_when_table_is_full() {
+    // when
+    pool.intern("Doggy", "dog");
+    pool.intern("Kitty", "cat");
+    Animal birdy = pool.intern("Birdy", "bird");
+
+    // then
+    assertEquals("bird", birdy.getType());
+    assertEquals(AnimalPool.NO_CODE, pool.codeOf("bird"));
+    assertNull(pool.typeOf(2));
+  }
+
+  @Test
+  public void should_stay_bounded() {
+    // given
+    Animal first = pool.intern("Animal 0", "dog");
+
+    // when
+    for (int i = 1; i < 1000; i++) {
+      pool.intern("Animal " + i, "dog");
+    }
+
+    // then
+    assertEquals(16, pool.capacity());
+    assertTrue(pool.size() <= pool.capacity());
+    long misses = pool.getMissCount();
+    Animal again = pool.intern("Animal 0", "dog");
+    assertNotSame(first, again);
+    assertEquals(first, again);
+    assertEquals(misses + 1, pool.getMissCount());
+  }
+
+  @Test
+  public void should_let_unreferenced_animals_be_collected() throws InterruptedException {
+    // given
+    for (int i = 0; i < 8; i++) {
+      pool.intern("Animal " + i, "dog");
+    }
+
+    // when
+    for (int attempt = 0; attempt < 50 && pool.size() > 0; attempt++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    // then
+    assertEquals(0, pool.size());
+    assertEquals(0, pool.codeOf("dog"));
+  }
+
+  @Test
+  public void should_share_animals_interned_concurrently() throws Exception {
+    // given
+    int threads = 4;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Animal[]>> results = new ArrayList<>();
+
+    // when
+    for (int t = 0; t < threads; t++) {
+      results.add(executor.submit(() -> {
+        start.await();
+        Animal[] animals = new Animal[8];
+        for (int round = 0; round < 1000; round++) {
+          for (int i = 0; i < animals.length; i++) {
+            animals[i] = pool.intern("Animal " + i, "dog");
+          }
+        }
+        return animals;
+      }));
+    }
+    start.countDown();
+
+    // then
+    Animal[] expected = results.get(0).get();
+    for (Future<Animal[]> result : results) {
+      Animal[] animals = result.get();
+      for (int i = 0; i < animals.length; i++) {
+        assertEquals(Animal.create("Animal " + i, "dog"), animals[i]);
+        assertEquals(expected[i], animals[i]);
+      }
+    }
+    assertEquals(threads * 8000, pool.getHitCount() + pool.getMissCount());
+    executor.shutdown();
+  }
+
+  @Test
+  public void should_intern_decoded_animals() throws IOException {
+    // given
+    JsonAdapter<Animal> adapter = new AnimalJsonAdapter(pool);
+
+    // when
+    Animal first = adapter.fromJson("{\"name\":\"Doggy\",\"image\":\"dog\"}");
+    Animal second = adapter.fromJson("{\"image\":\"dog\",\"name\":\"Doggy\"}");
+
+    // then
+    assertSame(first, second);
+  }
+
+  @Test
+  public void should_not_confuse_different_animals() {
+    // when
+    Animal doggy = pool.intern("Doggy", "dog");
+    Animal kitty = pool.intern("Doggy", "cat");
+
+    // then
+    assertNotSame(doggy, kitty);
+    assertEquals("cat", kitty.getType());
+  }
+
+}
@@ -0,0 +1,70 @@
+package au.com.dius.pactconsumer.data.model;
+
+import com.squareup.moshi.JsonAdapter;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import au.com.dius.pactconsumer.app.di.NetworkModule;
+import au.com.dius.pactconsumer.util.DateHelper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ServiceResponseJsonAdapterTest {
+
+  JsonAdapter<ServiceResponse> adapter;
+
+  @Before
+  public void setUp() {
+    adapter = new NetworkModule().getMoshi().adapter(ServiceResponse.class);
+  }
+
+  @Test
+  public void should_read_provider_payload() throws IOException {
+    // given
+    DateTime dateTime = DateTime.now();
+    String json = "{" +
+        "\"test\": \"NO\"," +
+        "\"valid_date\": \"" + DateHelper.toString(dateTime) + "\"," +
+        "\"animals\": [" +
+        "{\"name\": \"Doggy\", \"image\": \"dog\", \"legs\": 4}," +
+        "{\"extra\": {\"nested\": [true, null]}, \"image\": \"cat\", \"name\": \"Cathy\"}" +
+        "]" +
+        "}";
+
+    // when
+    ServiceResponse response = adapter.fromJson(json);
+
+    // then
+    assertEquals(ServiceResponse.create(dateTime, Arrays.asList(
+        Animal.create("Doggy", "dog"),
+        Animal.create("Cathy", "cat")
+    )), response);
+  }
+
+  @Test
+  public void should_read_null_valid_date() throws IOException {
+    // when
+    ServiceResponse response = adapter.fromJson("{\"valid_date\": null, \"animals\": []}");
+
+    // then
+    assertNull(response.getValidDate());
+    assertEquals(Collections.emptyList(), response.getAnimals());
+  }
+
+  @Test
+  public void should_write_what_it_reads() throws IOException {
+    // given
+    ServiceResponse response = ServiceResponse.create(DateTime.now(), Collections.singletonList(Animal.create("Birdy", "bird")));
+
+    // then
+    assertEquals(response, adapter.fromJson(adapter.toJson(response)));
+  }
+
+}
@@ -0,0 +1,103 @@
+package au.com.dius.pactconsumer.data.network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+
+public class CacheControlInterceptorTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  MockWebServer server;
+  Cache cache;
+  OkHttpClient client;
+
+  @Before
+  public void setUp() throws IOException {
+    server = new MockWebServer();
+    server.start();
+    cache = new Cache(folder.getRoot(), 1024 * 1024);
+    client = new OkHttpClient.Builder()
+        .addNetworkInterceptor(new CacheControlInterceptor(1, TimeUnit.MINUTES))
+        .cache(cache)
+        .build();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.shutdown();
+  }
+
+  private String get(String path) throws IOException {
+    Request request = new Request.Builder().url(server.url(path)).build();
+    try (Response response = client.newCall(request).execute()) {
+      return response.body().string();
+    }
+  }
+
+  @Test
+  public void should_answer_repeated_requests_from_cache() throws IOException {
+    // given
+    server.enqueue(new MockResponse().setBody("first"));
+    server.enqueue(new MockResponse().setBody("second"));
+
+    // when
+    String first = get("/provider.json?valid_date=a");
+    String second = get("/provider.json?valid_date=a");
+
+    // then
+    assertEquals("first", first);
+    assertEquals("first", second);
+    assertEquals(1, server.getRequestCount());
+
+    HttpCacheMetrics metrics = new HttpCacheMetrics(cache);
+    assertEquals(2, metrics.getRequestCount());
+    assertEquals(1, metrics.getHitCount());
+    assertEquals(0.5, metrics.getHitRate(), 0.001);
+  }
+
+  @Test
+  public void should_respect_provider_cache_headers() throws IOException {
+    // given
+    server.enqueue(new MockResponse().setBody("first").setHeader("Cache-Control", "no-store"));
+    server.enqueue(new MockResponse().setBody("second"));
+
+    // when
+    get("/provider.json?valid_date=a");
+    String second = get("/provider.json?valid_date=a");
+
+    // then
+    assertEquals("second", second);
+    assertEquals(2, server.getRequestCount());
+  }
+
+  @Test
+  public void should_not_cache_errors() throws IOException {
+    // given
+    server.enqueue(new MockResponse().setResponseCode(404));
+    server.enqueue(new MockResponse().setBody("second"));
+
+    // when
+    get("/provider.json?valid_date=a");
+    String second = get("/provider.json?valid_date=a");
+
+    // then
+    assertEquals("second", second);
+  }
+
+}
@@ -0,0 +1,197 @@
+package au.com.dius.pactconsumer.data.network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.DeflaterSink;
+import okio.GzipSink;
+import okio.InflaterSource;
+import okio.Okio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ContentEncodingInterceptorTest {
+
+  static final String BODY = repeat("{\"name\":\"Doggy\",\"type\":\"dog\"},", 200);
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  MockWebServer server;
+  TransferMetrics metrics;
+  OkHttpClient client;
+
+  @Before
+  public void setUp() throws IOException {
+    server = new MockWebServer();
+    server.start();
+    metrics = new TransferMetrics();
+    client = new OkHttpClient.Builder()
+        .addInterceptor(new ContentEncodingInterceptor(metrics))
+        .build();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.shutdown();
+  }
+
+  private static String repeat(String text, int times) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < times; i++) {
+      builder.append(text);
+    }
+    return builder.toString();
+  }
+
+  private static Buffer gzip(String text) throws IOException {
+    Buffer buffer = new Buffer();
+    try (GzipSink sink = new GzipSink(buffer)) {
+      sink.write(new Buffer().writeUtf8(text), text.length());
+    }
+    return buffer;
+  }
+
+  private static Buffer deflate(String text) throws IOException {
+    Buffer buffer = new Buffer();
+    try (DeflaterSink sink = new DeflaterSink(buffer, new Deflater())) {
+      sink.write(new Buffer().writeUtf8(text), text.length());
+    }
+    return buffer;
+  }
+
+  private String get() throws IOException {
+    Request request = new Request.Builder().url(server.url("/provider.json")).build();
+    try (Response response = client.newCall(request).execute()) {
+      assertNull(response.header("Content-Encoding"));
+      return response.body().string();
+    }
+  }
+
+  @Test
+  public void should_decode_gzip_body() throws Exception {
+    // given
+    Buffer body = gzip(BODY);
+    long wire = body.size();
+    server.enqueue(new MockResponse().setBody(body).setHeader("Content-Encoding", "gzip"));
+
+    // when
+    String result = get();
+
+    // then
+    RecordedRequest request = server.takeRequest();
+    assertEquals("gzip", request.getHeader("Accept-Encoding"));
+    assertEquals(BODY, result);
+    assertEquals(wire, metrics.getWireBytes());
+    assertEquals(BODY.length(), metrics.getDecodedBytes());
+    assertTrue(metrics.getCompressionRatio() > 10);
+  }
+
+  @Test
+  public void should_count_plain_body_once_each_way() throws IOException {
+    // given
+    server.enqueue(new MockResponse().setBody(BODY));
+
+    // when
+    String result = get();
+
+    // then
+    assertEquals(BODY, result);
+    assertEquals(BODY.length(), metrics.getWireBytes());
+    assertEquals(BODY.length(), metrics.getDecodedBytes());
+    assertEquals(1, metrics.getCompressionRatio(), 0.001);
+  }
+
+  @Test
+  public void should_offer_extra_decoders_before_gzip() throws Exception {
+    // given
+    client = new OkHttpClient.Builder()
+        .addInterceptor(new ContentEncodingInterceptor(metrics, Collections.singletonMap(
+            "deflate", (ContentEncodingInterceptor.Decoder) source -> new InflaterSource(Okio.buffer(source), new Inflater()))))
+        .build();
+    server.enqueue(new MockResponse().setBody(deflate(BODY)).setHeader("Content-Encoding", "deflate"));
+
+    // when
+    String result = get();
+
+    // then
+    assertEquals("deflate, gzip", server.takeRequest().getHeader("Accept-Encoding"));
+    assertEquals(BODY, result);
+  }
+
+  @Test
+  public void should_leave_requests_with_own_accept_encoding_alone() throws Exception {
+    // given
+    server.enqueue(new MockResponse().setBody(gzip(BODY)).setHeader("Content-Encoding", "gzip"));
+    Request request = new Request.Builder()
+        .url(server.url("/provider.json"))
+        .header("Accept-Encoding", "identity")
+        .build();
+
+    // when
+    try (Response response = client.newCall(request).execute()) {
+
+      // then
+      assertEquals("gzip", response.header("Content-Encoding"));
+    }
+    assertEquals("identity", server.takeRequest().getHeader("Accept-Encoding"));
+    assertEquals(0, metrics.getWireBytes());
+  }
+
+  @Test
+  public void should_pass_through_empty_bodies() throws IOException {
+    // given
+    server.enqueue(new MockResponse().setResponseCode(204).setHeader("Content-Encoding", "gzip"));
+
+    // when
+    Request request = new Request.Builder().url(server.url("/provider.json")).build();
+    try (Response response = client.newCall(request).execute()) {
+
+      // then
+      assertEquals(204, response.code());
+    }
+  }
+
+  @Test
+  public void should_keep_compressed_body_in_cache_and_not_count_hits() throws IOException {
+    // given
+    client = new OkHttpClient.Builder()
+        .addInterceptor(new ContentEncodingInterceptor(metrics))
+        .addNetworkInterceptor(new CacheControlInterceptor(1, TimeUnit.MINUTES))
+        .cache(new Cache(folder.getRoot(), 1024 * 1024))
+        .build();
+    Buffer body = gzip(BODY);
+    long wire = body.size();
+    server.enqueue(new MockResponse().setBody(body).setHeader("Content-Encoding", "gzip"));
+
+    // when
+    String first = get();
+    String second = get();
+
+    // then
+    assertEquals(BODY, first);
+    assertEquals(BODY, second);
+    assertEquals(1, server.getRequestCount());
+    assertEquals(wire, metrics.getWireBytes());
+  }
+
+}
@@ -0,0 +1,99 @@
+package au.com.dius.pactconsumer.data.network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import au.com.dius.pactconsumer.util.Metrics;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.assertEquals;
+
+public class MetricsEventListenerTest {
+
+  MockWebServer server;
+  Metrics metrics;
+  OkHttpClient client;
+
+  @Before
+  public void setUp() throws IOException {
+    server = new MockWebServer();
+    server.start();
+    metrics = new Metrics();
+    client = new OkHttpClient.Builder()
+        .eventListenerFactory(MetricsEventListener.factory(metrics))
+        .retryOnConnectionFailure(false)
+        .build();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.shutdown();
+  }
+
+  private String get() throws IOException {
+    Request request = new Request.Builder().url(server.url("/provider.json")).build();
+    try (Response response = client.newCall(request).execute()) {
+      return response.body().string();
+    }
+  }
+
+  private long count(String name) {
+    return metrics.histogram(name).getCount();
+  }
+
+  @Test
+  public void should_record_each_stage_of_a_call() throws IOException {
+    // given
+    server.enqueue(new MockResponse().setBody("body"));
+
+    // when
+    get();
+
+    // then
+    assertEquals(1, count(Metrics.HTTP_CALL));
+    assertEquals(1, count(Metrics.HTTP_CONNECT));
+    assertEquals(1, count(Metrics.HTTP_FIRST_BYTE));
+    assertEquals(1, count(Metrics.HTTP_BODY));
+  }
+
+  @Test
+  public void should_not_connect_again_over_pooled_connection() throws IOException {
+    // given
+    server.enqueue(new MockResponse().setBody("first"));
+    server.enqueue(new MockResponse().setBody("second"));
+
+    // when
+    get();
+    get();
+
+    // then
+    assertEquals(2, count(Metrics.HTTP_CALL));
+    assertEquals(1, count(Metrics.HTTP_CONNECT));
+    assertEquals(2, count(Metrics.HTTP_FIRST_BYTE));
+  }
+
+  @Test
+  public void should_record_failed_calls() {
+    // given
+    server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+
+    // when
+    try {
+      get();
+    } catch (IOException ignored) {
+    }
+
+    // then
+    assertEquals(1, count(Metrics.HTTP_CALL));
+    assertEquals(0, count(Metrics.HTTP_BODY));
+  }
+
+}
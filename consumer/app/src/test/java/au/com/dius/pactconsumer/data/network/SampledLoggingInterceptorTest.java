@@ -0,0 +1,162 @@
+package au.com.dius.pactconsumer.data.network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import au.com.dius.pactconsumer.util.Logger;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SampledLoggingInterceptorTest {
+
+  MockWebServer server;
+  List<String> lines;
+  List<Runnable> pending;
+  OkHttpClient client;
+
+  @Before
+  public void setUp() throws IOException {
+    server = new MockWebServer();
+    server.start();
+    lines = new ArrayList<>();
+    pending = new ArrayList<>();
+    client = client(1, 8);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.shutdown();
+  }
+
+  private OkHttpClient client(int sampleRate, long maxBodyBytes) {
+    Logger logger = new Logger() {
+      @Override
+      public void d(String tag, String msg) {
+        lines.add(msg);
+      }
+    };
+    return new OkHttpClient.Builder()
+        .addInterceptor(new SampledLoggingInterceptor(logger, sampleRate, maxBodyBytes, pending::add))
+        .retryOnConnectionFailure(false)
+        .build();
+  }
+
+  private String get() throws IOException {
+    Request request = new Request.Builder().url(server.url("/provider.json")).build();
+    try (Response response = client.newCall(request).execute()) {
+      return response.body().string();
+    }
+  }
+
+  private void runWriter() {
+    for (Runnable runnable : pending) {
+      runnable.run();
+    }
+    pending.clear();
+  }
+
+  @Test
+  public void should_pass_whole_body_and_log_capped_prefix_on_writer() throws IOException {
+    // given
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "application/json")
+        .setBody("{\"animals\":[]}"));
+
+    // when
+    String body = get();
+
+    // then
+    assertEquals("{\"animals\":[]}", body);
+    assertTrue(lines.isEmpty());
+    assertEquals(1, pending.size());
+
+    runWriter();
+    assertEquals(1, lines.size());
+    String line = lines.get(0);
+    assertTrue(line.startsWith("--> GET " + server.url("/provider.json")));
+    assertTrue(line.contains("<-- 200 OK"));
+    assertTrue(line.contains("\n{\"animal...\n"));
+    assertTrue(line.contains("<-- END HTTP (14-byte body"));
+  }
+
+  @Test
+  public void should_log_one_in_every_sample_rate_calls() throws IOException {
+    // given
+    client = client(3, 8);
+    for (int i = 0; i < 7; i++) {
+      server.enqueue(new MockResponse().setBody("body"));
+    }
+
+    // when
+    for (int i = 0; i < 7; i++) {
+      get();
+    }
+
+    // then
+    assertEquals(3, pending.size());
+  }
+
+  @Test
+  public void should_log_when_body_is_closed_unread() throws IOException {
+    // given
+    server.enqueue(new MockResponse().setBody("body"));
+
+    // when
+    Request request = new Request.Builder().url(server.url("/provider.json")).build();
+    client.newCall(request).execute().close();
+
+    // then
+    runWriter();
+    assertEquals(1, lines.size());
+    assertTrue(lines.get(0).contains("<-- END HTTP (0-byte body"));
+  }
+
+  @Test
+  public void should_leave_binary_body_out() throws IOException {
+    // given
+    server.enqueue(new MockResponse().setHeader("Content-Type", "image/png").setBody("png"));
+
+    // when
+    get();
+
+    // then
+    runWriter();
+    assertFalse(lines.get(0).contains("\npng"));
+  }
+
+  @Test
+  public void should_log_failed_calls() {
+    // given
+    server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+
+    // when
+    try {
+      get();
+    } catch (IOException ignored) {
+    }
+
+    // then
+    runWriter();
+    assertEquals(1, lines.size());
+    assertTrue(lines.get(0).contains("<-- HTTP FAILED"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void should_reject_sample_rate_below_one() {
+    client(0, 8);
+  }
+
+}
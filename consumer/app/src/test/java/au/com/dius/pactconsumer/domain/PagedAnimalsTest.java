@@ -0,0 +1,118 @@
+package au.com.dius.pactconsumer.domain;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import au.com.dius.pactconsumer.data.model.Animal;
+import au.com.dius.pactconsumer.data.model.Page;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PagedAnimalsTest {
+
+  static final int PAGE_SIZE = 10;
+
+  PagedAnimals pagedAnimals;
+
+  @Before
+  public void setUp() {
+    pagedAnimals = new PagedAnimals(PAGE_SIZE, 3);
+  }
+
+  private Page page(int cursor, int count, boolean hasMore) {
+    List<Animal> animals = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      animals.add(Animal.create("Animal " + (cursor + i), "dog"));
+    }
+    return new Page(null, animals, cursor, hasMore ? cursor + count : Page.NO_MORE);
+  }
+
+  @Test
+  public void should_request_first_page_when_empty() {
+    assertEquals(Collections.singletonList(0), pagedAnimals.cursorsToLoad(0, 5));
+  }
+
+  @Test
+  public void should_not_request_page_already_loading() {
+    // given
+    pagedAnimals.cursorsToLoad(0, 5);
+
+    // then
+    assertTrue(pagedAnimals.cursorsToLoad(0, 5).isEmpty());
+  }
+
+  @Test
+  public void should_request_next_page_within_prefetch_distance() {
+    // given
+    pagedAnimals.cursorsToLoad(0, 5);
+    assertEquals(10, pagedAnimals.onPageLoaded(page(0, PAGE_SIZE, true)));
+
+    // then
+    assertTrue(pagedAnimals.cursorsToLoad(4, 5).isEmpty());
+    assertEquals(Collections.singletonList(10), pagedAnimals.cursorsToLoad(5, 5));
+  }
+
+  @Test
+  public void should_stop_requesting_after_last_page() {
+    // given
+    pagedAnimals.cursorsToLoad(0, 5);
+    pagedAnimals.onPageLoaded(page(0, 4, false));
+
+    // then
+    assertFalse(pagedAnimals.hasMore());
+    assertEquals(4, pagedAnimals.size());
+    assertTrue(pagedAnimals.cursorsToLoad(3, 5).isEmpty());
+  }
+
+  @Test
+  public void should_retry_failed_page() {
+    // given
+    pagedAnimals.cursorsToLoad(0, 5);
+
+    // when
+    pagedAnimals.onPageFailed(0);
+
+    // then
+    assertEquals(Collections.singletonList(0), pagedAnimals.cursorsToLoad(0, 5));
+  }
+
+  @Test
+  public void should_drop_pages_furthest_from_position() {
+    // given
+    for (int cursor = 0; cursor < 5 * PAGE_SIZE; cursor += PAGE_SIZE) {
+      pagedAnimals.onPageLoaded(page(cursor, PAGE_SIZE, true));
+    }
+
+    // when
+    List<Integer> dropped = pagedAnimals.trim(45);
+    Collections.sort(dropped);
+
+    // then
+    assertEquals(Arrays.asList(0, 10), dropped);
+    assertEquals(3, pagedAnimals.getLoadedPageCount());
+    assertEquals(50, pagedAnimals.size());
+    assertNull(pagedAnimals.get(5));
+    assertEquals(Animal.create("Animal 45", "dog"), pagedAnimals.get(45));
+  }
+
+  @Test
+  public void should_reload_dropped_page_when_shown_again() {
+    // given
+    for (int cursor = 0; cursor < 5 * PAGE_SIZE; cursor += PAGE_SIZE) {
+      pagedAnimals.onPageLoaded(page(cursor, PAGE_SIZE, true));
+    }
+    pagedAnimals.trim(45);
+
+    // then
+    assertEquals(Collections.singletonList(0), pagedAnimals.cursorsToLoad(5, 5));
+  }
+
+}
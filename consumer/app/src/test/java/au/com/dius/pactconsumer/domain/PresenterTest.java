@@ -10,15 +10,22 @@ import java.util.Collections;
 import au.com.dius.pactconsumer.R;
 import au.com.dius.pactconsumer.data.FakeService;
 import au.com.dius.pactconsumer.data.Repository;
+import au.com.dius.pactconsumer.data.ResponseSnapshot;
 import au.com.dius.pactconsumer.data.exceptions.ServiceException;
+import au.com.dius.pactconsumer.data.model.Animal;
 import au.com.dius.pactconsumer.data.model.ServiceResponse;
 import au.com.dius.pactconsumer.util.Logger;
 import au.com.dius.pactconsumer.util.TestRxBinder;
+import io.reactivex.Maybe;
 import io.reactivex.Single;
+import io.reactivex.schedulers.TestScheduler;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 public class PresenterTest {
@@ -85,4 +92,74 @@ public class PresenterTest {
     inOrder.verify(view).setViewState(ViewState.Loaded.create(FakeService.RESPONSE.getAnimals()));
   }
 
+  @Test
+  public void should_show_snapshot_before_network_response() {
+    // given
+    ResponseSnapshot snapshot = mock(ResponseSnapshot.class);
+    ServiceResponse cached = new ServiceResponse(null, Collections.singletonList(Animal.create("Cached", "dog")));
+    when(snapshot.load()).thenReturn(Maybe.just(cached));
+    when(repository.fetchResponse(any())).thenReturn(Single.just(FakeService.RESPONSE));
+    presenter = new Presenter(repository, view, new TestRxBinder(), mock(Logger.class), snapshot);
+
+    // when
+    presenter.onStart();
+
+    // then
+    InOrder inOrder = Mockito.inOrder(view);
+    inOrder.verify(view).setViewState(ViewState.Loaded.create(cached.getAnimals()));
+    inOrder.verify(view).setViewState(ViewState.Loaded.create(FakeService.RESPONSE.getAnimals()));
+    verify(snapshot).save(FakeService.RESPONSE);
+  }
+
+  @Test
+  public void should_keep_snapshot_when_fetch_fails() {
+    // given
+    ResponseSnapshot snapshot = mock(ResponseSnapshot.class);
+    ServiceResponse cached = new ServiceResponse(null, Collections.singletonList(Animal.create("Cached", "dog")));
+    when(snapshot.load()).thenReturn(Maybe.just(cached));
+    when(repository.fetchResponse(any())).thenReturn(Single.error(new ServiceException()));
+    presenter = new Presenter(repository, view, new TestRxBinder(), mock(Logger.class), snapshot);
+
+    // when
+    presenter.onStart();
+
+    // then
+    verify(view).setViewState(ViewState.Loaded.create(cached.getAnimals()));
+    verify(view, never()).setViewState(ViewState.Error.create(R.string.error_message));
+  }
+
+  @Test
+  public void should_keep_content_without_spinner_when_refreshing() {
+    // given
+    when(repository.fetchResponse(any())).thenReturn(Single.just(FakeService.RESPONSE));
+    presenter.onStart();
+    presenter.onStop();
+
+    // when
+    presenter.onStart();
+
+    // then
+    verify(view, times(1)).setViewState(ViewState.Loading.create());
+    verify(view, times(1)).setViewState(ViewState.Loaded.create(FakeService.RESPONSE.getAnimals()));
+  }
+
+  @Test
+  public void should_render_burst_once_per_frame() {
+    // given
+    TestScheduler frames = new TestScheduler();
+    ResponseSnapshot snapshot = mock(ResponseSnapshot.class);
+    ServiceResponse cached = new ServiceResponse(null, Collections.singletonList(Animal.create("Cached", "dog")));
+    when(snapshot.load()).thenReturn(Maybe.just(cached));
+    when(repository.fetchResponse(any())).thenReturn(Single.just(FakeService.RESPONSE));
+    presenter = new Presenter(repository, view, new TestRxBinder(), mock(Logger.class), snapshot, frames);
+
+    // when
+    presenter.onStart();
+    frames.triggerActions();
+
+    // then
+    verify(view).setViewState(ViewState.Loaded.create(FakeService.RESPONSE.getAnimals()));
+    verifyNoMoreInteractions(view);
+  }
+
 }
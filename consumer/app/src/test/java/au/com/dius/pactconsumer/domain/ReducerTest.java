@@ -0,0 +1,73 @@
+package au.com.dius.pactconsumer.domain;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import au.com.dius.pactconsumer.R;
+import au.com.dius.pactconsumer.data.FakeService;
+import au.com.dius.pactconsumer.data.exceptions.ServiceException;
+import au.com.dius.pactconsumer.data.model.Page;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ReducerTest {
+
+  static final ViewState LOADED = ViewState.Loaded.create(FakeService.RESPONSE.getAnimals());
+
+  Reducer reducer = new Reducer();
+
+  @Test
+  public void should_show_loading_on_refresh_without_content() {
+    assertEquals(ViewState.Loading.create(), reducer.apply(ViewState.Error.create(R.string.error_message), Event.Refresh.create()));
+  }
+
+  @Test
+  public void should_keep_content_on_refresh() {
+    assertSame(LOADED, reducer.apply(LOADED, Event.Refresh.create()));
+  }
+
+  @Test
+  public void should_show_loaded_animals() {
+    assertEquals(LOADED, reducer.apply(ViewState.Loading.create(), Event.Loaded.create(FakeService.RESPONSE.getAnimals())));
+  }
+
+  @Test
+  public void should_show_empty_when_nothing_loaded() {
+    assertEquals(ViewState.Empty.create(R.string.empty_message), reducer.apply(LOADED, Event.Loaded.create(Collections.emptyList())));
+  }
+
+  @Test
+  public void should_show_error_without_content() {
+    assertEquals(ViewState.Error.create(R.string.error_message), reducer.apply(ViewState.Loading.create(), Event.Failed.create(new ServiceException())));
+  }
+
+  @Test
+  public void should_keep_content_when_refresh_fails() {
+    assertSame(LOADED, reducer.apply(LOADED, Event.Failed.create(new ServiceException())));
+  }
+
+  @Test
+  public void should_show_paged_list_once_first_page_loads() {
+    Page page = new Page(null, FakeService.RESPONSE.getAnimals(), 0, 10);
+    assertEquals(ViewState.Paged.create(), reducer.apply(ViewState.Loading.create(), Event.PageLoaded.create(page)));
+  }
+
+  @Test
+  public void should_show_empty_when_first_page_has_nothing() {
+    Page page = new Page(null, Collections.emptyList(), 0, Page.NO_MORE);
+    assertEquals(ViewState.Empty.create(R.string.empty_message), reducer.apply(ViewState.Loading.create(), Event.PageLoaded.create(page)));
+  }
+
+  @Test
+  public void should_keep_pages_when_later_page_fails() {
+    assertSame(ViewState.Paged.create(), reducer.apply(ViewState.Paged.create(), Event.Failed.create(new ServiceException())));
+  }
+
+  @Test
+  public void should_show_loading_once_pages_are_cleared() {
+    assertEquals(ViewState.Loading.create(), reducer.apply(ViewState.Paged.create(), Event.PagesCleared.create()));
+  }
+
+}
@@ -0,0 +1,174 @@
+package au.com.dius.pactconsumer.domain;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import au.com.dius.pactconsumer.R;
+import au.com.dius.pactconsumer.data.FakeService;
+import au.com.dius.pactconsumer.data.Repository;
+import au.com.dius.pactconsumer.data.exceptions.ServiceException;
+import au.com.dius.pactconsumer.data.model.Page;
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import au.com.dius.pactconsumer.util.Logger;
+import au.com.dius.pactconsumer.util.TestRxBinder;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ViewStateStoreTest {
+
+  Repository repository;
+  PublishSubject<ServiceResponse> response;
+  ViewStateStore store;
+
+  @Before
+  public void setUp() {
+    repository = mock(Repository.class);
+    response = PublishSubject.create();
+    when(repository.fetchResponse(any())).thenReturn(response.singleOrError());
+    store = new ViewStateStore(repository, null, mock(Logger.class), Schedulers.trampoline());
+  }
+
+  private void respond() {
+    response.onNext(FakeService.RESPONSE);
+    response.onComplete();
+  }
+
+  @Test
+  public void should_keep_request_in_flight_across_recreation() {
+    // given
+    Contract.View first = mock(Contract.View.class);
+    Presenter presenter = new Presenter(store, first, new TestRxBinder(), mock(Logger.class), Schedulers.trampoline());
+    presenter.onStart();
+
+    // when
+    presenter.onStop();
+    Contract.View second = mock(Contract.View.class);
+    presenter = new Presenter(store, second, new TestRxBinder(), mock(Logger.class), Schedulers.trampoline());
+    presenter.onStart();
+
+    // then
+    verify(repository, times(1)).fetchResponse(any());
+    assertTrue(response.hasObservers());
+    verify(second).setViewState(ViewState.Loading.create());
+  }
+
+  @Test
+  public void should_replay_latest_state_to_new_view() {
+    // given
+    Presenter presenter = new Presenter(store, mock(Contract.View.class), new TestRxBinder(), mock(Logger.class), Schedulers.trampoline());
+    presenter.onStart();
+    presenter.onStop();
+    respond();
+
+    // when
+    Contract.View view = mock(Contract.View.class);
+    new Presenter(store, view, new TestRxBinder(), mock(Logger.class), Schedulers.trampoline()).onStart();
+
+    // then
+    verify(view).setViewState(ViewState.Loaded.create(FakeService.RESPONSE.getAnimals()));
+  }
+
+  @Test
+  public void should_not_refresh_while_loading() {
+    // when
+    store.refresh();
+    store.refresh();
+
+    // then
+    verify(repository, times(1)).fetchResponse(any());
+    assertTrue(store.isLoading());
+  }
+
+  @Test
+  public void should_show_error_when_load_fails_outside_response() {
+    // given
+    when(repository.fetchResponse(any())).thenThrow(new IllegalStateException("boom"));
+    Contract.View view = mock(Contract.View.class);
+    Presenter presenter = new Presenter(store, view, new TestRxBinder(), mock(Logger.class), Schedulers.trampoline());
+
+    // when
+    presenter.onStart();
+
+    // then
+    verify(view).setViewState(ViewState.Error.create(R.string.error_message));
+    assertFalse(store.isLoading());
+  }
+
+  @Test
+  public void should_refresh_again_after_load() {
+    // given
+    store.refresh();
+    respond();
+    assertFalse(store.isLoading());
+
+    // when
+    store.refresh();
+
+    // then
+    verify(repository, times(2)).fetchResponse(any());
+  }
+
+  @Test
+  public void should_show_paged_list_once_first_page_loads() {
+    // given
+    Page page = new Page(null, FakeService.RESPONSE.getAnimals(), 0, Page.NO_MORE);
+    when(repository.fetchPage(any(), anyInt(), anyInt())).thenReturn(Single.just(page));
+    Contract.View view = mock(Contract.View.class);
+    Presenter presenter = new Presenter(store, view, new TestRxBinder(), mock(Logger.class), Schedulers.trampoline());
+    presenter.onStartPaging();
+
+    // when
+    presenter.loadPage(DateTime.now(), 0, 10).test().assertValue(page);
+
+    // then
+    InOrder inOrder = Mockito.inOrder(view);
+    inOrder.verify(view).setViewState(ViewState.Loading.create());
+    inOrder.verify(view).setViewState(ViewState.Paged.create());
+    verify(repository, never()).fetchResponse(any());
+  }
+
+  @Test
+  public void should_show_error_when_first_page_fails() {
+    // given
+    when(repository.fetchPage(any(), anyInt(), anyInt())).thenReturn(Single.error(new ServiceException()));
+    Contract.View view = mock(Contract.View.class);
+    Presenter presenter = new Presenter(store, view, new TestRxBinder(), mock(Logger.class), Schedulers.trampoline());
+    presenter.onStartPaging();
+
+    // when
+    presenter.loadPage(DateTime.now(), 0, 10).test();
+
+    // then
+    verify(view).setViewState(ViewState.Error.create(R.string.error_message));
+  }
+
+  @Test
+  public void should_show_loading_and_release_pages_once_cleared() {
+    // given
+    Page page = new Page(null, FakeService.RESPONSE.getAnimals(), 0, 10);
+    when(repository.fetchPage(any(), anyInt(), anyInt())).thenReturn(Single.just(page));
+    store.fetchPage(DateTime.now(), 0, 10).test();
+
+    // when
+    store.clearPages();
+
+    // then
+    verify(repository).releasePages();
+    store.getViewStates().test().assertValue(ViewState.Loading.create());
+  }
+
+}
@@ -0,0 +1,186 @@
+package au.com.dius.pactconsumer.presentation;
+
+import android.support.v7.util.ListUpdateCallback;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import au.com.dius.pactconsumer.data.model.Animal;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.TestScheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+public class AnimalListDifferTest {
+
+  ListUpdateCallback callback;
+  TestScheduler diffScheduler;
+  AnimalListDiffer differ;
+
+  @Before
+  public void setUp() {
+    callback = mock(ListUpdateCallback.class);
+    diffScheduler = new TestScheduler();
+    differ = new AnimalListDiffer(callback, diffScheduler, Schedulers.trampoline());
+  }
+
+  private List<Animal> animals(String... names) {
+    List<Animal> animals = new ArrayList<>();
+    for (String name : names) {
+      animals.add(Animal.create(name, "dog"));
+    }
+    return animals;
+  }
+
+  @Test
+  public void should_insert_first_list_immediately() {
+    // when
+    differ.submit(animals("a", "b"));
+
+    // then
+    verify(callback).onInserted(0, 2);
+    assertEquals(2, differ.getAnimals().size());
+  }
+
+  @Test
+  public void should_dispatch_only_changed_rows() {
+    // given
+    differ.submit(animals("a", "b", "c", "d", "e"));
+    List<Animal> next = animals("a", "b", "x", "d", "e");
+    next.set(3, Animal.create("d", "cat"));
+
+    // when
+    differ.submit(next);
+    diffScheduler.triggerActions();
+
+    // then
+    verify(callback).onInserted(0, 5);
+    verify(callback).onChanged(3, 1, null);
+    verify(callback).onInserted(2, 1);
+    verify(callback).onRemoved(2, 1);
+    verifyNoMoreInteractions(callback);
+    assertEquals(next, differ.getAnimals());
+  }
+
+  @Test
+  public void should_diff_animals_without_name() {
+    // given
+    differ.submit(Arrays.asList(Animal.create("a", "dog"), Animal.create(null, "dog")));
+    List<Animal> next = Arrays.asList(Animal.create("a", "dog"), Animal.create(null, "cat"));
+
+    // when
+    differ.submit(next);
+    diffScheduler.triggerActions();
+
+    // then
+    verify(callback).onInserted(0, 2);
+    verify(callback).onChanged(1, 1, null);
+    verifyNoMoreInteractions(callback);
+    assertEquals(next, differ.getAnimals());
+  }
+
+  @Test
+  public void should_keep_list_until_diff_is_done() {
+    // given
+    List<Animal> first = animals("a", "b");
+    differ.submit(first);
+
+    // when
+    differ.submit(animals("a", "c"));
+
+    // then
+    assertSame(first, differ.getAnimals());
+  }
+
+  @Test
+  public void should_drop_stale_diff() {
+    // given
+    differ.submit(animals("a", "b"));
+    differ.submit(animals("a", "c"));
+    List<Animal> latest = animals("a", "d");
+
+    // when
+    differ.submit(latest);
+    diffScheduler.triggerActions();
+
+    // then
+    assertSame(latest, differ.getAnimals());
+    verify(callback).onInserted(0, 2);
+    verify(callback).onRemoved(1, 1);
+    verify(callback).onInserted(1, 1);
+    verifyNoMoreInteractions(callback);
+  }
+
+  @Test
+  public void should_not_dispatch_when_unchanged() {
+    // given
+    differ.submit(animals("a", "b"));
+
+    // when
+    differ.submit(animals("a", "b"));
+    diffScheduler.triggerActions();
+
+    // then
+    verify(callback).onInserted(0, 2);
+    verifyNoMoreInteractions(callback);
+  }
+
+  @Test
+  public void should_remove_everything_when_emptied() {
+    // given
+    differ.submit(animals("a", "b"));
+
+    // when
+    differ.submit(Collections.emptyList());
+
+    // then
+    verify(callback).onRemoved(0, 2);
+    assertEquals(0, differ.getAnimals().size());
+  }
+
+  @Test
+  public void should_only_diff_middle_of_large_list() {
+    // given
+    List<String> names = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      names.add("Animal " + i);
+    }
+    List<Animal> previous = animals(names.toArray(new String[0]));
+    List<Animal> next = new ArrayList<>(previous);
+    next.remove(5000);
+
+    // when
+    AnimalListDiffer.Update update = AnimalListDiffer.diff(previous, next);
+    update.dispatchTo(callback);
+
+    // then
+    verify(callback).onRemoved(5000, 1);
+    verifyNoMoreInteractions(callback);
+  }
+
+  @Test
+  public void should_drop_diff_after_clear() {
+    // given
+    differ.submit(animals("a"));
+    differ.submit(animals("b"));
+
+    // when
+    differ.clear();
+    diffScheduler.triggerActions();
+
+    // then
+    verify(callback).onInserted(0, 1);
+    verifyNoMoreInteractions(callback);
+    assertEquals(Arrays.asList(Animal.create("a", "dog")), differ.getAnimals());
+  }
+
+}
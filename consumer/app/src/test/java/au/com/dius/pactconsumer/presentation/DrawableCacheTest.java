@@ -0,0 +1,93 @@
+package au.com.dius.pactconsumer.presentation;
+
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import au.com.dius.pactconsumer.R;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DrawableCacheTest {
+
+  static final String PACKAGE = "au.com.dius.pactconsumer";
+
+  Resources resources;
+  Drawable drawable;
+  Drawable shared;
+  Drawable.ConstantState state;
+  DrawableCache cache;
+
+  @Before
+  public void setUp() {
+    resources = mock(Resources.class);
+    drawable = mock(Drawable.class);
+    shared = mock(Drawable.class);
+    state = mock(Drawable.ConstantState.class);
+    when(resources.getDrawable(anyInt(), isNull())).thenReturn(drawable);
+    when(drawable.getConstantState()).thenReturn(state);
+    when(state.newDrawable(resources)).thenReturn(shared);
+    cache = new DrawableCache(resources, PACKAGE, R.drawable.placeholder);
+  }
+
+  @Test
+  public void should_resolve_known_types_without_lookup() {
+    // when
+    int id = cache.resolve("dog");
+
+    // then
+    assertEquals(R.drawable.dog, id);
+    verify(resources, never()).getIdentifier(anyString(), anyString(), anyString());
+  }
+
+  @Test
+  public void should_look_up_unknown_type_once() {
+    // given
+    when(resources.getIdentifier("fish", "drawable", PACKAGE)).thenReturn(99);
+
+    // when
+    cache.resolve("fish");
+    int id = cache.resolve("fish");
+
+    // then
+    assertEquals(99, id);
+    assertEquals(1, cache.getLookupCount());
+    verify(resources, times(1)).getIdentifier("fish", "drawable", PACKAGE);
+  }
+
+  @Test
+  public void should_fall_back_to_placeholder() {
+    // given
+    when(resources.getIdentifier("unicorn", "drawable", PACKAGE)).thenReturn(0);
+
+    // then
+    assertEquals(R.drawable.placeholder, cache.resolve("unicorn"));
+    assertEquals(R.drawable.placeholder, cache.resolve(null));
+  }
+
+  @Test
+  public void should_share_constant_state_between_rows() {
+    // when
+    Drawable first = cache.get("cat");
+    Drawable second = cache.get("cat");
+
+    // then
+    assertSame(drawable, first);
+    assertSame(shared, second);
+    assertEquals(1, cache.getInflationCount());
+    verify(resources, times(1)).getDrawable(eq(R.drawable.cat), isNull());
+  }
+
+}
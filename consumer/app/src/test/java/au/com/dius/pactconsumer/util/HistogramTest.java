@@ -0,0 +1,105 @@
+package au.com.dius.pactconsumer.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramTest {
+
+  static final long MICROS = 1000;
+  static final long MILLIS = 1000000;
+
+  Histogram histogram;
+
+  @Before
+  public void setUp() {
+    histogram = new Histogram();
+  }
+
+  @Test
+  public void should_place_durations_in_power_of_two_buckets() {
+    // then
+    assertEquals(0, Histogram.bucketOf(0));
+    assertEquals(1, Histogram.bucketOf(1));
+    assertEquals(2, Histogram.bucketOf(2));
+    assertEquals(2, Histogram.bucketOf(3));
+    assertEquals(11, Histogram.bucketOf(1024));
+    assertEquals(Histogram.BUCKETS - 1, Histogram.bucketOf(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void should_count_mean_and_max() {
+    // when
+    histogram.record(2 * MILLIS);
+    histogram.record(4 * MILLIS);
+
+    // then
+    Histogram.Snapshot snapshot = histogram.snapshot();
+    assertEquals(2, snapshot.getCount());
+    assertEquals(3 * MILLIS, snapshot.getMeanNanos());
+    assertEquals(4 * MILLIS, snapshot.getMaxNanos());
+  }
+
+  @Test
+  public void should_report_bucket_bound_for_percentile() {
+    // given
+    for (int i = 0; i < 99; i++) {
+      histogram.record(100 * MICROS);
+    }
+    histogram.record(10 * MILLIS);
+
+    // when
+    Histogram.Snapshot snapshot = histogram.snapshot();
+
+    // then
+    assertEquals(128, snapshot.percentileMicros(0.5));
+    assertEquals(128, snapshot.percentileMicros(0.99));
+    assertEquals(10001, snapshot.percentileMicros(1.0));
+  }
+
+  @Test
+  public void should_treat_negative_durations_as_zero() {
+    // when
+    histogram.record(-5);
+
+    // then
+    assertEquals(1, histogram.snapshot().getBucketCount(0));
+  }
+
+  @Test
+  public void should_not_change_snapshot_after_it_is_taken() {
+    // given
+    histogram.record(MILLIS);
+    Histogram.Snapshot snapshot = histogram.snapshot();
+
+    // when
+    histogram.record(MILLIS);
+    histogram.reset();
+
+    // then
+    assertEquals(1, snapshot.getCount());
+    assertEquals(0, histogram.getCount());
+  }
+
+  @Test
+  public void should_export_histograms_that_recorded_something() {
+    // given
+    Metrics metrics = new Metrics();
+    metrics.histogram(Metrics.DECODE).record(MILLIS);
+    metrics.histogram(Metrics.RENDER);
+
+    // when
+    Map<String, Histogram.Snapshot> snapshot = metrics.snapshot();
+    String export = metrics.export();
+
+    // then
+    assertEquals(2, snapshot.size());
+    assertTrue(export.startsWith(Metrics.DECODE + " count=1 "));
+    assertEquals(1, export.split("\n").length);
+  }
+
+}
@@ -0,0 +1,104 @@
+package au.com.dius.pactconsumer.util;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.chrono.BuddhistChronology;
+import org.junit.Test;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class IsoDateTimeCodecTest {
+
+  static final DateTimeZone[] ZONES = {
+      DateTimeZone.UTC,
+      DateTimeZone.forID("Australia/Melbourne"),
+      DateTimeZone.forID("America/St_Johns"),
+      DateTimeZone.forOffsetHoursMinutes(-9, -30),
+  };
+
+  @Test
+  public void should_format_like_joda() throws UnsupportedEncodingException {
+    Random random = new Random(42);
+    for (int i = 0; i < 10000; i++) {
+      // given
+      long millis = (long) ((random.nextDouble() - 0.5) * 2 * 200L * 365 * 24 * 3600 * 1000) + 30L * 365 * 24 * 3600 * 1000;
+      DateTime dateTime = new DateTime(millis, ZONES[i % ZONES.length]);
+
+      // then
+      assertEquals(dateTime.toString(), IsoDateTimeCodec.format(dateTime));
+      assertEquals(URLEncoder.encode(dateTime.toString(), "UTF-8"), IsoDateTimeCodec.encode(dateTime));
+    }
+  }
+
+  @Test
+  public void should_parse_like_joda() {
+    Random random = new Random(7);
+    for (int i = 0; i < 10000; i++) {
+      // given
+      long millis = (long) ((random.nextDouble() - 0.5) * 2 * 200L * 365 * 24 * 3600 * 1000);
+      String value = new DateTime(millis, ZONES[i % ZONES.length]).toString();
+
+      // then
+      assertEquals(DateTime.parse(value), IsoDateTimeCodec.parse(value));
+    }
+  }
+
+  @Test
+  public void should_parse_provider_forms_like_joda() {
+    String[] values = {
+        "2017-01-19T11:25:21+11:00",
+        "2017-01-19T11:25:21Z",
+        "2017-01-19T11:25:21.1Z",
+        "2017-01-19T11:25:21.123456789-03:30",
+        "2017-01-19T11:25:21,5+0530",
+        "2017-01-19T11:25:21+05",
+        "2016-02-29T00:00:00.000+00:00",
+    };
+    for (String value : values) {
+      assertEquals(value, DateTime.parse(value), IsoDateTimeCodec.parse(value));
+    }
+  }
+
+  @Test
+  public void should_fall_back_to_joda_for_other_forms() {
+    String[] values = {
+        "2017-01-19",
+        "2017-01-19T11:25",
+        "2017-01-19T11:25:21",
+        "12017-01-19T11:25:21Z",
+    };
+    for (String value : values) {
+      assertEquals(value, DateTime.parse(value), IsoDateTimeCodec.parse(value));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void should_reject_invalid_dates() {
+    IsoDateTimeCodec.parse("2017-02-30T11:25:21Z");
+  }
+
+  @Test
+  public void should_format_other_chronologies_like_joda() {
+    // given
+    DateTime dateTime = new DateTime(0, BuddhistChronology.getInstance(DateTimeZone.UTC));
+
+    // then
+    assertEquals(dateTime.toString(), IsoDateTimeCodec.format(dateTime));
+  }
+
+  @Test
+  public void should_return_cached_values() {
+    // given
+    DateTime dateTime = DateTime.now();
+    String value = IsoDateTimeCodec.format(dateTime);
+
+    // then
+    assertEquals(value, IsoDateTimeCodec.format(dateTime));
+    assertEquals(IsoDateTimeCodec.parse(value), IsoDateTimeCodec.parse(value));
+  }
+
+}
@@ -0,0 +1,106 @@
+package au.com.dius.pactconsumer.util;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.schedulers.Schedulers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class SchedulerProviderTest {
+
+  @Test
+  public void should_not_grow_io_threads_under_load() throws InterruptedException {
+    // given
+    SchedulerProvider schedulers = SchedulerProvider.bounded(2, 1, Schedulers.trampoline());
+    Set<String> threads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(10);
+
+    // when
+    for (int i = 0; i < 10; i++) {
+      schedulers.io().scheduleDirect(() -> {
+        threads.add(Thread.currentThread().getName());
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        done.countDown();
+      });
+    }
+    MeteredExecutor executor = schedulers.getIoExecutor();
+    assertNotNull(executor);
+    int depth = executor.getMaxQueueDepth();
+    release.countDown();
+
+    // then
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(2, threads.size());
+    assertEquals(2, executor.getLargestPoolSize());
+    assertTrue(depth >= 8);
+    assertTrue(executor.getUtilization() > 0);
+  }
+
+  @Test
+  public void should_run_binder_on_injected_schedulers() {
+    // given
+    RxBinder binder = new RxBinder(SchedulerProvider.trampoline(), mock(Logger.class));
+    List<Integer> values = new ArrayList<>();
+
+    // when
+    binder.bind(Observable.just(1, 2), values::add, error -> {}, () -> {});
+
+    // then
+    assertEquals(Arrays.asList(1, 2), values);
+  }
+
+  @Test
+  public void should_report_callback_errors_to_logger() {
+    // given
+    Logger logger = mock(Logger.class);
+    RxBinder binder = new RxBinder(SchedulerProvider.trampoline(), logger);
+    IllegalStateException error = new IllegalStateException();
+
+    // when
+    binder.bind(Observable.just(1), value -> {
+      throw error;
+    }, e -> {}, () -> {});
+
+    // then
+    verify(logger).e(anyString(), eq("Error calling onNext"), same(error));
+  }
+
+  @Test
+  public void should_run_io_on_virtual_threads_when_available() {
+    // given
+    SchedulerProvider schedulers = SchedulerProvider.virtualThreads(Schedulers.trampoline());
+    Assume.assumeNotNull(schedulers);
+
+    // when
+    String thread = Observable.fromCallable(() -> Thread.currentThread().toString())
+        .subscribeOn(schedulers.io())
+        .blockingFirst();
+
+    // then
+    assertTrue(thread.contains("VirtualThread"));
+  }
+
+}
@@ -1,52 +1,14 @@
 package au.com.dius.pactconsumer.util;
 
-import io.reactivex.Observable;
-import io.reactivex.exceptions.Exceptions;
-import io.reactivex.functions.Action;
-import io.reactivex.functions.Consumer;
-import io.reactivex.observers.DisposableObserver;
-
 public class TestRxBinder extends RxBinder {
 
-  @Override
-  public <T> void bind(Observable<T> observable,
-                       Consumer<T> onNext,
-                       Consumer<Exception> onError,
-                       Action onComplete) {
-    observable
-        .subscribeWith(new DisposableObserver<T>() {
-
-          @Override
-          public void onNext(T o) {
-            try {
-              onNext.accept(o);
-            } catch (Exception e) {
-              e.printStackTrace();
-            }
-          }
-
-          @Override
-          public void onError(Throwable thr) {
-            if (!(thr instanceof Exception)) {
-              Exceptions.throwIfFatal(thr);
-              return;
-            }
-
-            try {
-              onError.accept((Exception) thr);
-            } catch (Exception e) {
-              e.printStackTrace();
-            }
-          }
-
-          @Override
-          public void onComplete() {
-            try {
-              onComplete.run();
-            } catch (Exception e) {
-              e.printStackTrace();
-            }
-          }
-        });
+  public TestRxBinder() {
+    super(SchedulerProvider.trampoline(), new Logger() {
+      @Override
+      public void e(String tag, String msg, Throwable tr) {
+        tr.printStackTrace();
+      }
+    });
   }
+
 }
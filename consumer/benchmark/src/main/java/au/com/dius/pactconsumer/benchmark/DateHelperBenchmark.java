@@ -0,0 +1,76 @@
+package au.com.dius.pactconsumer.benchmark;
+
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.concurrent.TimeUnit;
+
+import au.com.dius.pactconsumer.util.DateHelper;
+
+/**
+ * Encodes and parses valid dates with {@link DateHelper} and, for comparison, with Joda directly.
+ * <p>
+ * Each invocation takes the next of {@code distinct} date times, so the codec's small caches only help
+ * when a handful of dates are in use.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateHelperBenchmark {
+
+  @Param({"codec", "joda"})
+  String implementation;
+
+  @Param({"1", "1024"})
+  int distinct;
+
+  private DateTime[] dateTimes;
+  private String[] formatted;
+
+  private boolean joda;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    dateTimes = Payloads.dateTimes(distinct, 42);
+    formatted = new String[distinct];
+    for (int i = 0; i < distinct; i++) {
+      formatted[i] = dateTimes[i].toString();
+    }
+    joda = "joda".equals(implementation);
+  }
+
+  private int nextIndex() {
+    int index = next;
+    next = index + 1 == distinct ? 0 : index + 1;
+    return index;
+  }
+
+  @Benchmark
+  public String encodeDate() throws UnsupportedEncodingException {
+    DateTime dateTime = dateTimes[nextIndex()];
+    return joda ? URLEncoder.encode(dateTime.toString(), "UTF-8") : DateHelper.encodeDate(dateTime);
+  }
+
+  @Benchmark
+  public DateTime parse() {
+    String value = formatted[nextIndex()];
+    return joda ? DateTime.parse(value) : DateHelper.parse(value);
+  }
+
+}
@@ -0,0 +1,63 @@
+package au.com.dius.pactconsumer.benchmark;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import au.com.dius.pactconsumer.data.model.AnimalPool;
+import au.com.dius.pactconsumer.data.model.MoshiFactory;
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import au.com.dius.pactconsumer.util.Histogram;
+import okio.Buffer;
+
+/**
+ * Decodes provider.json bodies with the app's Moshi instance, and with a reflective one for comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecodeBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  int animals;
+
+  @Param({"handwritten", "reflective"})
+  String adapters;
+
+  private byte[] body;
+
+  private JsonAdapter<ServiceResponse> adapter;
+
+  @Setup
+  public void setUp() {
+    body = Payloads.json(animals, 42).getBytes(StandardCharsets.UTF_8);
+    Moshi moshi = "handwritten".equals(adapters)
+        ? MoshiFactory.create(new Histogram(), new AnimalPool())
+        : new Moshi.Builder().add(new MoshiFactory.DateTimeAdapter()).build();
+    adapter = moshi.adapter(ServiceResponse.class);
+  }
+
+  @Benchmark
+  public ServiceResponse decode() throws IOException {
+    return adapter.fromJson(new Buffer().write(body));
+  }
+
+}
@@ -0,0 +1,89 @@
+package au.com.dius.pactconsumer.benchmark;
+
+import java.util.Random;
+
+/**
+ * How long the stub provider waits before answering a request.
+ */
+abstract class LatencyDistribution {
+
+  abstract long sampleMillis(Random random);
+
+  static LatencyDistribution fixed(long millis) {
+    return new LatencyDistribution() {
+      @Override
+      long sampleMillis(Random random) {
+        return millis;
+      }
+
+      @Override
+      public String toString() {
+        return "fixed:" + millis;
+      }
+    };
+  }
+
+  static LatencyDistribution uniform(long minMillis, long maxMillis) {
+    if (maxMillis < minMillis) {
+      throw new IllegalArgumentException("Invalid range: " + minMillis + ", " + maxMillis);
+    }
+    return new LatencyDistribution() {
+      @Override
+      long sampleMillis(Random random) {
+        return minMillis + (long) (random.nextDouble() * (maxMillis - minMillis + 1));
+      }
+
+      @Override
+      public String toString() {
+        return "uniform:" + minMillis + ":" + maxMillis;
+      }
+    };
+  }
+
+  /**
+   * A long-tailed distribution with the given mean, capped at 20 times the mean.
+   */
+  static LatencyDistribution exponential(long meanMillis) {
+    return new LatencyDistribution() {
+      @Override
+      long sampleMillis(Random random) {
+        double sample = -Math.log(1 - random.nextDouble()) * meanMillis;
+        return (long) Math.min(sample, meanMillis * 20.0);
+      }
+
+      @Override
+      public String toString() {
+        return "exponential:" + meanMillis;
+      }
+    };
+  }
+
+  /**
+   * Parses {@code fixed:<ms>}, {@code uniform:<min ms>:<max ms>} or {@code exponential:<mean ms>}.
+   */
+  static LatencyDistribution parse(String value) {
+    String[] parts = value.split(":");
+    try {
+      switch (parts[0]) {
+        case "fixed":
+          if (parts.length == 2) {
+            return fixed(Long.parseLong(parts[1]));
+          }
+          break;
+        case "uniform":
+          if (parts.length == 3) {
+            return uniform(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+          }
+          break;
+        case "exponential":
+          if (parts.length == 2) {
+            return exponential(Long.parseLong(parts[1]));
+          }
+          break;
+      }
+    } catch (NumberFormatException ignored) {
+    }
+    throw new IllegalArgumentException("Unknown latency distribution: " + value);
+  }
+
+}
@@ -0,0 +1,471 @@
+package au.com.dius.pactconsumer.benchmark;
+
+import com.jakewharton.retrofit2.adapter.rxjava2.HttpException;
+import com.jakewharton.retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
+
+import org.joda.time.DateTime;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import au.com.dius.pactconsumer.data.RequestCoalescer;
+import au.com.dius.pactconsumer.data.Service;
+import au.com.dius.pactconsumer.data.ValidDatePolicy;
+import au.com.dius.pactconsumer.data.exceptions.BadRequestException;
+import au.com.dius.pactconsumer.data.model.AnimalPool;
+import au.com.dius.pactconsumer.data.model.BatchResponse;
+import au.com.dius.pactconsumer.data.model.MoshiFactory;
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import au.com.dius.pactconsumer.util.Histogram;
+import au.com.dius.pactconsumer.util.MeteredExecutor;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockWebServer;
+import retrofit2.Retrofit;
+import retrofit2.converter.moshi.MoshiConverterFactory;
+
+/**
+ * Runs rounds of concurrent {@link Service#fetchResponse(DateTime)} calls against a {@link StubProvider},
+ * and reports throughput, latency percentiles, outcomes, the heap high-water mark and any subscriptions
+ * still open once every call has finished.
+ * <p>
+ * Every call of a round is submitted at once. Latency is measured from when a call starts running, and the
+ * time it spent queued for one of the {@code concurrency} threads is reported separately.
+ * <p>
+ * With {@code batch} set, each round instead fetches the dates through
+ * {@link Service#fetchResponses(java.util.Collection, int)} once per listed concurrency level, and reports
+ * the throughput of each level.
+ * <p>
+ * Options are given as {@code key=value} arguments, see {@link Config}. Running several rounds turns it
+ * into a soak test: heap after GC and open subscriptions should stay flat from round to round.
+ */
+public final class LoadHarness {
+
+  private static final long ROUND_TIMEOUT_MINUTES = 10;
+
+  private final Config config;
+
+  private LoadHarness(Config config) {
+    this.config = config;
+  }
+
+  public static void main(String[] args) throws Exception {
+    Config config = Config.parse(args);
+    System.out.println(config);
+    if (!new LoadHarness(config).run()) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * @return false if any round left calls unfinished or subscriptions open
+   */
+  private boolean run() throws IOException, InterruptedException {
+    MockWebServer server = new MockWebServer();
+    server.setDispatcher(new StubProvider(
+        config.animals, config.latency, config.badRequestRate, config.notFoundRate, config.serverErrorRate));
+    server.start();
+
+    MeteredExecutor executor = new MeteredExecutor("load", Math.max(config.concurrency, config.maxBatchConcurrency()));
+    Scheduler scheduler = Schedulers.from(executor);
+    try {
+      OkHttpClient client = new OkHttpClient.Builder()
+          .connectionPool(new ConnectionPool(config.concurrency, 1, TimeUnit.MINUTES))
+          .readTimeout(1, TimeUnit.MINUTES)
+          .build();
+      Retrofit retrofit = new Retrofit.Builder()
+          .baseUrl(server.url("/"))
+          .client(client)
+          .addConverterFactory(MoshiConverterFactory.create(MoshiFactory.create(new Histogram(), new AnimalPool())))
+          .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
+          .build();
+      RequestCoalescer<ServiceResponse> coalescer = new RequestCoalescer<>();
+      Service service = new Service(retrofit.create(Service.Api.class), ValidDatePolicy.exact(), coalescer, scheduler);
+      DateTime[] dates = Payloads.dateTimes(config.distinctDates, 7);
+
+      boolean clean = true;
+      for (int round = 1; round <= config.rounds; round++) {
+        if (config.batchConcurrency.length == 0) {
+          Round result = runRound(service, coalescer, dates, scheduler);
+          System.out.println("round " + round + ": " + result);
+          clean &= result.isClean();
+        } else {
+          for (int level : config.batchConcurrency) {
+            BatchRound result = runBatch(service, coalescer, dates, level);
+            System.out.println("round " + round + " batch concurrency=" + level + ": " + result);
+            clean &= result.isClean();
+          }
+        }
+        // the server keeps every request it has seen, which would otherwise show up as heap growth
+        while (server.takeRequest(0, TimeUnit.SECONDS) != null) {
+        }
+      }
+      System.out.println("executor: " + executor + ", server requests=" + server.getRequestCount());
+      return clean;
+    } finally {
+      executor.shutdownNow();
+      server.shutdown();
+    }
+  }
+
+  private Round runRound(Service service,
+                         RequestCoalescer<ServiceResponse> coalescer,
+                         DateTime[] dates,
+                         Scheduler scheduler) throws InterruptedException {
+    int requests = config.requests;
+    long[] waits = new long[requests];
+    long[] latencies = new long[requests];
+    AtomicLongArray outcomes = new AtomicLongArray(Outcome.values().length);
+    AtomicInteger open = new AtomicInteger();
+    CountDownLatch finished = new CountDownLatch(requests);
+
+    System.gc();
+    resetHeapPeaks();
+
+    long roundStart = System.nanoTime();
+    for (int i = 0; i < requests; i++) {
+      int index = i;
+      long submitted = System.nanoTime();
+      service.fetchResponse(dates[i % dates.length])
+          .doOnSubscribe(disposable -> waits[index] = System.nanoTime() - submitted)
+          .subscribeOn(scheduler)
+          .doOnSubscribe(disposable -> open.incrementAndGet())
+          .doFinally(open::decrementAndGet)
+          .subscribe(
+              response -> {
+                latencies[index] = System.nanoTime() - submitted - waits[index];
+                Outcome outcome = response.getAnimals().isEmpty() ? Outcome.NOT_FOUND : Outcome.OK;
+                outcomes.incrementAndGet(outcome.ordinal());
+                finished.countDown();
+              },
+              error -> {
+                latencies[index] = System.nanoTime() - submitted - waits[index];
+                outcomes.incrementAndGet(Outcome.of(error).ordinal());
+                finished.countDown();
+              });
+    }
+
+    boolean completed = finished.await(ROUND_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+    long elapsed = System.nanoTime() - roundStart;
+    long heapPeak = heapPeak();
+
+    // doFinally runs just after the final callback, so give the last few a moment to get there
+    for (int i = 0; i < 100 && open.get() > 0; i++) {
+      Thread.sleep(10);
+    }
+    System.gc();
+    long heapAfterGc = heapUsed();
+
+    return new Round(requests, elapsed, waits, latencies, outcomes, completed ? 0 : finished.getCount(),
+        open.get(), coalescer.getInFlightCount(), heapPeak, heapAfterGc);
+  }
+
+  private BatchRound runBatch(Service service,
+                              RequestCoalescer<ServiceResponse> coalescer,
+                              DateTime[] dates,
+                              int maxConcurrency) throws InterruptedException {
+    List<DateTime> batch = new ArrayList<>(config.requests);
+    for (int i = 0; i < config.requests; i++) {
+      batch.add(dates[i % dates.length]);
+    }
+    AtomicLongArray outcomes = new AtomicLongArray(Outcome.values().length);
+    AtomicInteger received = new AtomicInteger();
+    CountDownLatch finished = new CountDownLatch(1);
+
+    System.gc();
+    resetHeapPeaks();
+
+    long start = System.nanoTime();
+    service.fetchResponses(batch, maxConcurrency)
+        .subscribe(
+            response -> {
+              received.incrementAndGet();
+              outcomes.incrementAndGet(Outcome.of(response).ordinal());
+            },
+            error -> {
+              error.printStackTrace();
+              finished.countDown();
+            },
+            finished::countDown);
+
+    boolean completed = finished.await(ROUND_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+    long elapsed = System.nanoTime() - start;
+    long heapPeak = heapPeak();
+
+    // the coalescer lets go of a request just after passing its result on
+    for (int i = 0; i < 100 && coalescer.getInFlightCount() > 0; i++) {
+      Thread.sleep(10);
+    }
+
+    return new BatchRound(received.get(), elapsed, outcomes, completed, coalescer.getInFlightCount(), heapPeak);
+  }
+
+  private static void resetHeapPeaks() {
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pool.resetPeakUsage();
+      }
+    }
+  }
+
+  private static long heapPeak() {
+    long peak = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        peak += pool.getPeakUsage().getUsed();
+      }
+    }
+    return peak;
+  }
+
+  private static long heapUsed() {
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  private enum Outcome {
+    OK, NOT_FOUND, BAD_REQUEST, SERVER_ERROR, OTHER_ERROR;
+
+    static Outcome of(BatchResponse response) {
+      if (!response.isSuccess()) {
+        return of(response.getError());
+      }
+      return response.getResponse().getAnimals().isEmpty() ? NOT_FOUND : OK;
+    }
+
+    static Outcome of(Throwable error) {
+      if (error instanceof BadRequestException) {
+        return BAD_REQUEST;
+      }
+      if (error instanceof HttpException && ((HttpException) error).code() >= 500) {
+        return SERVER_ERROR;
+      }
+      return OTHER_ERROR;
+    }
+
+    static String format(AtomicLongArray outcomes) {
+      StringBuilder text = new StringBuilder();
+      for (Outcome outcome : values()) {
+        text.append(' ').append(outcome.name().toLowerCase(Locale.US)).append('=')
+            .append(outcomes.get(outcome.ordinal()));
+      }
+      return text.toString();
+    }
+  }
+
+  private static class Round {
+
+    final int requests;
+    final long elapsedNanos;
+    final long[] waits;
+    final long[] latencies;
+    final AtomicLongArray outcomes;
+    final long unfinished;
+    final int openSubscriptions;
+    final int inFlight;
+    final long heapPeak;
+    final long heapAfterGc;
+
+    Round(int requests, long elapsedNanos, long[] waits, long[] latencies, AtomicLongArray outcomes, long unfinished,
+          int openSubscriptions, int inFlight, long heapPeak, long heapAfterGc) {
+      this.requests = requests;
+      this.elapsedNanos = elapsedNanos;
+      this.waits = waits.clone();
+      this.latencies = latencies.clone();
+      this.outcomes = outcomes;
+      this.unfinished = unfinished;
+      this.openSubscriptions = openSubscriptions;
+      this.inFlight = inFlight;
+      this.heapPeak = heapPeak;
+      this.heapAfterGc = heapAfterGc;
+      Arrays.sort(this.waits);
+      Arrays.sort(this.latencies);
+    }
+
+    boolean isClean() {
+      return unfinished == 0 && openSubscriptions == 0 && inFlight == 0;
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+      int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+      return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    @Override
+    public String toString() {
+      double seconds = elapsedNanos / 1e9;
+      return String.format(Locale.US,
+          "%d calls in %.2fs (%.0f/s) | p50=%.1fms p90=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms"
+              + " | queued p50=%.1fms p99=%.1fms |%s"
+              + " | heap peak=%.1fMB after gc=%.1fMB | unfinished=%d open subscriptions=%d coalesced in flight=%d",
+          requests, seconds, requests / seconds,
+          percentileMillis(latencies, 0.5), percentileMillis(latencies, 0.9), percentileMillis(latencies, 0.99),
+          percentileMillis(latencies, 0.999), percentileMillis(latencies, 1.0),
+          percentileMillis(waits, 0.5), percentileMillis(waits, 0.99),
+          Outcome.format(outcomes),
+          heapPeak / 1048576.0, heapAfterGc / 1048576.0,
+          unfinished, openSubscriptions, inFlight);
+    }
+  }
+
+  private static class BatchRound {
+
+    final int responses;
+    final long elapsedNanos;
+    final AtomicLongArray outcomes;
+    final boolean completed;
+    final int inFlight;
+    final long heapPeak;
+
+    BatchRound(int responses, long elapsedNanos, AtomicLongArray outcomes, boolean completed, int inFlight,
+               long heapPeak) {
+      this.responses = responses;
+      this.elapsedNanos = elapsedNanos;
+      this.outcomes = outcomes;
+      this.completed = completed;
+      this.inFlight = inFlight;
+      this.heapPeak = heapPeak;
+    }
+
+    boolean isClean() {
+      return completed && inFlight == 0;
+    }
+
+    @Override
+    public String toString() {
+      double seconds = elapsedNanos / 1e9;
+      return String.format(Locale.US,
+          "%d dates in %.2fs (%.0f/s) |%s | heap peak=%.1fMB | completed=%b coalesced in flight=%d",
+          responses, seconds, responses / seconds,
+          Outcome.format(outcomes),
+          heapPeak / 1048576.0,
+          completed, inFlight);
+    }
+  }
+
+  /**
+   * <pre>
+   * requests=5000         calls per round
+   * concurrency=256       calls in flight at once
+   * rounds=1              rounds to run
+   * dates=5000            distinct valid dates; fewer than requests lets concurrent calls coalesce
+   * animals=100           animals in each 200 response, 0 to answer everything with 404
+   * latency=fixed:20      fixed:ms, uniform:min:max or exponential:mean
+   * 400=0 404=0 500=0     share of requests answered with each status
+   * batch=                comma separated concurrency levels; when set, each round fetches the requests'
+   *                       dates as one batch per level instead of as separate calls
+   * </pre>
+   */
+  static class Config {
+
+    int requests = 5000;
+    int concurrency = 256;
+    int rounds = 1;
+    int distinctDates = 5000;
+    int animals = 100;
+    LatencyDistribution latency = LatencyDistribution.fixed(20);
+    double badRequestRate;
+    double notFoundRate;
+    double serverErrorRate;
+    int[] batchConcurrency = new int[0];
+
+    static Config parse(String[] args) {
+      Map<String, String> values = new HashMap<>();
+      for (String arg : args) {
+        int split = arg.indexOf('=');
+        if (split <= 0) {
+          throw new IllegalArgumentException("Expected key=value: " + arg);
+        }
+        values.put(arg.substring(0, split), arg.substring(split + 1));
+      }
+
+      Config config = new Config();
+      for (Map.Entry<String, String> entry : values.entrySet()) {
+        String value = entry.getValue();
+        switch (entry.getKey()) {
+          case "requests":
+            config.requests = positive(entry.getKey(), value);
+            break;
+          case "concurrency":
+            config.concurrency = positive(entry.getKey(), value);
+            break;
+          case "rounds":
+            config.rounds = positive(entry.getKey(), value);
+            break;
+          case "dates":
+            config.distinctDates = positive(entry.getKey(), value);
+            break;
+          case "animals":
+            config.animals = Integer.parseInt(value);
+            break;
+          case "latency":
+            config.latency = LatencyDistribution.parse(value);
+            break;
+          case "400":
+            config.badRequestRate = Double.parseDouble(value);
+            break;
+          case "404":
+            config.notFoundRate = Double.parseDouble(value);
+            break;
+          case "500":
+            config.serverErrorRate = Double.parseDouble(value);
+            break;
+          case "batch":
+            String[] levels = value.split(",");
+            config.batchConcurrency = new int[levels.length];
+            for (int i = 0; i < levels.length; i++) {
+              config.batchConcurrency[i] = positive(entry.getKey(), levels[i].trim());
+            }
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown option: " + entry.getKey());
+        }
+      }
+      return config;
+    }
+
+    int maxBatchConcurrency() {
+      int max = 0;
+      for (int level : batchConcurrency) {
+        max = Math.max(max, level);
+      }
+      return max;
+    }
+
+    private static int positive(String key, String value) {
+      int result = Integer.parseInt(value);
+      if (result <= 0) {
+        throw new IllegalArgumentException(key + " must be positive: " + value);
+      }
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      return "requests=" + requests
+          + " concurrency=" + concurrency
+          + " rounds=" + rounds
+          + " dates=" + distinctDates
+          + " animals=" + animals
+          + " latency=" + latency
+          + " 400=" + badRequestRate
+          + " 404=" + notFoundRate
+          + " 500=" + serverErrorRate
+          + (batchConcurrency.length == 0 ? "" : " batch=" + Arrays.toString(batchConcurrency));
+    }
+  }
+
+}
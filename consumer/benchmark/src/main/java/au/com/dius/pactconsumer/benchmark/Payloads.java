@@ -0,0 +1,68 @@
+package au.com.dius.pactconsumer.benchmark;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import au.com.dius.pactconsumer.data.model.Animal;
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import au.com.dius.pactconsumer.util.DateHelper;
+
+/**
+ * Generates provider payloads of a given size. The same seed always produces the same payload.
+ */
+final class Payloads {
+
+  static final DateTime VALID_DATE = new DateTime(1483228800000L, DateTimeZone.UTC);
+
+  private static final String[] TYPES = {"dog", "cat", "bird"};
+
+  private Payloads() {
+  }
+
+  static List<Animal> animals(int count, long seed) {
+    Random random = new Random(seed);
+    List<Animal> animals = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      animals.add(new Animal("animal-" + random.nextInt(count * 4 + 1), TYPES[random.nextInt(TYPES.length)]));
+    }
+    return animals;
+  }
+
+  static ServiceResponse response(int count, long seed) {
+    return new ServiceResponse(VALID_DATE, animals(count, seed));
+  }
+
+  static String json(int count, long seed) {
+    StringBuilder builder = new StringBuilder(count * 40 + 64);
+    builder.append("{\"valid_date\":\"").append(DateHelper.toString(VALID_DATE)).append("\",\"animals\":[");
+    List<Animal> animals = animals(count, seed);
+    for (int i = 0; i < animals.size(); i++) {
+      Animal animal = animals.get(i);
+      if (i > 0) {
+        builder.append(',');
+      }
+      builder.append("{\"name\":\"").append(animal.getName())
+          .append("\",\"image\":\"").append(animal.getType()).append("\"}");
+    }
+    return builder.append("]}").toString();
+  }
+
+  /**
+   * @return {@code count} distinct date times a few minutes apart, in a mix of zones
+   */
+  static DateTime[] dateTimes(int count, long seed) {
+    Random random = new Random(seed);
+    DateTime[] dateTimes = new DateTime[count];
+    for (int i = 0; i < count; i++) {
+      long millis = VALID_DATE.getMillis() + random.nextInt(365 * 24 * 60) * 60000L + random.nextInt(1000);
+      DateTimeZone zone = DateTimeZone.forOffsetHours(random.nextInt(25) - 12);
+      dateTimes[i] = new DateTime(millis, zone);
+    }
+    return dateTimes;
+  }
+
+}
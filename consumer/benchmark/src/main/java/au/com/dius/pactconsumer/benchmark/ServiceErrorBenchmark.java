@@ -0,0 +1,91 @@
+package au.com.dius.pactconsumer.benchmark;
+
+import com.jakewharton.retrofit2.adapter.rxjava2.HttpException;
+
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import au.com.dius.pactconsumer.data.Service;
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+/**
+ * Fetches through {@link Service} from an api that always fails with the given status, which measures the
+ * mapping of HTTP errors to results and exceptions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceErrorBenchmark {
+
+  @Param({"400", "404", "500"})
+  int status;
+
+  private Service service;
+
+  private DateTime dateTime;
+
+  @Setup
+  public void setUp() {
+    HttpException error = new HttpException(Response.error(status, ResponseBody.create(null, "")));
+    service = new Service(new FailingApi(error), Schedulers.trampoline());
+    dateTime = Payloads.VALID_DATE;
+  }
+
+  @Benchmark
+  public void fetchResponse(Blackhole blackhole) {
+    service.fetchResponse(dateTime).subscribe(blackhole::consume, blackhole::consume);
+  }
+
+  private static class FailingApi implements Service.Api {
+
+    private final HttpException error;
+
+    FailingApi(HttpException error) {
+      this.error = error;
+    }
+
+    @Override
+    public Single<ServiceResponse> loadProviderJson(String validDate) {
+      return Single.error(error);
+    }
+
+    @Override
+    public Single<ServiceResponse> reloadProviderJson(String validDate) {
+      return Single.error(error);
+    }
+
+    @Override
+    public Single<Response<ResponseBody>> loadProviderJsonIfChanged(String validDate,
+                                                                    String etag,
+                                                                    String lastModified,
+                                                                    String cacheControl) {
+      return Single.error(error);
+    }
+
+    @Override
+    public Single<ResponseBody> streamProviderJson(String validDate) {
+      return Single.error(error);
+    }
+  }
+
+}
@@ -0,0 +1,53 @@
+package au.com.dius.pactconsumer.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import au.com.dius.pactconsumer.data.model.ServiceResponse;
+
+/**
+ * Compares and hashes two equal responses built from separate animal instances, as a response decoded again
+ * is compared with the one on screen.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceResponseBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  int animals;
+
+  private ServiceResponse response;
+  private ServiceResponse copy;
+
+  @Setup
+  public void setUp() {
+    response = Payloads.response(animals, 42);
+    copy = Payloads.response(animals, 42);
+  }
+
+  @Benchmark
+  public boolean equalsCopy() {
+    return response.equals(copy);
+  }
+
+  @Benchmark
+  public int hashCodeOf() {
+    return response.hashCode();
+  }
+
+}
@@ -0,0 +1,90 @@
+package au.com.dius.pactconsumer.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+/**
+ * Answers like the provider in {@code provider/lib/provider.rb}: 400 when {@code valid_date} is missing,
+ * 404 when there are no animals, and the animals otherwise. On top of that a share of requests is failed
+ * with 400, 404 or 500, and every answer is delayed by a sample of the latency distribution.
+ * <p>
+ * The body is generated once, so its {@code valid_date} does not move with the clock.
+ */
+class StubProvider extends Dispatcher {
+
+  private static final String BAD_REQUEST_BODY = "\"valid_date is required\"";
+
+  private final byte[] body;
+
+  private final LatencyDistribution latency;
+
+  private final double badRequestRate;
+  private final double notFoundRate;
+  private final double serverErrorRate;
+
+  StubProvider(int animals,
+               LatencyDistribution latency,
+               double badRequestRate,
+               double notFoundRate,
+               double serverErrorRate) {
+    if (badRequestRate + notFoundRate + serverErrorRate > 1) {
+      throw new IllegalArgumentException("Error rates add up to more than 1");
+    }
+    this.body = animals > 0 ? Payloads.json(animals, 42).getBytes(StandardCharsets.UTF_8) : null;
+    this.latency = latency;
+    this.badRequestRate = badRequestRate;
+    this.notFoundRate = notFoundRate;
+    this.serverErrorRate = serverErrorRate;
+  }
+
+  @Override
+  public MockResponse dispatch(RecordedRequest request) {
+    Random random = ThreadLocalRandom.current();
+    MockResponse response = respond(request, random.nextDouble());
+    return response.setHeadersDelay(latency.sampleMillis(random), TimeUnit.MILLISECONDS);
+  }
+
+  private MockResponse respond(RecordedRequest request, double roll) {
+    HttpUrl url = request.getRequestUrl();
+    if (!"/provider.json".equals(url.encodedPath())) {
+      return new MockResponse().setResponseCode(404);
+    }
+
+    if (url.queryParameter("valid_date") == null || roll < badRequestRate) {
+      return json(400, new Buffer().writeUtf8(BAD_REQUEST_BODY));
+    }
+    roll -= badRequestRate;
+    if (body == null || roll < notFoundRate) {
+      return new MockResponse().setResponseCode(404);
+    }
+    roll -= notFoundRate;
+    if (roll < serverErrorRate) {
+      return new MockResponse().setResponseCode(500);
+    }
+    return json(200, new Buffer().write(body));
+  }
+
+  private static MockResponse json(int code, Buffer body) {
+    return new MockResponse()
+        .setResponseCode(code)
+        .setHeader("Content-Type", "application/json")
+        .setBody(body);
+  }
+
+  @Override
+  public String toString() {
+    return "latency=" + latency
+        + " 400=" + badRequestRate
+        + " 404=" + notFoundRate
+        + " 500=" + serverErrorRate;
+  }
+
+}